@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codepoints.catalog.benchmark;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.terasoluna.gfw.common.codepoints.CodePoints;
+import org.terasoluna.gfw.common.codepoints.catalog.JIS_X_0213_Kanji;
+
+/**
+ * JMH benchmark of {@link CodePoints#containsAll(String)} for ASCII, BMP kanji and surrogate-heavy inputs.
+ * <p>
+ * {@code containsAll} is compared with a plain loop of {@link String#codePointAt(int)} and {@link Set#contains(Object)}
+ * (the implementation until 5.4.x) on the same code points. This class is not run by the unit tests. Run it after
+ * {@code mvn test-compile} as following:
+ * </p>
+ *
+ * <pre>
+ * <code>mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main CodePointsContainsAllBenchmark</code>
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CodePointsContainsAllBenchmark {
+
+    private static final String ASCII = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz@._-+";
+
+    private static final String BMP_KANJI = "亜唖娃阿哀愛挨姶逢葵茜穐悪握渥旭葦芦鯵梓圧斡扱宛姐虻飴絢綾鮎或粟袷安庵按暗案闇鞍杏以伊位依偉囲夷委威尉惟意";
+
+    private static final String SURROGATE = "𠀋𡈽𡌛𡑮𡢽𠮟𡚴𡸴𣇄𣗄𣜿𣝣𣳾𤟱𥒎𥔎𥝱𥧄𥶡𦫿𦹀𧃴𧚄𨉷𨏍𪆐𠂉𠂢𠂤𠆢𠈓𠌫𠎁𠍱𠏹𠑊";
+
+    @Param({ "ascii", "bmpKanji", "surrogate" })
+    public String input;
+
+    private String text;
+
+    private CodePoints codePoints;
+
+    private Set<Integer> set;
+
+    @Setup
+    public void setup() {
+        CodePoints kanji = new JIS_X_0213_Kanji();
+        codePoints = kanji.union(new CodePoints(ASCII));
+        set = new HashSet<Integer>();
+        for (int codePoint = 0; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+            if (codePoints.contains(codePoint)) {
+                set.add(codePoint);
+            }
+        }
+
+        String unit;
+        if ("ascii".equals(input)) {
+            unit = ASCII;
+        } else if ("bmpKanji".equals(input)) {
+            unit = BMP_KANJI;
+        } else {
+            unit = SURROGATE;
+        }
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 256) {
+            sb.append(unit);
+        }
+        text = sb.toString();
+        if (!codePoints.containsAll(text)) {
+            throw new IllegalStateException("input must be included in the code points: "
+                    + input);
+        }
+    }
+
+    @Benchmark
+    public boolean containsAll() {
+        return codePoints.containsAll(text);
+    }
+
+    @Benchmark
+    public boolean containsAllCodePointAtLoop() {
+        String s = text;
+        int len = s.length();
+        int codePoint;
+        for (int i = 0; i < len; i += Character.charCount(codePoint)) {
+            codePoint = s.codePointAt(i);
+            if (!set.contains(codePoint)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codepoints.catalog.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasoluna.gfw.common.codepoints.CodePoints;
+import org.terasoluna.gfw.common.codepoints.catalog.JIS_X_0213_Kanji;
+
+/**
+ * JMH benchmark which compares the range-encoded {@link JIS_X_0213_Kanji} with a {@link java.util.HashSet} based
+ * {@link CodePoints} that has the same code points (the representation used by the generated catalogs until 5.4.x).
+ * <p>
+ * This class is not run by the unit tests. Run it after {@code mvn test-compile} as following:
+ * </p>
+ *
+ * <pre>
+ * <code>mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main JIS_X_0213_KanjiBenchmark</code>
+ * </pre>
+ */
+public class JIS_X_0213_KanjiBenchmark {
+
+    private static final String TEXT = "亜唖娃阿哀愛挨姶逢葵茜穐悪握渥旭葦芦鯵梓圧斡扱宛姐虻飴絢綾鮎或粟袷安庵按暗案闇鞍杏以伊位依偉囲夷委威尉惟意𠮟";
+
+    /**
+     * Code points of JIS X 0213 kanji. Not used by {@link #startupRange()} so that the resource is not loaded in advance.
+     */
+    @State(Scope.Benchmark)
+    public static class CatalogState {
+
+        private CodePoints rangeCodePoints;
+
+        private CodePoints hashSetCodePoints;
+
+        private Integer[] codePoints;
+
+        @Setup
+        public void setup() {
+            rangeCodePoints = new JIS_X_0213_Kanji();
+            List<Integer> list = new ArrayList<Integer>();
+            for (int codePoint = 0; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+                if (rangeCodePoints.contains(codePoint)) {
+                    list.add(codePoint);
+                }
+            }
+            codePoints = list.toArray(new Integer[list.size()]);
+            hashSetCodePoints = new CodePoints(codePoints);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean containsAllRange(CatalogState state) {
+        return state.rangeCodePoints.containsAll(TEXT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean containsAllHashSet(CatalogState state) {
+        return state.hashSetCodePoints.containsAll(TEXT);
+    }
+
+    /**
+     * Measures the first construction in a fresh JVM (loading the resource).
+     * @return created code points
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public CodePoints startupRange() {
+        return CodePoints.of(JIS_X_0213_Kanji.class);
+    }
+
+    /**
+     * Measures the construction of the {@link java.util.HashSet} based code points in a fresh JVM.
+     * @param state state that holds the code points
+     * @return created code points
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public CodePoints startupHashSet(CatalogState state) {
+        return new CodePoints(state.codePoints);
+    }
+}
@@ -15,10 +15,15 @@
  */
 package org.terasoluna.gfw.common.codepoints;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Represents the collection of code point. This class holds immutable code points as {@link java.util.Set} and provides
@@ -188,6 +193,11 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class CodePoints implements Serializable {
 
+    /**
+     * serial version UID. Kept to the value computed for 5.4.x so that serialized instances remain compatible.
+     */
+    private static final long serialVersionUID = -2792376600150713537L;
+
     /**
      * shows no code point is found in the given string which is not included in the target code points.
      */
@@ -196,13 +206,23 @@ public class CodePoints implements Serializable {
     /**
      * {@code CodePoints} cache
      */
-    private static final ConcurrentMap<Class<? extends CodePoints>, CodePoints> cache = new ConcurrentHashMap<Class<? extends CodePoints>, CodePoints>();
+    private static final ConcurrentMap<Class<? extends CodePoints>, CodePointsHolder> cache = new ConcurrentHashMap<Class<? extends CodePoints>, CodePointsHolder>();
 
     /**
      * set for code points.
      */
     private final Set<Integer> set;
 
+    /**
+     * bit mask of the ASCII code points (U+0000 - U+003F) included in the set. Recomputed on deserialization.
+     */
+    private transient long asciiMaskLow;
+
+    /**
+     * bit mask of the ASCII code points (U+0040 - U+007F) included in the set. Recomputed on deserialization.
+     */
+    private transient long asciiMaskHigh;
+
     /**
      * Constructor with the given {@code java.lang.Integer} code points
      * @param codePoints array of actual code points
@@ -211,6 +231,7 @@ public class CodePoints implements Serializable {
         Set<Integer> s = new HashSet<Integer>(codePoints.length);
         Collections.addAll(s, codePoints);
         this.set = Collections.unmodifiableSet(s);
+        initAsciiMask();
     }
 
     /**
@@ -228,6 +249,7 @@ public class CodePoints implements Serializable {
             }
         }
         this.set = Collections.unmodifiableSet(s);
+        initAsciiMask();
     }
 
     /**
@@ -237,6 +259,7 @@ public class CodePoints implements Serializable {
     public CodePoints(Collection<Integer> codePoints) {
         Set<Integer> s = new HashSet<Integer>(codePoints);
         this.set = Collections.unmodifiableSet(s);
+        initAsciiMask();
     }
 
     /**
@@ -245,6 +268,64 @@ public class CodePoints implements Serializable {
      */
     public CodePoints(CodePoints codePoints) {
         this.set = codePoints.set;
+        this.asciiMaskLow = codePoints.asciiMaskLow;
+        this.asciiMaskHigh = codePoints.asciiMaskHigh;
+    }
+
+    /**
+     * Constructor with the resource of code points in range-encoded format. This type is intended to use for large catalogs.
+     * The code points are held as ranges instead of a set of {@link Integer}, and the loaded code points are shared per
+     * resource.
+     * @param resourceBase class used to find the resource
+     * @param resourceName name of the resource relative to the package of {@code resourceBase}
+     * @throws IllegalArgumentException if the resource is not found or broken
+     * @since 5.5.0
+     */
+    protected CodePoints(Class<?> resourceBase, String resourceName) {
+        this.set = RangeCodePointSet.load(resourceBase, resourceName);
+        initAsciiMask();
+    }
+
+    /**
+     * Computes the bit mask of the ASCII code points included in the set.
+     */
+    private void initAsciiMask() {
+        long low = 0;
+        long high = 0;
+        for (int c = 0; c < 0x40; c++) {
+            if (set.contains(c)) {
+                low |= 1L << c;
+            }
+            if (set.contains(c + 0x40)) {
+                high |= 1L << c;
+            }
+        }
+        this.asciiMaskLow = low;
+        this.asciiMaskHigh = high;
+    }
+
+    /**
+     * returns whether the given ASCII char is included in the target code points.
+     * @param c ASCII char (lower than {@code 0x80})
+     * @return {@code true} if the given char is included in the target code points.
+     */
+    private boolean containsAscii(char c) {
+        // shift distance of long is masked by 0x3F
+        return (((c < 0x40 ? asciiMaskLow : asciiMaskHigh) >>> c) & 1L) != 0;
+    }
+
+    /**
+     * returns whether the given code point is included in the target code points.
+     * @param codePoint code point to check
+     * @return {@code true} if the given code point is included in the target code points. Otherwise {@code false} is
+     *         returned.
+     * @since 5.5.0
+     */
+    public boolean contains(int codePoint) {
+        if (codePoint >= 0 && codePoint < 0x80) {
+            return containsAscii((char) codePoint);
+        }
+        return set.contains(codePoint);
     }
 
     /**
@@ -267,12 +348,37 @@ public class CodePoints implements Serializable {
         if (s == null || s.isEmpty()) {
             return NOT_FOUND;
         }
-        // http://www.ibm.com/developerworks/jp/ysl/library/java/j-unicode_surrogate/
         int len = s.length();
+        int i = 0;
+        // ASCII fast path. 4 chars are checked at once until a non-ASCII char appears.
+        for (; i + 4 <= len; i += 4) {
+            char c0 = s.charAt(i);
+            char c1 = s.charAt(i + 1);
+            char c2 = s.charAt(i + 2);
+            char c3 = s.charAt(i + 3);
+            if ((c0 | c1 | c2 | c3) >= 0x80) {
+                break;
+            }
+            if (!(containsAscii(c0) && containsAscii(c1) && containsAscii(c2)
+                    && containsAscii(c3))) {
+                break;
+            }
+        }
+        for (; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            if (!containsAscii(c)) {
+                return c;
+            }
+        }
+        // http://www.ibm.com/developerworks/jp/ysl/library/java/j-unicode_surrogate/
         int codePoint;
-        for (int i = 0; i < len; i += Character.charCount(codePoint)) {
+        for (; i < len; i += Character.charCount(codePoint)) {
             codePoint = s.codePointAt(i);
-            if (!set.contains(codePoint)) {
+            if (codePoint < 0x80 ? !containsAscii((char) codePoint)
+                    : !set.contains(codePoint)) {
                 return codePoint;
             }
         }
@@ -295,7 +401,8 @@ public class CodePoints implements Serializable {
         Integer codePoint;
         for (int i = 0; i < len; i += Character.charCount(codePoint)) {
             codePoint = s.codePointAt(i);
-            if (!set.contains(codePoint)) {
+            if (codePoint < 0x80 ? !containsAscii((char) codePoint.intValue())
+                    : !set.contains(codePoint)) {
                 excludedCodePoints.add(codePoint);
             }
         }
@@ -338,24 +445,51 @@ public class CodePoints implements Serializable {
     /**
      * Produces cached {@link CodePoints}. At first time, a new {@link CodePoints} is created. After second time, same instance
      * is returned.
+     * <p>
+     * Even if several threads call this method for the same class at the same time, the instance is created only once. Threads
+     * that call this method for other classes are not blocked.
+     * </p>
      * @param clazz {@link CodePoints} class to create
      * @param <T> {@link CodePoints} class
      * @return cached instance
      */
-    @SuppressWarnings("unchecked")
     public static <T extends CodePoints> T of(Class<T> clazz) {
-        if (cache.containsKey(clazz)) {
-            return (T) cache.get(clazz);
-        }
-        try {
-            T codePoints = clazz.newInstance();
-            cache.put(clazz, codePoints);
-            return codePoints;
-        } catch (InstantiationException e) {
-            throw new IllegalArgumentException("exception occurred while initializing", e);
-        } catch (IllegalAccessException e) {
-            throw new IllegalArgumentException("public default constructor not found", e);
+        CodePointsHolder holder = cache.get(clazz);
+        if (holder == null) {
+            holder = new CodePointsHolder(clazz);
+            CodePointsHolder existing = cache.putIfAbsent(clazz, holder);
+            if (existing != null) {
+                holder = existing;
+            }
         }
+        return clazz.cast(holder.get());
+    }
+
+    /**
+     * Creates and caches the given {@link CodePoints} classes in advance on the given executor, so that the first validation
+     * does not pay the cost to create large catalogs.
+     *
+     * <pre>
+     * <code>CodePoints.warmUp(executor, JIS_X_0208_Kanji.class, JIS_X_0213_Kanji.class);</code>
+     * </pre>
+     * @param executor executor to run the warm-up (e.g. a background executor at startup)
+     * @param classes {@link CodePoints} classes to create
+     * @return future which completes when all classes are cached. If creation of a class fails, the future completes with
+     *         the exception.
+     * @since 5.5.0
+     */
+    @SafeVarargs
+    public static Future<Void> warmUp(ExecutorService executor,
+            final Class<? extends CodePoints>... classes) {
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (Class<? extends CodePoints> clazz : classes) {
+                    of(clazz);
+                }
+                return null;
+            }
+        });
     }
 
     /**
@@ -425,4 +559,74 @@ public class CodePoints implements Serializable {
     public int hashCode() {
         return set.hashCode();
     }
+
+    /**
+     * Restores the instance and recomputes the bit mask of the ASCII code points.
+     * @param in stream to read
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
+     */
+    private void readObject(
+            ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initAsciiMask();
+    }
+
+    /**
+     * Holder of the cached {@link CodePoints} per class, which creates the instance only once.
+     */
+    private static final class CodePointsHolder {
+
+        /**
+         * {@link CodePoints} class to create
+         */
+        private final Class<? extends CodePoints> clazz;
+
+        /**
+         * created instance. {@code null} until created.
+         */
+        private volatile CodePoints instance;
+
+        /**
+         * Constructor.
+         * @param clazz {@link CodePoints} class to create
+         */
+        private CodePointsHolder(Class<? extends CodePoints> clazz) {
+            this.clazz = clazz;
+        }
+
+        /**
+         * Returns the instance. At first time, the instance is created while holding the lock of this holder.
+         * @return the instance
+         */
+        private CodePoints get() {
+            CodePoints codePoints = instance;
+            if (codePoints == null) {
+                synchronized (this) {
+                    codePoints = instance;
+                    if (codePoints == null) {
+                        codePoints = newInstance(clazz);
+                        instance = codePoints;
+                    }
+                }
+            }
+            return codePoints;
+        }
+
+        /**
+         * Creates a new instance of the class.
+         * @param clazz {@link CodePoints} class to create
+         * @return created instance
+         */
+        private static CodePoints newInstance(
+                Class<? extends CodePoints> clazz) {
+            try {
+                return clazz.newInstance();
+            } catch (InstantiationException e) {
+                throw new IllegalArgumentException("exception occurred while initializing", e);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("public default constructor not found", e);
+            }
+        }
+    }
 }
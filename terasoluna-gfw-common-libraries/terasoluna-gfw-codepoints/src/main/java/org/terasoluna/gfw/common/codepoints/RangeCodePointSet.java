@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codepoints;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable set of code points held as sorted ranges of consecutive code points.
+ * <p>
+ * This set is used for large catalogs (e.g. JIS kanji). It is loaded from a compact binary resource which has the
+ * following range-encoded format, and needs only two {@code int} per range instead of an {@link Integer} per code point.
+ * Code points in the Basic Multilingual Plane are also held as a bitmap (8 KB) to check them in constant time.
+ * </p>
+ * <ol>
+ * <li>number of ranges (unsigned variable-length integer)</li>
+ * <li>for each range in ascending order:
+ * <ol>
+ * <li>gap from the end of the previous range (first code point of the range for the first range) minus 1 (unsigned
+ * variable-length integer)</li>
+ * <li>number of code points in the range minus 1 (unsigned variable-length integer)</li>
+ * </ol>
+ * </li>
+ * </ol>
+ * <p>
+ * The unsigned variable-length integer is stored by 7 bits per byte from the lower bits, and the highest bit of each byte
+ * shows that more bytes follow.
+ * </p>
+ * @since 5.5.0
+ */
+final class RangeCodePointSet extends AbstractSet<Integer> implements
+                              Serializable {
+
+    /**
+     * serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * cache of loaded sets per resource.
+     */
+    private static final ConcurrentMap<String, RangeCodePointSet> loaded = new ConcurrentHashMap<String, RangeCodePointSet>();
+
+    /**
+     * first code points of ranges (ascending order).
+     */
+    private final int[] starts;
+
+    /**
+     * last code points of ranges (inclusive).
+     */
+    private final int[] ends;
+
+    /**
+     * number of code points.
+     */
+    private final int size;
+
+    /**
+     * bitmap of code points in the Basic Multilingual Plane, to check them without binary search.
+     */
+    private final long[] bmpBits = new long[0x10000 / 64];
+
+    /**
+     * Constructor.
+     * @param starts first code points of ranges (ascending order)
+     * @param ends last code points of ranges (inclusive)
+     */
+    private RangeCodePointSet(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+        int s = 0;
+        for (int i = 0; i < starts.length; i++) {
+            s += ends[i] - starts[i] + 1;
+            int bmpEnd = Math.min(ends[i], Character.MAX_VALUE);
+            for (int codePoint = starts[i]; codePoint <= bmpEnd; codePoint++) {
+                bmpBits[codePoint >>> 6] |= 1L << codePoint;
+            }
+        }
+        this.size = s;
+    }
+
+    /**
+     * Loads the set from the resource. The loaded set is cached and shared per resource.
+     * @param base class used to find the resource
+     * @param resourceName name of the resource relative to the package of {@code base}
+     * @return loaded set
+     * @throws IllegalArgumentException if the resource is not found or broken
+     */
+    static RangeCodePointSet load(Class<?> base, String resourceName) {
+        URL url = base.getResource(resourceName);
+        if (url == null) {
+            throw new IllegalArgumentException("code points resource not found (resourceName = "
+                    + resourceName + ", base = " + base.getName() + ")");
+        }
+        String key = url.toString();
+        RangeCodePointSet set = loaded.get(key);
+        if (set != null) {
+            return set;
+        }
+        try {
+            InputStream in = url.openStream();
+            try {
+                set = read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("failed to load code points resource (resourceName = "
+                    + resourceName + ", base = " + base.getName() + ")", e);
+        }
+        RangeCodePointSet existing = loaded.putIfAbsent(key, set);
+        return existing != null ? existing : set;
+    }
+
+    /**
+     * Reads the set from the stream in the range-encoded format.
+     * @param in stream to read
+     * @return read set
+     * @throws IOException if an I/O error occurs or the format is broken
+     */
+    static RangeCodePointSet read(InputStream in) throws IOException {
+        InputStream buffered = new BufferedInputStream(in);
+        int count = readUnsignedVarInt(buffered);
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int prevEnd = -1;
+        for (int i = 0; i < count; i++) {
+            int start = prevEnd + 1 + readUnsignedVarInt(buffered);
+            int end = start + readUnsignedVarInt(buffered);
+            if (end > Character.MAX_CODE_POINT) {
+                throw new IOException("invalid code point range (start = "
+                        + start + ", end = " + end + ")");
+            }
+            starts[i] = start;
+            ends[i] = end;
+            prevEnd = end;
+        }
+        return new RangeCodePointSet(starts, ends);
+    }
+
+    /**
+     * Writes the given code points to the stream in the range-encoded format.
+     * @param codePoints code points to write
+     * @param out stream to write
+     * @throws IOException if an I/O error occurs
+     */
+    static void write(Collection<Integer> codePoints,
+            OutputStream out) throws IOException {
+        int[] sorted = new int[codePoints.size()];
+        int n = 0;
+        for (Integer codePoint : codePoints) {
+            sorted[n++] = codePoint;
+        }
+        Arrays.sort(sorted);
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (count > 0 && sorted[i] <= ends[count - 1] + 1) {
+                ends[count - 1] = Math.max(ends[count - 1], sorted[i]);
+            } else {
+                starts[count] = sorted[i];
+                ends[count] = sorted[i];
+                count++;
+            }
+        }
+        writeUnsignedVarInt(count, out);
+        int prevEnd = -1;
+        for (int i = 0; i < count; i++) {
+            writeUnsignedVarInt(starts[i] - prevEnd - 1, out);
+            writeUnsignedVarInt(ends[i] - starts[i], out);
+            prevEnd = ends[i];
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns whether the given code point is included.
+     * @param codePoint code point to check
+     * @return {@code true} if the given code point is included
+     */
+    boolean contains(int codePoint) {
+        if (codePoint <= Character.MAX_VALUE) {
+            return codePoint >= 0 && (bmpBits[codePoint >>> 6]
+                    & (1L << codePoint)) != 0;
+        }
+        int index = Arrays.binarySearch(starts, codePoint);
+        if (index >= 0) {
+            return true;
+        }
+        index = -index - 2; // the range that starts before the code point
+        return index >= 0 && codePoint <= ends[index];
+    }
+
+    /**
+     * Returns whether the given object is an included code point.
+     * @param o object to check
+     * @return {@code true} if the given object is an included code point
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains(((Integer) o).intValue());
+    }
+
+    /**
+     * Returns the number of code points.
+     * @return the number of code points
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the iterator of code points in ascending order.
+     * @return the iterator of code points
+     */
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private int range = 0;
+
+            private int next = starts.length > 0 ? starts[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                return range < starts.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int codePoint = next;
+                if (codePoint == ends[range]) {
+                    range++;
+                    if (range < starts.length) {
+                        next = starts[range];
+                    }
+                } else {
+                    next++;
+                }
+                return codePoint;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Reads an unsigned variable-length integer.
+     * @param in stream to read
+     * @return read value
+     * @throws IOException if an I/O error occurs or the stream ends
+     */
+    private static int readUnsignedVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("unexpected end of code points resource");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed variable-length integer");
+    }
+
+    /**
+     * Writes an unsigned variable-length integer.
+     * @param value value to write (not negative)
+     * @param out stream to write
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeUnsignedVarInt(int value,
+            OutputStream out) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+}
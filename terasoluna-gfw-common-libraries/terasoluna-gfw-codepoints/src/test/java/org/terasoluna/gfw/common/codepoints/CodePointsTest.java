@@ -19,7 +19,19 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -89,6 +101,108 @@ public class CodePointsTest {
                 false));
     }
 
+    @Test
+    public void testContains() {
+        CodePoints codePoints = new CodePoints("あ", "𠮷");
+
+        assertThat(codePoints.contains(0x3042), is(true));
+        assertThat(codePoints.contains(0x20BB7), is(true));
+        assertThat(codePoints.contains(0x3044), is(false));
+    }
+
+    @Test
+    public void testContains_ascii() {
+        CodePoints codePoints = new CodePoints("09AZaz~\u0000あ");
+
+        assertThat(codePoints.contains(0x0000), is(true));
+        assertThat(codePoints.contains('0'), is(true));
+        assertThat(codePoints.contains('9'), is(true));
+        assertThat(codePoints.contains('A'), is(true));
+        assertThat(codePoints.contains('Z'), is(true));
+        assertThat(codePoints.contains('a'), is(true));
+        assertThat(codePoints.contains('z'), is(true));
+        assertThat(codePoints.contains('~'), is(true));
+        assertThat(codePoints.contains('1'), is(false));
+        assertThat(codePoints.contains('B'), is(false));
+        assertThat(codePoints.contains(0x007F), is(false));
+        assertThat(codePoints.contains(-1), is(false));
+        assertThat(codePoints.contains(0x0080), is(false));
+        assertThat(codePoints.contains(0x3042), is(true));
+    }
+
+    @Test
+    public void testFirstExcludedCodePoint_asciiFastPath() {
+        CodePoints codePoints = new CodePoints("abcdefgh𠮷あ");
+
+        assertThat(codePoints.firstExcludedCodePoint("abcdefghabcdefgh"), is(
+                CodePoints.NOT_FOUND));
+        // excluded in the middle of the 4 chars chunk
+        assertThat(codePoints.firstExcludedCodePoint("abcdefXhabcd"), is(
+                (int) 'X'));
+        // excluded in the tail after the chunks
+        assertThat(codePoints.firstExcludedCodePoint("abcdefghaY"), is(
+                (int) 'Y'));
+        // non-ASCII chars fall back to the general path
+        assertThat(codePoints.firstExcludedCodePoint("abcあ𠮷abcd"), is(
+                CodePoints.NOT_FOUND));
+        assertThat(codePoints.firstExcludedCodePoint("abcdあ𠮷abZd"), is(
+                (int) 'Z'));
+        assertThat(codePoints.firstExcludedCodePoint("ab𠮟abcdefgh"), is(
+                0x20B9F));
+        assertThat(codePoints.firstExcludedCodePoint("abcd\ud842"), is(0xD842));
+        assertThat(codePoints.allExcludedCodePoints("abXあYZ𠮟X"), is(
+                (Set<Integer>) new LinkedHashSet<Integer>(Arrays.asList(
+                        (int) 'X', (int) 'Y', (int) 'Z', 0x20B9F))));
+    }
+
+    @Test
+    public void testAsciiMask_copyAndSerialization() throws Exception {
+        CodePoints codePoints = new CodePoints(new CodePoints("ab?"));
+        assertThat(codePoints.containsAll("ab?"), is(true));
+        assertThat(codePoints.containsAll("abc"), is(false));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(codePoints);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes
+                .toByteArray()));
+        CodePoints deserialized = (CodePoints) in.readObject();
+
+        assertThat(deserialized, is(codePoints));
+        assertThat(deserialized.containsAll("ab?"), is(true));
+        assertThat(deserialized.containsAll("abc"), is(false));
+
+        // new CodePoints("ab?") serialized by 5.4.x
+        in = new ObjectInputStream(CodePointsTest.class.getResourceAsStream(
+                "CodePoints_5.4.ser"));
+        try {
+            deserialized = (CodePoints) in.readObject();
+        } finally {
+            in.close();
+        }
+
+        assertThat(deserialized, is(codePoints));
+        assertThat(deserialized.containsAll("ab?"), is(true));
+        assertThat(deserialized.containsAll("abc"), is(false));
+    }
+
+    @Test
+    public void testResourceConstructor() {
+        CodePoints codePoints = CodePoints.of(RangesResourceCodePoints.class);
+
+        assertThat(codePoints.containsAll("abcあ"), is(true));
+        assertThat(codePoints.firstExcludedCodePoint("abcd"), is(0x64));
+        assertThat(codePoints.union(new CodePoints("d")).containsAll("abcd"),
+                is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResourceConstructorNotFound() {
+        new CodePoints(CodePointsTest.class, "notFound.ranges") {
+        };
+    }
+
     /**
      * Asserts that {} ∩ {1, 2, 3, 4} ∩ {2, 3, 4, 5} ∩ {3, 4, 5, 6}＝{}
      */
@@ -668,6 +782,68 @@ public class CodePointsTest {
         CodePoints.of(AbstractCodePoints.class);
     }
 
+    @Test
+    public void testOf_concurrent_first_use_creates_once() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<CountingCodePoints>> futures = new ArrayList<Future<CountingCodePoints>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<CountingCodePoints>() {
+                    @Override
+                    public CountingCodePoints call() throws Exception {
+                        start.await();
+                        return CodePoints.of(CountingCodePoints.class);
+                    }
+                }));
+            }
+            start.countDown();
+
+            CountingCodePoints first = futures.get(0).get();
+            for (Future<CountingCodePoints> future : futures) {
+                assertThat(future.get(), is(sameInstance(first)));
+            }
+            assertThat(CountingCodePoints.created.get(), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> future = CodePoints.warmUp(executor,
+                    WarmUpCodePoints.class, ABCD.class);
+            future.get(10, TimeUnit.SECONDS);
+
+            assertThat(WarmUpCodePoints.created.get(), is(1));
+            CodePoints.of(WarmUpCodePoints.class);
+            assertThat(WarmUpCodePoints.created.get(), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWarmUp_failure() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> future = CodePoints.warmUp(executor,
+                    AbstractCodePoints.class);
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("ExecutionException is expected.");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause() instanceof IllegalArgumentException, is(
+                        true));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testEquals() {
         // set up
@@ -713,4 +889,34 @@ public class CodePointsTest {
         // assert
         assertThat(cp1.hashCode(), is(cp2.hashCode()));
     }
+
+    public static class RangesResourceCodePoints extends CodePoints {
+        public RangesResourceCodePoints() {
+            super(CodePointsTest.class, "test.ranges");
+        }
+    }
+
+    public static class CountingCodePoints extends CodePoints {
+        static final AtomicInteger created = new AtomicInteger();
+
+        public CountingCodePoints() {
+            super(0x0041);
+            created.incrementAndGet();
+            try {
+                // widen the window in which other threads call of()
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static class WarmUpCodePoints extends CodePoints {
+        static final AtomicInteger created = new AtomicInteger();
+
+        public WarmUpCodePoints() {
+            super(0x0041);
+            created.incrementAndGet();
+        }
+    }
 }
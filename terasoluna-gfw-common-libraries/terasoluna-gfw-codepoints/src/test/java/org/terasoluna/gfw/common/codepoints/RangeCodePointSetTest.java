@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codepoints;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class RangeCodePointSetTest {
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Set<Integer> expected = new HashSet<Integer>(Arrays.asList(0x00, 0x41,
+                0x42, 0x43, 0x3042, 0x3044, 0x3046, 0x20BB7, 0x20BB8,
+                Character.MAX_CODE_POINT));
+
+        RangeCodePointSet set = writeAndRead(expected);
+
+        assertThat(set.size(), is(expected.size()));
+        assertThat(set.equals(expected), is(true));
+        assertThat(expected.equals(set), is(true));
+        assertThat(set.hashCode(), is(expected.hashCode()));
+        assertThat(set.contains(0x44), is(false));
+        assertThat(set.contains(0x3045), is(false));
+        assertThat(set.contains(0x20BB9), is(false));
+        assertThat(set.contains((Object) "A"), is(false));
+        assertThat(set.contains(-1), is(false));
+        assertThat(set.contains(0xFFFF), is(false));
+        assertThat(set.contains(0x10000), is(false));
+
+        List<Integer> iterated = new ArrayList<Integer>(set);
+        assertThat(iterated, is(Arrays.asList(0x00, 0x41, 0x42, 0x43, 0x3042,
+                0x3044, 0x3046, 0x20BB7, 0x20BB8, Character.MAX_CODE_POINT)));
+    }
+
+    @Test
+    public void testWriteAndReadEmpty() throws IOException {
+        RangeCodePointSet set = writeAndRead(new HashSet<Integer>());
+
+        assertThat(set.isEmpty(), is(true));
+        assertThat(set.contains(0), is(false));
+        assertThat(set.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testReadBroken() throws IOException {
+        try {
+            RangeCodePointSet.read(new ByteArrayInputStream(new byte[] { 2,
+                    0x41, 0 }));
+            fail("EOFException is not thrown.");
+        } catch (EOFException e) {
+            assertThat(e.getMessage(), is(
+                    "unexpected end of code points resource"));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() throws IOException {
+        writeAndRead(new HashSet<Integer>(Arrays.asList(0x41))).add(0x42);
+    }
+
+    @Test
+    public void testLoadIsShared() {
+        RangeCodePointSet set1 = RangeCodePointSet.load(getClass(),
+                "test.ranges");
+        RangeCodePointSet set2 = RangeCodePointSet.load(getClass(),
+                "test.ranges");
+
+        assertThat(set1, sameInstance(set2));
+        assertThat(set1.equals(new HashSet<Integer>(Arrays.asList(0x61, 0x62,
+                0x63, 0x3042))), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadNotFound() {
+        RangeCodePointSet.load(getClass(), "notFound.ranges");
+    }
+
+    private static RangeCodePointSet writeAndRead(
+            Set<Integer> codePoints) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RangeCodePointSet.write(codePoints, out);
+        return RangeCodePointSet.read(new ByteArrayInputStream(out
+                .toByteArray()));
+    }
+}
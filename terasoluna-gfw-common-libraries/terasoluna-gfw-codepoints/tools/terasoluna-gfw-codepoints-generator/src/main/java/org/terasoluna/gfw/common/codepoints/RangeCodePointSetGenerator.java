@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codepoints;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Generator of the range-encoded resource read by {@link RangeCodePointSet} from a mapping table.
+ * <p>
+ * This class is used at build time of the catalog modules as following:
+ * </p>
+ *
+ * <pre>
+ * <code>java org.terasoluna.gfw.common.codepoints.RangeCodePointSetGenerator JIS_X_0213_Kanji.txt JIS_X_0213_Kanji.ranges</code>
+ * </pre>
+ * <p>
+ * The mapping table is a UTF-8 text file. Each line starts with a code point in hexadecimal ({@code 0x4E9C} or
+ * {@code U+4E9C}), and the rest of the line (e.g. the character and the position in the character set) is ignored. Empty
+ * lines and lines starting with {@code #} are ignored.
+ * </p>
+ * @since 5.5.0
+ */
+final class RangeCodePointSetGenerator {
+
+    /**
+     * Default constructor.
+     */
+    private RangeCodePointSetGenerator() {
+        // do nothing
+    }
+
+    /**
+     * Generates the resource.
+     * @param args path of the mapping table and path of the resource to generate
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: RangeCodePointSetGenerator <mapping table> <resource>");
+        }
+        Set<Integer> codePoints = readMappingTable(new File(args[0]));
+        File resource = new File(args[1]);
+        File dir = resource.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("failed to create directory: " + dir);
+        }
+        OutputStream out = new FileOutputStream(resource);
+        try {
+            RangeCodePointSet.write(codePoints, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads code points from the mapping table.
+     * @param mappingTable mapping table
+     * @return code points in the mapping table
+     * @throws IOException if an I/O error occurs or the mapping table has an invalid line
+     */
+    static Set<Integer> readMappingTable(File mappingTable) throws IOException {
+        Set<Integer> codePoints = new LinkedHashSet<Integer>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(mappingTable), "UTF-8"));
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String token = trimmed.split("\\s+", 2)[0];
+                if (!token.startsWith("0x") && !token.startsWith("U+")) {
+                    throw new IOException("invalid code point at line "
+                            + lineNumber + " of " + mappingTable + ": "
+                            + token);
+                }
+                int codePoint;
+                try {
+                    codePoint = Integer.parseInt(token.substring(2), 16);
+                } catch (NumberFormatException e) {
+                    throw new IOException("invalid code point at line "
+                            + lineNumber + " of " + mappingTable + ": "
+                            + token, e);
+                }
+                if (!Character.isValidCodePoint(codePoint)) {
+                    throw new IOException("invalid code point at line "
+                            + lineNumber + " of " + mappingTable + ": "
+                            + token);
+                }
+                codePoints.add(codePoint);
+            }
+        } finally {
+            reader.close();
+        }
+        return codePoints;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codepoints;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RangeCodePointSetGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMain() throws IOException {
+        File mappingTable = write("# comment\n", "0x3042 あ (04-02)\n", "\n",
+                "U+20BB7 𠮷\n", "  0x3041\n", "0x3042 duplicated\n");
+        File resource = new File(folder.getRoot(), "out/test.ranges");
+
+        RangeCodePointSetGenerator.main(new String[] { mappingTable.getPath(),
+                resource.getPath() });
+
+        InputStream in = new FileInputStream(resource);
+        try {
+            assertThat(RangeCodePointSet.read(in).equals(
+                    new HashSet<Integer>(Arrays.asList(0x3041, 0x3042,
+                            0x20BB7))), is(true));
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testInvalidLine() throws IOException {
+        File mappingTable = write("0x3042\n", "3043\n");
+
+        try {
+            RangeCodePointSetGenerator.readMappingTable(mappingTable);
+            fail("IOException is not thrown.");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("invalid code point at line 2 of "
+                    + mappingTable + ": 3043"));
+        }
+    }
+
+    @Test
+    public void testInvalidCodePoint() throws IOException {
+        File mappingTable = write("0x110000\n");
+
+        try {
+            RangeCodePointSetGenerator.readMappingTable(mappingTable);
+            fail("IOException is not thrown.");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("invalid code point at line 1 of "
+                    + mappingTable + ": 0x110000"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMainInvalidArguments() throws IOException {
+        RangeCodePointSetGenerator.main(new String[0]);
+    }
+
+    private File write(String... lines) throws IOException {
+        File file = folder.newFile();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            for (String line : lines) {
+                writer.write(line);
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+}
@@ -66,6 +66,22 @@ public abstract class AbstractReloadableCodeList extends AbstractCodeList
         return exposedMap;
     }
 
+    /**
+     * Returns the codes of the codelist copied at once.
+     * <p>
+     * The copy is taken under the same monitor as {@link #refresh()}, so that the codes of one generation of codelist are
+     * returned even if the codelist is reloaded concurrently.
+     * </p>
+     * @return codes of the codelist
+     * @since 5.5.0
+     */
+    String[] copyCodes() {
+        asMap();
+        synchronized (cachedMap) {
+            return cachedMap.keySet().toArray(new String[cachedMap.size()]);
+        }
+    }
+
     /**
      * Flag that determines whether the codelist information needs to be eager fetched. <br>
      * @param lazyInit flag
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * Immutable snapshot of the codes of a {@link CodeList} for bulk validation.
+ * <p>
+ * This class is intended to check a large number of codes (e.g. a column of a CSV file to import) in the same way as
+ * {@link ExistInCodeList}. The codes are copied once when the snapshot is taken and kept as a sorted array, so checking does
+ * not access the {@link CodeList} (and does not acquire the read lock of {@link AbstractReloadableCodeList}) for each code.
+ * Take a snapshot per batch to pick up the reloaded codelist.
+ * </p>
+ *
+ * <pre>
+ * CodeListSnapshot snapshot = CodeListSnapshot.of(codeList);
+ * int[] invalidRows = snapshot.findInvalidIndices(codes);
+ * </pre>
+ * @since 5.5.0
+ */
+public final class CodeListSnapshot {
+
+    /**
+     * codes of the codelist sorted in natural order.
+     */
+    private final String[] sortedCodes;
+
+    /**
+     * Constructor.
+     * @param sortedCodes codes of the codelist sorted in natural order
+     */
+    private CodeListSnapshot(String[] sortedCodes) {
+        this.sortedCodes = sortedCodes;
+    }
+
+    /**
+     * Takes a snapshot of the codes of the codelist.
+     * @param codeList codelist
+     * @return snapshot of the codes
+     */
+    public static CodeListSnapshot of(CodeList codeList) {
+        Assert.notNull(codeList, "codeList must not be null");
+        String[] codes;
+        if (codeList instanceof AbstractReloadableCodeList) {
+            codes = ((AbstractReloadableCodeList) codeList).copyCodes();
+        } else {
+            codes = codeList.asMap().keySet().toArray(new String[0]);
+        }
+        Arrays.sort(codes);
+        return new CodeListSnapshot(codes);
+    }
+
+    /**
+     * Returns the number of codes in this snapshot.
+     * @return the number of codes
+     */
+    public int size() {
+        return sortedCodes.length;
+    }
+
+    /**
+     * Checks whether the code exists in this snapshot.
+     * @param code code to check
+     * @return {@code true} if the code exists. {@code false} otherwise (including {@code null}).
+     */
+    public boolean contains(CharSequence code) {
+        return code != null && Arrays.binarySearch(sortedCodes, code
+                .toString()) >= 0;
+    }
+
+    /**
+     * Finds the indices of invalid codes.
+     * <p>
+     * As well as {@link ExistInCodeList}, {@code null} and empty code are regarded as valid.
+     * </p>
+     * @param codes codes to check (e.g. a column of imported rows)
+     * @return indices of the codes that do not exist in this snapshot, in ascending order. empty array if all codes are valid.
+     */
+    public int[] findInvalidIndices(List<? extends CharSequence> codes) {
+        int[] invalidIndices = new int[8];
+        int count = 0;
+        int index = 0;
+        for (CharSequence code : codes) {
+            if (code != null && code.length() != 0 && !contains(code)) {
+                if (count == invalidIndices.length) {
+                    invalidIndices = Arrays.copyOf(invalidIndices, count * 2);
+                }
+                invalidIndices[count++] = index;
+            }
+            index++;
+        }
+        return Arrays.copyOf(invalidIndices, count);
+    }
+
+}
@@ -15,9 +15,11 @@
  */
 package org.terasoluna.gfw.common.codelist.i18n;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -214,6 +216,11 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements
      */
     Table<Locale, String, String> codeListTable;
 
+    /**
+     * rows of codelist table per locale. Each row is an unmodifiable map built with the table.
+     */
+    private Map<Locale, Map<String, String>> codeListRows;
+
     /**
      * supplier to return a {@link LinkedHashMap} object.
      */
@@ -233,7 +240,20 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements
     @Override
     public Map<String, String> asMap(Locale locale) {
         Assert.notNull(locale, "locale is null");
-        return codeListTable.row(locale);
+        Map<String, String> row = codeListRows.get(locale);
+        if (row == null) {
+            return Collections.emptyMap();
+        }
+        return row;
+    }
+
+    /**
+     * Returns the locales that have a row in codelist table.
+     * @return unmodifiable set of locales
+     * @since 5.5.0
+     */
+    public Set<Locale> getLocales() {
+        return codeListRows.keySet();
     }
 
     /**
@@ -267,7 +287,7 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements
                 table.put(locale, value, label);
             }
         }
-        this.codeListTable = Tables.unmodifiableTable(table);
+        setTable(table);
     }
 
     /**
@@ -289,7 +309,7 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements
                 table.put(locale, value, label);
             }
         }
-        this.codeListTable = Tables.unmodifiableTable(table);
+        setTable(table);
     }
 
     /**
@@ -311,7 +331,25 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements
                 table.put(locale, value, label);
             }
         }
+        setTable(table);
+    }
+
+    /**
+     * set table and build rows per locale.
+     * <p>
+     * The rows are copied once here, so that {@link #asMap(Locale)} does not create a view of the table for each call.
+     * </p>
+     * @param table codelist table
+     */
+    private void setTable(Table<Locale, String, String> table) {
+        Map<Locale, Map<String, String>> rows = new LinkedHashMap<Locale, Map<String, String>>();
+        for (Map.Entry<Locale, Map<String, String>> e : table.rowMap()
+                .entrySet()) {
+            rows.put(e.getKey(), Collections.unmodifiableMap(
+                    new LinkedHashMap<String, String>(e.getValue())));
+        }
         this.codeListTable = Tables.unmodifiableTable(table);
+        this.codeListRows = Collections.unmodifiableMap(rows);
     }
 
     /**
@@ -50,6 +50,14 @@ public class DefaultExceptionLevelResolver implements ExceptionLevelResolver {
         this.exceptionCodeResolver = exceptionCodeResolver;
     }
 
+    /**
+     * Returns exception code resolution object.
+     * @return Exception code resolution object
+     */
+    ExceptionCodeResolver getExceptionCodeResolver() {
+        return exceptionCodeResolver;
+    }
+
     /**
      * Determines the level of exception.
      * <p>
@@ -65,7 +73,16 @@ public class DefaultExceptionLevelResolver implements ExceptionLevelResolver {
      */
     @Override
     public ExceptionLevel resolveExceptionLevel(Exception ex) {
-        String exceptionCode = resolveExceptionCode(ex);
+        return resolveExceptionLevelByCode(resolveExceptionCode(ex));
+    }
+
+    /**
+     * Determines the level of exception from exception code.
+     * @param exceptionCode exception code
+     * @return level of exception
+     * @see #resolveExceptionLevel(Exception)
+     */
+    static ExceptionLevel resolveExceptionLevelByCode(String exceptionCode) {
         if (exceptionCode == null || exceptionCode.isEmpty()) {
             return ExceptionLevel.ERROR;
         }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Snapshot of the number of exceptions per exception code and exception level recorded by {@link ExceptionStatistics}.
+ * @since 5.5.0
+ */
+public class ExceptionCount {
+
+    /**
+     * Exception code.
+     */
+    private final String exceptionCode;
+
+    /**
+     * Exception level.
+     */
+    private final ExceptionLevel level;
+
+    /**
+     * Total number of exceptions.
+     */
+    private final long totalCount;
+
+    /**
+     * Number of exceptions in the recent window.
+     */
+    private final long recentCount;
+
+    /**
+     * Average number of exceptions per second in the recent window.
+     */
+    private final double recentRatePerSecond;
+
+    /**
+     * Constructor.
+     * @param exceptionCode exception code
+     * @param level exception level
+     * @param totalCount total number of exceptions
+     * @param recentCount number of exceptions in the recent window
+     * @param recentRatePerSecond average number of exceptions per second in the recent window
+     */
+    @ConstructorProperties({ "exceptionCode", "level", "totalCount",
+            "recentCount", "recentRatePerSecond" })
+    public ExceptionCount(String exceptionCode, ExceptionLevel level,
+            long totalCount, long recentCount, double recentRatePerSecond) {
+        this.exceptionCode = exceptionCode;
+        this.level = level;
+        this.totalCount = totalCount;
+        this.recentCount = recentCount;
+        this.recentRatePerSecond = recentRatePerSecond;
+    }
+
+    /**
+     * Returns exception code.
+     * @return exception code
+     */
+    public String getExceptionCode() {
+        return exceptionCode;
+    }
+
+    /**
+     * Returns exception level.
+     * @return exception level
+     */
+    public ExceptionLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns total number of exceptions.
+     * @return total number of exceptions
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns number of exceptions in the recent window.
+     * @return number of exceptions in the recent window
+     */
+    public long getRecentCount() {
+        return recentCount;
+    }
+
+    /**
+     * Returns average number of exceptions per second in the recent window.
+     * @return average number of exceptions per second in the recent window
+     */
+    public double getRecentRatePerSecond() {
+        return recentRatePerSecond;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ExceptionCount [exceptionCode=" + exceptionCode + ", level="
+                + level + ", totalCount=" + totalCount + ", recentCount="
+                + recentCount + ", recentRatePerSecond=" + recentRatePerSecond
+                + "]";
+    }
+
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.ObjectUtils;
+import org.terasoluna.gfw.common.exception.ExceptionLogger.LogLevelWrappingLogger;
+
+/**
+ * Throttle of duplicate exception logs used by {@link ExceptionLogger}.
+ * <p>
+ * Exceptions are regarded as duplicate if exception code, exception class and the top stack frame are same. In each
+ * time window, the first {@code limit} occurrences are logged in full and the others are only counted. When the window
+ * of a duplicate exception is over, a summary line with the number of suppressed occurrences is logged. The windows are
+ * checked when the same exception occurs again and by a sweep that runs at most once per window when any exception is
+ * logged or {@link #sweep()} is called (e.g. by a timer of {@link ExceptionLogger}), so the summary is logged even if
+ * no further exception occurs. {@link #flush()} logs the summaries of the current windows on shutdown. The summary is
+ * formatted by {@link ExceptionLogger#formatLogMessage(String, String)} with the exception code, so it honors the log
+ * message format of the {@link ExceptionLogger}.
+ * </p>
+ * @since 5.5.0
+ */
+class ExceptionLogThrottle {
+
+    /**
+     * Number of occurrences logged in full per window.
+     */
+    private final int limit;
+
+    /**
+     * Length of the window in milliseconds.
+     */
+    private final long windowMillis;
+
+    /**
+     * Exception logger that formats the summary.
+     */
+    private final ExceptionLogger exceptionLogger;
+
+    /**
+     * Counters per duplicate key.
+     */
+    private final ConcurrentMap<DuplicateKey, DuplicateCounter> counters = new ConcurrentHashMap<DuplicateKey, DuplicateCounter>();
+
+    /**
+     * Time to run the next sweep.
+     */
+    private final AtomicLong nextSweepMillis;
+
+    /**
+     * Constructor.
+     * @param limit number of occurrences logged in full per window
+     * @param windowMillis length of the window in milliseconds
+     * @param exceptionLogger exception logger that formats the summary
+     */
+    ExceptionLogThrottle(int limit, long windowMillis,
+            ExceptionLogger exceptionLogger) {
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.exceptionLogger = exceptionLogger;
+        this.nextSweepMillis = new AtomicLong(currentTimeMillis()
+                + windowMillis);
+    }
+
+    /**
+     * Counts an occurrence of the exception and determines whether it is logged in full.
+     * @param resolution result of resolving the exception code
+     * @param logger logger to output the log
+     * @return {@code true} if the exception should be logged. {@code false} if it is suppressed.
+     */
+    boolean acquire(ExceptionResolution resolution,
+            LogLevelWrappingLogger logger) {
+        long now = currentTimeMillis();
+        sweepIfNecessary(now);
+
+        DuplicateKey key = new DuplicateKey(resolution);
+        while (true) {
+            DuplicateCounter counter = counters.get(key);
+            if (counter == null) {
+                counter = new DuplicateCounter(now);
+                DuplicateCounter existing = counters.putIfAbsent(key, counter);
+                if (existing != null) {
+                    counter = existing;
+                }
+            }
+            counter.rollIfExpired(now);
+            int count = counter.increment();
+            if (count < 0) {
+                // retired by the sweep. retry with a new counter.
+                counters.remove(key, counter);
+                continue;
+            }
+            if (count <= limit) {
+                counter.logger = logger;
+                counter.exceptionCode = resolution.getExceptionCode();
+                counter.exceptionClassName = key.exceptionClassName;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sweeps all counters if the window from the previous sweep is over.
+     * <p>
+     * Called periodically so that the summaries of expired windows are logged even if no further exception occurs.
+     * </p>
+     */
+    void sweep() {
+        sweepIfNecessary(currentTimeMillis());
+    }
+
+    /**
+     * Logs the summaries of the current windows of all counters regardless of whether the windows are over.
+     * <p>
+     * Called on shutdown so that the suppressed occurrences in the last window are not lost.
+     * </p>
+     */
+    void flush() {
+        long now = currentTimeMillis();
+        for (DuplicateCounter counter : counters.values()) {
+            counter.roll(now, true);
+        }
+    }
+
+    /**
+     * Sweeps all counters if the window from the previous sweep is over.
+     * <p>
+     * Logs the summaries of expired windows and removes the counters that had no occurrence in the expired window.
+     * </p>
+     * @param now current time
+     */
+    private void sweepIfNecessary(long now) {
+        long next = nextSweepMillis.get();
+        if (now < next || !nextSweepMillis.compareAndSet(next, now
+                + windowMillis)) {
+            return;
+        }
+        for (Map.Entry<DuplicateKey, DuplicateCounter> entry : counters
+                .entrySet()) {
+            DuplicateCounter counter = entry.getValue();
+            if (counter.rollIfExpired(now) == 0 && counter.retire()) {
+                counters.remove(entry.getKey(), counter);
+            }
+        }
+    }
+
+    /**
+     * Returns current time in milliseconds.
+     * @return current time in milliseconds
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Key to identify duplicate exceptions.
+     */
+    private static final class DuplicateKey {
+
+        /**
+         * Exception code.
+         */
+        private final String exceptionCode;
+
+        /**
+         * Class name of the exception.
+         */
+        private final String exceptionClassName;
+
+        /**
+         * Top stack frame of the exception. {@code null} if the exception has no stack trace.
+         */
+        private final StackTraceElement topFrame;
+
+        /**
+         * Constructor.
+         * @param resolution result of resolving the exception code
+         */
+        private DuplicateKey(ExceptionResolution resolution) {
+            Exception ex = resolution.getException();
+            StackTraceElement[] stackTrace = ex.getStackTrace();
+            this.exceptionCode = resolution.getExceptionCode();
+            this.exceptionClassName = ex.getClass().getName();
+            this.topFrame = stackTrace.length == 0 ? null : stackTrace[0];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DuplicateKey)) {
+                return false;
+            }
+            DuplicateKey other = (DuplicateKey) obj;
+            return ObjectUtils.nullSafeEquals(exceptionCode,
+                    other.exceptionCode) && exceptionClassName.equals(
+                            other.exceptionClassName) && ObjectUtils
+                                    .nullSafeEquals(topFrame, other.topFrame);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int result = ObjectUtils.nullSafeHashCode(exceptionCode);
+            result = 31 * result + exceptionClassName.hashCode();
+            result = 31 * result + ObjectUtils.nullSafeHashCode(topFrame);
+            return result;
+        }
+    }
+
+    /**
+     * Counter of the occurrences of a duplicate exception in the current window.
+     * <p>
+     * A counter that had no occurrence is retired before it is removed by the sweep, so that an occurrence counted
+     * concurrently is not lost. A retired counter is not counted anymore.
+     * </p>
+     */
+    private final class DuplicateCounter {
+
+        /**
+         * Value of {@link #count} that indicates this counter is retired.
+         */
+        private static final int RETIRED = Integer.MIN_VALUE;
+
+        /**
+         * Start time of the current window.
+         */
+        private final AtomicLong windowStartMillis;
+
+        /**
+         * Number of occurrences in the current window. {@link #RETIRED} if this counter is retired.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * Logger used to log the last occurrence in full. Used to log the summary.
+         */
+        private volatile LogLevelWrappingLogger logger;
+
+        /**
+         * Exception code. Used to log the summary. {@code null} if exception code is not resolved.
+         */
+        private volatile String exceptionCode;
+
+        /**
+         * Class name of the exception. Used to log the summary.
+         */
+        private volatile String exceptionClassName;
+
+        /**
+         * Constructor.
+         * @param now start time of the first window
+         */
+        private DuplicateCounter(long now) {
+            this.windowStartMillis = new AtomicLong(now);
+        }
+
+        /**
+         * Starts a new window if the current window is over, and logs the summary of the expired window if some
+         * occurrences were suppressed.
+         * @param now current time
+         * @return number of occurrences in the expired window. {@code 0} if the current window is not over.
+         */
+        private int rollIfExpired(long now) {
+            return roll(now, false);
+        }
+
+        /**
+         * Starts a new window if the current window is over or {@code force} is {@code true}, and logs the summary of
+         * the previous window if some occurrences were suppressed.
+         * @param now current time
+         * @param force whether to start a new window even if the current window is not over
+         * @return number of occurrences in the previous window. {@code 0} if a new window is not started.
+         */
+        private int roll(long now, boolean force) {
+            long start = windowStartMillis.get();
+            if ((!force && now < start + windowMillis) || !windowStartMillis
+                    .compareAndSet(start, now)) {
+                return 0;
+            }
+            int expiredCount;
+            do {
+                expiredCount = count.get();
+                if (expiredCount == RETIRED) {
+                    return 0;
+                }
+            } while (!count.compareAndSet(expiredCount, 0));
+            int suppressed = expiredCount - limit;
+            LogLevelWrappingLogger summaryLogger = logger;
+            if (suppressed > 0 && summaryLogger != null && summaryLogger
+                    .isEnabled()) {
+                summaryLogger.log(exceptionLogger.formatLogMessage(
+                        exceptionCode, String.format(
+                                "%s occurred %d times in %d ms. %d duplicate logs were suppressed.",
+                                exceptionClassName, expiredCount, now - start,
+                                suppressed)), null);
+            }
+            return expiredCount;
+        }
+
+        /**
+         * Counts an occurrence unless this counter is retired.
+         * @return number of occurrences in the current window including this occurrence. Negative value if this counter
+         *         is retired.
+         */
+        private int increment() {
+            while (true) {
+                int current = count.get();
+                if (current == RETIRED) {
+                    return -1;
+                }
+                if (count.compareAndSet(current, current + 1)) {
+                    return current + 1;
+                }
+            }
+        }
+
+        /**
+         * Retires this counter if it had no occurrence in the current window.
+         * @return {@code true} if this counter is retired
+         */
+        private boolean retire() {
+            return count.compareAndSet(0, RETIRED);
+        }
+    }
+}
@@ -18,10 +18,16 @@ package org.terasoluna.gfw.common.exception;
 import java.text.MessageFormat;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -69,7 +75,7 @@ import org.springframework.util.StringUtils;
  *       [e.xx.xx.0001] system error.
  * </pre>
  */
-public class ExceptionLogger implements InitializingBean {
+public class ExceptionLogger implements InitializingBean, DisposableBean {
 
     /**
      * Logger suffix of monitoring log.
@@ -147,6 +153,36 @@ public class ExceptionLogger implements InitializingBean {
      */
     private boolean trimLogMessage = true;
 
+    /**
+     * Number of duplicate exceptions logged in full per window. {@code 0} means no limit.
+     */
+    private int duplicateLogLimit = 0;
+
+    /**
+     * Length of the window to count duplicate exceptions in milliseconds.
+     */
+    private long duplicateLogWindowMillis = 60000;
+
+    /**
+     * Throttle of duplicate exception logs. {@code null} if {@link #duplicateLogLimit} is {@code 0}.
+     */
+    private ExceptionLogThrottle throttle;
+
+    /**
+     * Timer that sweeps {@link #throttle} every window. {@code null} if {@link #throttle} is {@code null}.
+     */
+    private ScheduledExecutorService throttleSweeper;
+
+    /**
+     * Recorder of exception metrics. {@code null} if exception metrics are not recorded.
+     */
+    private ExceptionMetricsRecorder exceptionMetricsRecorder;
+
+    /**
+     * Flag to indicate whether {@link #makeLogMessage(Exception)} is overridden by a subclass.
+     */
+    private final boolean makeLogMessageOverridden;
+
     /**
      * Default constructor.
      * <p>
@@ -178,6 +214,9 @@ public class ExceptionLogger implements InitializingBean {
         this.infoLogger = new InfoLogger();
         this.warnLogger = new WarnLogger();
         this.errorLogger = new ErrorLogger();
+        this.makeLogMessageOverridden = ReflectionUtils.findMethod(getClass(),
+                "makeLogMessage", Exception.class)
+                .getDeclaringClass() != ExceptionLogger.class;
     }
 
     /**
@@ -245,6 +284,52 @@ public class ExceptionLogger implements InitializingBean {
         this.defaultMessage = defaultMessage;
     }
 
+    /**
+     * Set the number of duplicate exceptions logged in full per window.
+     * <p>
+     * Exceptions are regarded as duplicate if exception code, exception class and the top stack frame are same. If the
+     * same exception occurs more than this number in a window (see {@link #setDuplicateLogWindowMillis(long)}), the rest are
+     * not logged and a summary line with the number of occurrences is logged to application log and monitoring log after
+     * the window. Default is {@code 0} (all exceptions are logged).
+     * </p>
+     * <p>
+     * If enabled, a daemon thread checks the windows periodically so that the summary is logged even if no further
+     * exception occurs. The thread is stopped and the summaries of the current windows are logged by {@link #destroy()}.
+     * </p>
+     * @param duplicateLogLimit number of duplicate exceptions logged in full per window. {@code 0} means no limit.
+     * @since 5.5.0
+     */
+    public void setDuplicateLogLimit(int duplicateLogLimit) {
+        this.duplicateLogLimit = duplicateLogLimit;
+    }
+
+    /**
+     * Set the length of the window to count duplicate exceptions.
+     * <p>
+     * Default is {@code 60000} (1 minute).
+     * </p>
+     * @param duplicateLogWindowMillis length of the window in milliseconds
+     * @since 5.5.0
+     */
+    public void setDuplicateLogWindowMillis(long duplicateLogWindowMillis) {
+        this.duplicateLogWindowMillis = duplicateLogWindowMillis;
+    }
+
+    /**
+     * Set the recorder of exception metrics.
+     * <p>
+     * The recorder is called for every exception handled by this logger with the exception code and the exception level
+     * (e.g. {@link ExceptionStatistics}), even if the log is disabled or suppressed as duplicate. Default is {@code null}
+     * (exception metrics are not recorded).
+     * </p>
+     * @param exceptionMetricsRecorder recorder of exception metrics
+     * @since 5.5.0
+     */
+    public void setExceptionMetricsRecorder(
+            ExceptionMetricsRecorder exceptionMetricsRecorder) {
+        this.exceptionMetricsRecorder = exceptionMetricsRecorder;
+    }
+
     /**
      * Initializes the exception logger.
      * <p>
@@ -263,6 +348,47 @@ public class ExceptionLogger implements InitializingBean {
         registerExceptionLevelLoggers(ExceptionLevel.INFO, infoLogger);
         registerExceptionLevelLoggers(ExceptionLevel.WARN, warnLogger);
         registerExceptionLevelLoggers(ExceptionLevel.ERROR, errorLogger);
+
+        if (duplicateLogLimit < 0) {
+            throw new IllegalArgumentException("duplicateLogLimit must be zero or positive. current duplicateLogLimit is "
+                    + duplicateLogLimit + ".");
+        }
+        if (duplicateLogLimit > 0) {
+            if (duplicateLogWindowMillis <= 0) {
+                throw new IllegalArgumentException("duplicateLogWindowMillis must be positive. current duplicateLogWindowMillis is "
+                        + duplicateLogWindowMillis + ".");
+            }
+            throttle = new ExceptionLogThrottle(duplicateLogLimit, duplicateLogWindowMillis, this);
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ExceptionLogThrottle-");
+            threadFactory.setDaemon(true);
+            throttleSweeper = Executors.newSingleThreadScheduledExecutor(
+                    threadFactory);
+            final ExceptionLogThrottle sweptThrottle = throttle;
+            throttleSweeper.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    sweptThrottle.sweep();
+                }
+            }, duplicateLogWindowMillis, duplicateLogWindowMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the timer of the throttle of duplicate exception logs and logs the summaries of the suppressed duplicate
+     * exceptions in the current windows.
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     * @since 5.5.0
+     */
+    @Override
+    public void destroy() {
+        if (throttleSweeper != null) {
+            throttleSweeper.shutdownNow();
+            throttleSweeper = null;
+        }
+        if (throttle != null) {
+            throttle.flush();
+        }
     }
 
     /**
@@ -270,15 +396,37 @@ public class ExceptionLogger implements InitializingBean {
      * @param ex Exception
      */
     public void log(Exception ex) {
-        ExceptionLevel level = exceptionLevelResolver.resolveExceptionLevel(ex);
+        log(resolve(ex));
+    }
+
+    /**
+     * Output the log related to exception level.
+     * <p>
+     * The exception code in the given resolution is reused if it was resolved by the exception code resolver of this logger.
+     * </p>
+     * @param resolution result of resolving the exception code
+     * @since 5.5.0
+     */
+    public void log(ExceptionResolution resolution) {
+        ExceptionResolution adopted = adopt(resolution);
+        ExceptionLevel level;
+        if (isResolvedByExceptionCode(exceptionLevelResolver)) {
+            // same result as DefaultExceptionLevelResolver without resolving the exception code again
+            level = DefaultExceptionLevelResolver.resolveExceptionLevelByCode(
+                    adopted.getExceptionCode());
+        } else {
+            level = exceptionLevelResolver.resolveExceptionLevel(adopted
+                    .getException());
+        }
         LogLevelWrappingLogger logger = null;
         if (level != null) {
             logger = exceptionLevelLoggers.get(level);
         }
         if (logger == null) {
             logger = errorLogger;
+            level = ExceptionLevel.ERROR;
         }
-        log(ex, logger);
+        log(adopted, logger, level);
     }
 
     /**
@@ -289,7 +437,17 @@ public class ExceptionLogger implements InitializingBean {
      * @param ex Exception
      */
     public void info(Exception ex) {
-        log(ex, infoLogger);
+        log(ex, infoLogger, ExceptionLevel.INFO);
+    }
+
+    /**
+     * Output the information log.
+     * @param resolution result of resolving the exception code
+     * @see #info(Exception)
+     * @since 5.5.0
+     */
+    public void info(ExceptionResolution resolution) {
+        log(resolution, infoLogger, ExceptionLevel.INFO);
     }
 
     /**
@@ -300,7 +458,17 @@ public class ExceptionLogger implements InitializingBean {
      * @param ex Exception
      */
     public void warn(Exception ex) {
-        log(ex, warnLogger);
+        log(ex, warnLogger, ExceptionLevel.WARN);
+    }
+
+    /**
+     * Output WARN level log
+     * @param resolution result of resolving the exception code
+     * @see #warn(Exception)
+     * @since 5.5.0
+     */
+    public void warn(ExceptionResolution resolution) {
+        log(resolution, warnLogger, ExceptionLevel.WARN);
     }
 
     /**
@@ -311,7 +479,28 @@ public class ExceptionLogger implements InitializingBean {
      * @param ex Exception
      */
     public void error(Exception ex) {
-        log(ex, errorLogger);
+        log(ex, errorLogger, ExceptionLevel.ERROR);
+    }
+
+    /**
+     * Ouputs ERROR log.
+     * @param resolution result of resolving the exception code
+     * @see #error(Exception)
+     * @since 5.5.0
+     */
+    public void error(ExceptionResolution resolution) {
+        log(resolution, errorLogger, ExceptionLevel.ERROR);
+    }
+
+    /**
+     * Resolves exception code of the exception by the exception code resolver of this logger.
+     * @param ex Exception
+     * @return result of resolving the exception code
+     * @since 5.5.0
+     */
+    public ExceptionResolution resolve(Exception ex) {
+        return new ExceptionResolution(ex, resolveExceptionCode(
+                ex), exceptionCodeResolver);
     }
 
     /**
@@ -360,6 +549,20 @@ public class ExceptionLogger implements InitializingBean {
         return formatLogMessage(exceptionCode, ex.getMessage());
     }
 
+    /**
+     * Creates log message from the result of resolving the exception code.
+     * <p>
+     * If {@link #makeLogMessage(Exception)} is overridden by a subclass, it is called instead of this method.
+     * </p>
+     * @param resolution result of resolving the exception code
+     * @return log message
+     * @since 5.5.0
+     */
+    protected String makeLogMessage(ExceptionResolution resolution) {
+        return formatLogMessage(resolution.getExceptionCode(), resolution
+                .getException().getMessage());
+    }
+
     /**
      * Formats the message for log output.
      * <p>
@@ -424,17 +627,70 @@ public class ExceptionLogger implements InitializingBean {
         return monitoringLogger;
     }
 
+    /**
+     * Returns whether the exception level is resolved only by the exception code resolved by the exception code resolver of
+     * this logger.
+     * @param resolver exception level resolver
+     * @return {@code true} if the resolver is {@link DefaultExceptionLevelResolver} (not subclass) which uses the same
+     *         exception code resolver as this logger.
+     */
+    private boolean isResolvedByExceptionCode(ExceptionLevelResolver resolver) {
+        return resolver.getClass() == DefaultExceptionLevelResolver.class
+                && ((DefaultExceptionLevelResolver) resolver)
+                        .getExceptionCodeResolver() == exceptionCodeResolver;
+    }
+
+    /**
+     * Returns the given resolution if its exception code was resolved by the exception code resolver of this logger.
+     * Otherwise, resolves the exception code again.
+     * @param resolution result of resolving the exception code
+     * @return result of resolving the exception code by this logger
+     */
+    private ExceptionResolution adopt(ExceptionResolution resolution) {
+        Exception ex = resolution.getException();
+        if (resolution.isResolvedBy(ex, exceptionCodeResolver)) {
+            return resolution;
+        }
+        return resolve(ex);
+    }
+
     /**
      * Outputs the log using specified logger.
      * @param ex Exception
      * @param logger delegating logger
+     * @param level exception level of the logger
+     */
+    private void log(Exception ex, LogLevelWrappingLogger logger,
+            ExceptionLevel level) {
+        if (exceptionMetricsRecorder == null && !logger.isEnabled()) {
+            return;
+        }
+        log(resolve(ex), logger, level);
+    }
+
+    /**
+     * Outputs the log using specified logger.
+     * @param resolution result of resolving the exception code
+     * @param logger delegating logger
+     * @param level exception level of the logger
      */
-    private void log(Exception ex, LogLevelWrappingLogger logger) {
-        if (!logger.isEnabled()) {
+    private void log(ExceptionResolution resolution,
+            LogLevelWrappingLogger logger, ExceptionLevel level) {
+        boolean enabled = logger.isEnabled();
+        if (exceptionMetricsRecorder == null && !enabled) {
+            return;
+        }
+        ExceptionResolution adopted = adopt(resolution);
+        if (exceptionMetricsRecorder != null) {
+            exceptionMetricsRecorder.record(adopted, level);
+        }
+        if (!enabled || (throttle != null && !throttle.acquire(adopted,
+                logger))) {
             return;
         }
-        String logMessage = makeLogMessage(ex);
-        logger.log(logMessage, ex);
+        String logMessage = makeLogMessageOverridden ? makeLogMessage(adopted
+                .getException()) : makeLogMessage(adopted);
+        logger.log(logMessage, adopted.getException());
     }
 
     /**
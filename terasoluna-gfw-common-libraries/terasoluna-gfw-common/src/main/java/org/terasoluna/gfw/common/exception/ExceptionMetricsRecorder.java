@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception;
+
+/**
+ * Interface to record the exceptions handled by {@link ExceptionLogger} as metrics.
+ * <p>
+ * {@link ExceptionLogger} calls this interface for each exception passed to it, even if the log is disabled or suppressed
+ * as duplicate. Implement this interface to send the metrics to any monitoring system. {@link ExceptionStatistics} is the
+ * default implementation which keeps counters in memory and exposes them via JMX.
+ * </p>
+ * @since 5.5.0
+ */
+public interface ExceptionMetricsRecorder {
+
+    /**
+     * Records an exception.
+     * <p>
+     * This method is called in the thread that handles the exception, so the implementation must be thread-safe and
+     * should not block.
+     * </p>
+     * @param resolution result of resolving the exception code
+     * @param level exception level used to output the log
+     */
+    void record(ExceptionResolution resolution, ExceptionLevel level);
+
+}
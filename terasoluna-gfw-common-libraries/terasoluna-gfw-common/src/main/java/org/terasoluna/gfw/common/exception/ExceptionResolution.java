@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception;
+
+/**
+ * Result of resolving the exception code of an exception.
+ * <p>
+ * The exception code is resolved once per exception and this object is shared by the components that handle the same
+ * exception (e.g. stored in the request scope by {@code SystemExceptionResolver} and reused by {@link ExceptionLogger}). The
+ * {@link ExceptionCodeResolver} that resolved the code is held, so that the components that use another
+ * {@link ExceptionCodeResolver} can resolve the code by themselves.
+ * </p>
+ * @since 5.5.0
+ */
+public class ExceptionResolution {
+
+    /**
+     * Attribute name to store the instance in request scope.
+     */
+    public static final String ATTRIBUTE_NAME = ExceptionResolution.class
+            .getName();
+
+    /**
+     * Exception.
+     */
+    private final Exception exception;
+
+    /**
+     * Exception code.
+     */
+    private final String exceptionCode;
+
+    /**
+     * Object that resolved exception code.
+     */
+    private final ExceptionCodeResolver exceptionCodeResolver;
+
+    /**
+     * Constructor.
+     * @param exception exception
+     * @param exceptionCode exception code. {@code null} if exception code was not resolved.
+     * @param exceptionCodeResolver object that resolved exception code. {@code null} if exception code was not resolved by
+     *            {@link ExceptionCodeResolver}.
+     */
+    public ExceptionResolution(Exception exception, String exceptionCode,
+            ExceptionCodeResolver exceptionCodeResolver) {
+        this.exception = exception;
+        this.exceptionCode = exceptionCode;
+        this.exceptionCodeResolver = exceptionCodeResolver;
+    }
+
+    /**
+     * Returns exception.
+     * @return exception
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * Returns exception code.
+     * @return exception code. {@code null} if exception code was not resolved.
+     */
+    public String getExceptionCode() {
+        return exceptionCode;
+    }
+
+    /**
+     * Returns whether this is the result of the given exception and exception code resolver.
+     * @param ex exception
+     * @param resolver exception code resolver
+     * @return {@code true} if the exception code of the given exception was resolved by the given resolver.
+     */
+    public boolean isResolvedBy(Exception ex, ExceptionCodeResolver resolver) {
+        return exception == ex && exceptionCodeResolver == resolver;
+    }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Default {@link ExceptionMetricsRecorder} that counts exceptions per exception code and exception level in memory.
+ * <p>
+ * The total number and the number in the recent window (default is 60 seconds) of exceptions are counted by lock-free
+ * counters. The recent window is divided into buckets of 1 second, so the number in the recent window is approximate.
+ * The snapshot of the counters is available via {@link #getExceptionCounts()}, and via JMX by registering this object to
+ * {@code MBeanServer} (e.g. using {@code <context:mbean-export />}).
+ * </p>
+ *
+ * <pre>
+ * &lt;bean id=&quot;exceptionStatistics&quot; class=&quot;org.terasoluna.gfw.common.exception.ExceptionStatistics&quot; /&gt;
+ *
+ * &lt;bean id=&quot;exceptionLogger&quot; class=&quot;org.terasoluna.gfw.common.exception.ExceptionLogger&quot;&gt;
+ *   &lt;property name=&quot;exceptionMetricsRecorder&quot; ref=&quot;exceptionStatistics&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * @since 5.5.0
+ */
+public class ExceptionStatistics implements ExceptionMetricsRecorder,
+                                 ExceptionStatisticsMXBean {
+
+    /**
+     * Default length of the recent window in seconds.
+     */
+    private static final int DEFAULT_WINDOW_SECONDS = 60;
+
+    /**
+     * Counters per exception level and exception code.
+     */
+    private final Map<ExceptionLevel, ConcurrentMap<String, Counter>> counters = new EnumMap<ExceptionLevel, ConcurrentMap<String, Counter>>(ExceptionLevel.class);
+
+    /**
+     * Length of the recent window in seconds.
+     */
+    private final int windowSeconds;
+
+    /**
+     * Exception code used if exception code is not resolved.
+     */
+    private String undefinedCode = "UNDEFINED-CODE";
+
+    /**
+     * Constructor with the recent window of 60 seconds.
+     */
+    public ExceptionStatistics() {
+        this(DEFAULT_WINDOW_SECONDS);
+    }
+
+    /**
+     * Constructor.
+     * @param windowSeconds length of the recent window in seconds
+     * @throws IllegalArgumentException if {@code windowSeconds} is not positive
+     */
+    public ExceptionStatistics(int windowSeconds) {
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("windowSeconds must be positive. current windowSeconds is "
+                    + windowSeconds + ".");
+        }
+        this.windowSeconds = windowSeconds;
+        for (ExceptionLevel level : ExceptionLevel.values()) {
+            counters.put(level, new ConcurrentHashMap<String, Counter>());
+        }
+    }
+
+    /**
+     * Set exception code used if exception code is not resolved.
+     * <p>
+     * Default is {@code "UNDEFINED-CODE"}
+     * </p>
+     * @param undefinedCode exception code used if exception code is not resolved
+     */
+    public void setUndefinedCode(String undefinedCode) {
+        this.undefinedCode = undefinedCode;
+    }
+
+    /**
+     * Counts up the counter of the exception code and exception level.
+     * @see org.terasoluna.gfw.common.exception.ExceptionMetricsRecorder#record(org.terasoluna.gfw.common.exception.ExceptionResolution,
+     *      org.terasoluna.gfw.common.exception.ExceptionLevel)
+     */
+    @Override
+    public void record(ExceptionResolution resolution, ExceptionLevel level) {
+        String exceptionCode = resolution.getExceptionCode();
+        if (exceptionCode == null || exceptionCode.isEmpty()) {
+            exceptionCode = undefinedCode;
+        }
+        ConcurrentMap<String, Counter> levelCounters = counters.get(
+                level == null ? ExceptionLevel.ERROR : level);
+        Counter counter = levelCounters.get(exceptionCode);
+        if (counter == null) {
+            counter = new Counter(windowSeconds);
+            Counter existing = levelCounters.putIfAbsent(exceptionCode,
+                    counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        counter.increment(currentTimeMillis() / 1000);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ExceptionCount> getExceptionCounts() {
+        long nowSeconds = currentTimeMillis() / 1000;
+        List<ExceptionCount> exceptionCounts = new ArrayList<ExceptionCount>();
+        for (Map.Entry<ExceptionLevel, ConcurrentMap<String, Counter>> levelEntry : counters
+                .entrySet()) {
+            for (Map.Entry<String, Counter> entry : levelEntry.getValue()
+                    .entrySet()) {
+                Counter counter = entry.getValue();
+                long recentCount = counter.recentCount(nowSeconds);
+                exceptionCounts.add(new ExceptionCount(entry
+                        .getKey(), levelEntry.getKey(), counter.total
+                                .get(), recentCount, (double) recentCount
+                                        / windowSeconds));
+            }
+        }
+        return exceptionCounts;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTotalCount() {
+        long totalCount = 0;
+        for (ConcurrentMap<String, Counter> levelCounters : counters.values()) {
+            for (Counter counter : levelCounters.values()) {
+                totalCount += counter.total.get();
+            }
+        }
+        return totalCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        for (ConcurrentMap<String, Counter> levelCounters : counters.values()) {
+            levelCounters.clear();
+        }
+    }
+
+    /**
+     * Returns current time in milliseconds.
+     * @return current time in milliseconds
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Counter of an exception code and exception level.
+     */
+    private static final class Counter {
+
+        /**
+         * Total number of exceptions.
+         */
+        private final AtomicLong total = new AtomicLong();
+
+        /**
+         * Buckets of 1 second. The epoch second of the bucket is packed into the upper 32 bits and the number of
+         * exceptions into the lower 32 bits, so that both are updated atomically.
+         */
+        private final AtomicLongArray buckets;
+
+        /**
+         * Constructor.
+         * @param windowSeconds length of the recent window in seconds
+         */
+        private Counter(int windowSeconds) {
+            this.buckets = new AtomicLongArray(windowSeconds);
+        }
+
+        /**
+         * Counts up.
+         * @param nowSeconds current epoch second
+         */
+        private void increment(long nowSeconds) {
+            total.incrementAndGet();
+            int index = (int) (nowSeconds % buckets.length());
+            for (;;) {
+                long bucket = buckets.get(index);
+                long bucketSecond = bucket >>> 32;
+                long updated;
+                if (bucketSecond == nowSeconds) {
+                    updated = bucket + 1;
+                } else if (bucketSecond < nowSeconds) {
+                    // reuse the bucket of the expired second
+                    updated = (nowSeconds << 32) | 1;
+                } else {
+                    // the bucket has already been reused by a later second
+                    return;
+                }
+                if (buckets.compareAndSet(index, bucket, updated)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns the number of exceptions in the recent window.
+         * @param nowSeconds current epoch second
+         * @return number of exceptions in the recent window
+         */
+        private long recentCount(long nowSeconds) {
+            int length = buckets.length();
+            long count = 0;
+            for (int i = 0; i < length; i++) {
+                long bucket = buckets.get(i);
+                if (nowSeconds - (bucket >>> 32) < length) {
+                    count += bucket & 0xFFFFFFFFL;
+                }
+            }
+            return count;
+        }
+    }
+
+}
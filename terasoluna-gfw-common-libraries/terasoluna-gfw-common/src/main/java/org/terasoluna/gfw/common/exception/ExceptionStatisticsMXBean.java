@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception;
+
+import java.util.List;
+
+/**
+ * JMX management interface of {@link ExceptionStatistics}.
+ * @since 5.5.0
+ */
+public interface ExceptionStatisticsMXBean {
+
+    /**
+     * Returns the snapshot of the number of exceptions per exception code and exception level.
+     * @return snapshot of the number of exceptions
+     */
+    List<ExceptionCount> getExceptionCounts();
+
+    /**
+     * Returns total number of exceptions of all exception codes and exception levels.
+     * @return total number of exceptions
+     */
+    long getTotalCount();
+
+    /**
+     * Returns length of the recent window in seconds.
+     * @return length of the recent window in seconds
+     */
+    int getWindowSeconds();
+
+    /**
+     * Clears all counters.
+     */
+    void reset();
+
+}
@@ -48,9 +48,19 @@ public class ResultMessagesLoggingInterceptor implements MethodInterceptor,
                                               InitializingBean {
 
     /**
-     * Starting point of interception in thread.
+     * Depth of the nested interceptions in thread.
+     * <p>
+     * Held in a mutable {@code int[1]} so that an interception needs only one {@link ThreadLocal#get()} and no
+     * {@link ThreadLocal#set(Object)} / {@link ThreadLocal#remove()}. An array of primitive type is used so that the value
+     * left in the pooled threads does not refer to any class of the application.
+     * </p>
      */
-    private final ThreadLocal<MethodInvocation> startingPoint = new ThreadLocal<MethodInvocation>();
+    private final ThreadLocal<int[]> depth = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
 
     /**
      * Exception logger.
@@ -76,6 +86,10 @@ public class ResultMessagesLoggingInterceptor implements MethodInterceptor,
      * <li>if other exception occurred , not logging exception.</li>
      * <li>if intercepted on multi point, logging do in starting point of interception.(for prevent duplicate log output)</li>
      * </ol>
+     * <p>
+     * The starting point is the outermost interception in thread, so an exception handled by an intermediate method is not
+     * logged. The starting point is tracked by the depth of the nested interceptions instead of the starting invocation.
+     * </p>
      * @param invocation invocation object of intercepted target's method.
      * @return returned object from intercepted target's method.
      * @throws Throwable if occur exception in invocation target's method.
@@ -85,10 +99,9 @@ public class ResultMessagesLoggingInterceptor implements MethodInterceptor,
     public Object invoke(
             MethodInvocation invocation) throws Throwable, ResultMessagesNotificationException {
 
-        // set starting point.
-        if (startingPoint.get() == null) {
-            startingPoint.set(invocation);
-        }
+        // enter interception.
+        int[] depthInThread = depth.get();
+        depthInThread[0]++;
 
         try {
 
@@ -105,10 +118,8 @@ public class ResultMessagesLoggingInterceptor implements MethodInterceptor,
 
         } finally {
 
-            // clear starting point.
-            if (isStartingPoint(invocation)) {
-                startingPoint.remove();
-            }
+            // exit interception.
+            depthInThread[0]--;
 
         }
     }
@@ -138,7 +149,7 @@ public class ResultMessagesLoggingInterceptor implements MethodInterceptor,
      * @return if starting point of interception in thread, return true.
      */
     protected boolean isStartingPoint(MethodInvocation invocation) {
-        return startingPoint.get() == invocation;
+        return depth.get()[0] == 1;
     }
 
     /**
@@ -17,6 +17,8 @@ package org.terasoluna.gfw.common.exception;
 
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +35,10 @@ import org.slf4j.LoggerFactory;
  * {@link #exceptionMappings}<br>
  * If there is no definition in {@link #exceptionMappings}, then {@link #defaultExceptionCode} is taken as exception code.
  * </p>
+ * <p>
+ * The result of the mapping rules is cached per exception class (up to {@link #MAX_CACHED_CLASSES} classes), so that the
+ * rules are evaluated only once per exception class.
+ * </p>
  */
 public class SimpleMappingExceptionCodeResolver implements
                                                 ExceptionCodeResolver {
@@ -43,6 +49,17 @@ public class SimpleMappingExceptionCodeResolver implements
     private static final Logger logger = LoggerFactory.getLogger(
             SimpleMappingExceptionCodeResolver.class);
 
+    /**
+     * Maximum number of exception classes whose result of the mapping rules is cached.
+     * @since 5.5.0
+     */
+    public static final int MAX_CACHED_CLASSES = 1024;
+
+    /**
+     * Cache of the result of the mapping rules per exception class.
+     */
+    private final ConcurrentMap<Class<?>, MappedExceptionCode> mappedExceptionCodes = new ConcurrentHashMap<Class<?>, MappedExceptionCode>();
+
     /**
      * Mapping rules between exception code and exception class name.
      */
@@ -72,6 +89,7 @@ public class SimpleMappingExceptionCodeResolver implements
     public void setExceptionMappings(
             LinkedHashMap<String, String> exceptionMappings) {
         this.exceptionMappings = exceptionMappings;
+        mappedExceptionCodes.clear();
     }
 
     /**
@@ -116,18 +134,69 @@ public class SimpleMappingExceptionCodeResolver implements
             return defaultExceptionCode;
         }
 
+        Class<?> exceptionClass = ex.getClass();
+        MappedExceptionCode mappedExceptionCode = mappedExceptionCodes.get(
+                exceptionClass);
+        if (mappedExceptionCode == null) {
+            mappedExceptionCode = resolveMappedExceptionCode(exceptionClass);
+            if (mappedExceptionCodes.size() < MAX_CACHED_CLASSES) {
+                mappedExceptionCodes.putIfAbsent(exceptionClass,
+                        mappedExceptionCode);
+            }
+        }
+
+        if (mappedExceptionCode == MappedExceptionCode.NOT_MAPPED) {
+            return defaultExceptionCode;
+        }
+        return mappedExceptionCode.exceptionCode;
+    }
+
+    /**
+     * Resolves exception code of the exception class by the mapping rules.
+     * <p>
+     * The first rule (in the order of addition) whose key is contained in the name of the exception class or its parent
+     * classes is applied.
+     * </p>
+     * @param exceptionClass class of the exception
+     * @return exception code of the first matched rule. {@link MappedExceptionCode#NOT_MAPPED} if no rule matches.
+     */
+    private MappedExceptionCode resolveMappedExceptionCode(
+            Class<?> exceptionClass) {
         for (Entry<String, String> entry : exceptionMappings.entrySet()) {
             String targetException = entry.getKey();
-            Class<?> exceptionClass = ex.getClass();
-            while (exceptionClass != Object.class) {
-                if (exceptionClass.getName().contains(targetException)) {
-                    return entry.getValue();
+            Class<?> targetClass = exceptionClass;
+            while (targetClass != Object.class) {
+                if (targetClass.getName().contains(targetException)) {
+                    return new MappedExceptionCode(entry.getValue());
                 }
-                exceptionClass = exceptionClass.getSuperclass();
+                targetClass = targetClass.getSuperclass();
             }
         }
+        return MappedExceptionCode.NOT_MAPPED;
+    }
 
-        return defaultExceptionCode;
+    /**
+     * Result of the mapping rules for an exception class.
+     */
+    private static final class MappedExceptionCode {
+
+        /**
+         * Result which shows that no mapping rule matches the exception class.
+         */
+        private static final MappedExceptionCode NOT_MAPPED = new MappedExceptionCode(null);
+
+        /**
+         * Exception code of the matched rule.
+         */
+        private final String exceptionCode;
+
+        /**
+         * Constructor.
+         * @param exceptionCode exception code of the matched rule
+         */
+        private MappedExceptionCode(String exceptionCode) {
+            this.exceptionCode = exceptionCode;
+        }
     }
 
 }
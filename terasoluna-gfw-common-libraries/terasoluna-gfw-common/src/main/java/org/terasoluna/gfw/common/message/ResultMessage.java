@@ -18,6 +18,7 @@ package org.terasoluna.gfw.common.message;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -208,6 +209,19 @@ public class ResultMessage implements Serializable {
                 + ", text=" + text + "]";
     }
 
+    /**
+     * Replaces this object with the compact serialized form.
+     * <p>
+     * Subclasses are serialized by default serialization.
+     * </p>
+     * @return serialized form
+     * @throws ObjectStreamException never thrown
+     * @since 5.5.0
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        return new ResultMessagesSerializedForm(this);
+    }
+
     /**
      * special handling for the serialization and deserialization process
      * @param out ObjectOutputStream
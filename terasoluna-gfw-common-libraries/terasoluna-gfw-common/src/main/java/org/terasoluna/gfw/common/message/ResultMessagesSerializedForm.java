@@ -0,0 +1,399 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.message;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+/**
+ * Compact serialized form of {@link ResultMessages} and {@link ResultMessage}.
+ * <p>
+ * {@link ResultMessages} and {@link ResultMessage} are replaced with this class when they are serialized (e.g. stored in
+ * {@code FlashMap} or session), and this class is resolved to them when deserialized. The type, codes, texts and args are
+ * written with a tag of 1 byte instead of class descriptors and {@link java.util.ArrayList}. The instances serialized in
+ * the default form by 5.4.x or before can still be deserialized.
+ * </p>
+ * <p>
+ * Wire format:
+ * </p>
+ *
+ * <pre>
+ * ResultMessages := KIND_MESSAGES type count(int) message*
+ * type           := STANDARD_TYPE_xxx | CUSTOM_TYPE object
+ * ResultMessage  := KIND_MESSAGE message
+ * message        := flags [code] [text] [argsLength(int) arg*] | SUBCLASS object
+ * arg            := ARG_NULL | ARG_STRING utf | ARG_INTEGER int | ARG_LONG long | ARG_OBJECT object
+ * </pre>
+ * @since 5.5.0
+ */
+final class ResultMessagesSerializedForm implements Externalizable {
+
+    /**
+     * serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Kind of the serialized object: {@link ResultMessages}.
+     */
+    private static final byte KIND_MESSAGES = 1;
+
+    /**
+     * Kind of the serialized object: {@link ResultMessage}.
+     */
+    private static final byte KIND_MESSAGE = 2;
+
+    /**
+     * Tag of the type that is not {@link StandardResultMessageType}.
+     */
+    private static final byte CUSTOM_TYPE = 0;
+
+    /**
+     * Standard types indexed by tag. The order must not be changed.
+     */
+    private static final StandardResultMessageType[] STANDARD_TYPES = { null,
+            StandardResultMessageType.SUCCESS, StandardResultMessageType.INFO,
+            StandardResultMessageType.WARN, StandardResultMessageType.WARNING,
+            StandardResultMessageType.ERROR, StandardResultMessageType.DANGER };
+
+    /**
+     * Flag of the message: has code.
+     */
+    private static final int HAS_CODE = 1;
+
+    /**
+     * Flag of the message: has text.
+     */
+    private static final int HAS_TEXT = 1 << 1;
+
+    /**
+     * Flag of the message: has args.
+     */
+    private static final int HAS_ARGS = 1 << 2;
+
+    /**
+     * Flag of the message: code is too long to be written as UTF.
+     */
+    private static final int LONG_CODE = 1 << 3;
+
+    /**
+     * Flag of the message: text is too long to be written as UTF.
+     */
+    private static final int LONG_TEXT = 1 << 4;
+
+    /**
+     * Flag of the message: subclass of {@link ResultMessage} written by default serialization.
+     */
+    private static final int SUBCLASS = 1 << 5;
+
+    /**
+     * Tag of the arg: {@code null}.
+     */
+    private static final byte ARG_NULL = 0;
+
+    /**
+     * Tag of the arg: {@link String}.
+     */
+    private static final byte ARG_STRING = 1;
+
+    /**
+     * Tag of the arg: {@link Integer}.
+     */
+    private static final byte ARG_INTEGER = 2;
+
+    /**
+     * Tag of the arg: {@link Long}.
+     */
+    private static final byte ARG_LONG = 3;
+
+    /**
+     * Tag of the arg: other object written by default serialization.
+     */
+    private static final byte ARG_OBJECT = 4;
+
+    /**
+     * Max length of the string written by {@link ObjectOutput#writeUTF(String)}. (a char is encoded up to 3 bytes)
+     */
+    private static final int MAX_UTF_LENGTH = 65535 / 3;
+
+    /**
+     * {@link ResultMessages} or {@link ResultMessage} to serialize or deserialized.
+     */
+    private Object object;
+
+    /**
+     * Constructor for deserialization.
+     */
+    public ResultMessagesSerializedForm() {
+        // for deserialization
+    }
+
+    /**
+     * Constructor for serialization.
+     * @param object {@link ResultMessages} or {@link ResultMessage}
+     */
+    ResultMessagesSerializedForm(Object object) {
+        this.object = object;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        if (object instanceof ResultMessages) {
+            ResultMessages messages = (ResultMessages) object;
+            out.writeByte(KIND_MESSAGES);
+            writeType(out, messages.getType());
+            out.writeInt(messages.getList().size());
+            for (ResultMessage message : messages) {
+                writeMessage(out, message);
+            }
+        } else {
+            out.writeByte(KIND_MESSAGE);
+            writeMessage(out, (ResultMessage) object);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readExternal(
+            ObjectInput in) throws IOException, ClassNotFoundException {
+        byte kind = in.readByte();
+        if (kind == KIND_MESSAGES) {
+            ResultMessages messages = new ResultMessages(readType(in));
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                messages.add(readMessage(in));
+            }
+            object = messages;
+        } else if (kind == KIND_MESSAGE) {
+            object = readMessage(in);
+        } else {
+            throw new InvalidObjectException("unknown kind: " + kind);
+        }
+    }
+
+    /**
+     * Returns deserialized {@link ResultMessages} or {@link ResultMessage}.
+     * @return deserialized object
+     * @throws ObjectStreamException never thrown
+     */
+    private Object readResolve() throws ObjectStreamException {
+        return object;
+    }
+
+    /**
+     * Writes the type of messages.
+     * @param out output
+     * @param type type of messages
+     * @throws IOException if I/O error occurs
+     */
+    private static void writeType(ObjectOutput out,
+            ResultMessageType type) throws IOException {
+        for (int tag = 1; tag < STANDARD_TYPES.length; tag++) {
+            if (STANDARD_TYPES[tag] == type) {
+                out.writeByte(tag);
+                return;
+            }
+        }
+        out.writeByte(CUSTOM_TYPE);
+        out.writeObject(type);
+    }
+
+    /**
+     * Reads the type of messages.
+     * @param in input
+     * @return type of messages
+     * @throws IOException if I/O error occurs
+     * @throws ClassNotFoundException if the class of custom type is not found
+     */
+    private static ResultMessageType readType(
+            ObjectInput in) throws IOException, ClassNotFoundException {
+        byte tag = in.readByte();
+        if (tag == CUSTOM_TYPE) {
+            return (ResultMessageType) in.readObject();
+        }
+        if (tag < 0 || STANDARD_TYPES.length <= tag) {
+            throw new InvalidObjectException("unknown type: " + tag);
+        }
+        return STANDARD_TYPES[tag];
+    }
+
+    /**
+     * Writes the message.
+     * @param out output
+     * @param message message
+     * @throws IOException if I/O error occurs
+     */
+    private static void writeMessage(ObjectOutput out,
+            ResultMessage message) throws IOException {
+        if (message.getClass() != ResultMessage.class) {
+            out.writeByte(SUBCLASS);
+            out.writeObject(message);
+            return;
+        }
+        String code = message.getCode();
+        String text = message.getText();
+        Object[] args = message.getArgs();
+        int flags = 0;
+        if (code != null) {
+            flags |= code.length() <= MAX_UTF_LENGTH ? HAS_CODE
+                    : HAS_CODE | LONG_CODE;
+        }
+        if (text != null) {
+            flags |= text.length() <= MAX_UTF_LENGTH ? HAS_TEXT
+                    : HAS_TEXT | LONG_TEXT;
+        }
+        if (args.length != 0) {
+            flags |= HAS_ARGS;
+        }
+        out.writeByte(flags);
+        if (code != null) {
+            writeString(out, code, (flags & LONG_CODE) != 0);
+        }
+        if (text != null) {
+            writeString(out, text, (flags & LONG_TEXT) != 0);
+        }
+        if (args.length != 0) {
+            out.writeInt(args.length);
+            for (Object arg : args) {
+                writeArg(out, arg);
+            }
+        }
+    }
+
+    /**
+     * Reads the message.
+     * @param in input
+     * @return message
+     * @throws IOException if I/O error occurs
+     * @throws ClassNotFoundException if the class of arg or subclass of message is not found
+     */
+    private static ResultMessage readMessage(
+            ObjectInput in) throws IOException, ClassNotFoundException {
+        int flags = in.readByte();
+        if (flags == SUBCLASS) {
+            return (ResultMessage) in.readObject();
+        }
+        String code = null;
+        if ((flags & HAS_CODE) != 0) {
+            code = readString(in, (flags & LONG_CODE) != 0);
+        }
+        String text = null;
+        if ((flags & HAS_TEXT) != 0) {
+            text = readString(in, (flags & LONG_TEXT) != 0);
+        }
+        Object[] args = null;
+        if ((flags & HAS_ARGS) != 0) {
+            args = new Object[in.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readArg(in);
+            }
+        }
+        return new ResultMessage(code, args, text);
+    }
+
+    /**
+     * Writes the arg of message.
+     * @param out output
+     * @param arg arg of message
+     * @throws IOException if I/O error occurs
+     */
+    private static void writeArg(ObjectOutput out,
+            Object arg) throws IOException {
+        if (arg == null) {
+            out.writeByte(ARG_NULL);
+        } else if (arg instanceof String && ((String) arg)
+                .length() <= MAX_UTF_LENGTH) {
+            out.writeByte(ARG_STRING);
+            out.writeUTF((String) arg);
+        } else if (arg instanceof Integer) {
+            out.writeByte(ARG_INTEGER);
+            out.writeInt((Integer) arg);
+        } else if (arg instanceof Long) {
+            out.writeByte(ARG_LONG);
+            out.writeLong((Long) arg);
+        } else {
+            out.writeByte(ARG_OBJECT);
+            out.writeObject(arg);
+        }
+    }
+
+    /**
+     * Reads the arg of message.
+     * @param in input
+     * @return arg of message
+     * @throws IOException if I/O error occurs
+     * @throws ClassNotFoundException if the class of arg is not found
+     */
+    private static Object readArg(
+            ObjectInput in) throws IOException, ClassNotFoundException {
+        byte tag = in.readByte();
+        switch (tag) {
+        case ARG_NULL:
+            return null;
+        case ARG_STRING:
+            return in.readUTF();
+        case ARG_INTEGER:
+            return in.readInt();
+        case ARG_LONG:
+            return in.readLong();
+        case ARG_OBJECT:
+            return in.readObject();
+        default:
+            throw new InvalidObjectException("unknown arg: " + tag);
+        }
+    }
+
+    /**
+     * Writes the string.
+     * @param out output
+     * @param value string
+     * @param longString whether the string is too long to be written as UTF
+     * @throws IOException if I/O error occurs
+     */
+    private static void writeString(ObjectOutput out, String value,
+            boolean longString) throws IOException {
+        if (longString) {
+            out.writeObject(value);
+        } else {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads the string.
+     * @param in input
+     * @param longString whether the string is too long to be written as UTF
+     * @return string
+     * @throws IOException if I/O error occurs
+     * @throws ClassNotFoundException never thrown
+     */
+    private static String readString(ObjectInput in,
+            boolean longString) throws IOException, ClassNotFoundException {
+        if (longString) {
+            return (String) in.readObject();
+        }
+        return in.readUTF();
+    }
+}
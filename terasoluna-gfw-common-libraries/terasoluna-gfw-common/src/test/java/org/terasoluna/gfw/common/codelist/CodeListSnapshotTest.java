@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CodeListSnapshotTest {
+
+    @Test
+    public void testOfSimpleMapCodeList() {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        map.put("3", "C");
+        map.put("1", "A");
+        map.put("2", "B");
+        SimpleMapCodeList codeList = new SimpleMapCodeList();
+        codeList.setMap(map);
+
+        CodeListSnapshot snapshot = CodeListSnapshot.of(codeList);
+
+        assertThat(snapshot.size(), is(3));
+        assertThat(snapshot.contains("1"), is(true));
+        assertThat(snapshot.contains(new StringBuilder("3")), is(true));
+        assertThat(snapshot.contains("4"), is(false));
+        assertThat(snapshot.contains(null), is(false));
+    }
+
+    @Test
+    public void testOfReloadableCodeList() {
+        final Map<String, String> map = new LinkedHashMap<String, String>();
+        map.put("A", "a");
+        AbstractReloadableCodeList codeList = new AbstractReloadableCodeList() {
+            @Override
+            protected Map<String, String> retrieveMap() {
+                return map;
+            }
+        };
+        codeList.setLazyInit(true);
+        codeList.afterPropertiesSet();
+
+        CodeListSnapshot snapshot = CodeListSnapshot.of(codeList);
+        map.put("B", "b");
+        codeList.refresh();
+
+        assertThat(snapshot.contains("A"), is(true));
+        assertThat(snapshot.contains("B"), is(false));
+        assertThat(CodeListSnapshot.of(codeList).contains("B"), is(true));
+    }
+
+    @Test
+    public void testFindInvalidIndices() {
+        SimpleMapCodeList codeList = new SimpleMapCodeList();
+        codeList.setMap(Collections.singletonMap("1", "A"));
+        CodeListSnapshot snapshot = CodeListSnapshot.of(codeList);
+
+        int[] invalidIndices = snapshot.findInvalidIndices(Arrays.asList("1",
+                "2", null, "", "1", "x", "y", "z", "1", "a", "b", "c", "d",
+                "e"));
+
+        assertThat(invalidIndices, is(new int[] { 1, 5, 6, 7, 9, 10, 11, 12,
+                13 }));
+    }
+
+    @Test
+    public void testFindInvalidIndicesAllValid() {
+        SimpleMapCodeList codeList = new SimpleMapCodeList();
+        codeList.setMap(Collections.singletonMap("1", "A"));
+        CodeListSnapshot snapshot = CodeListSnapshot.of(codeList);
+
+        assertThat(snapshot.findInvalidIndices(Arrays.asList("1", "", null)),
+                is(new int[0]));
+    }
+
+}
@@ -18,8 +18,11 @@ package org.terasoluna.gfw.common.codelist.i18n;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -75,6 +78,14 @@ public class SimpleI18nCodeListTest {
         assertThat(row2.get("6"), is("土"));
     }
 
+    @Test
+    public void testGetLocales() {
+        assertThat(testSetRows01.getLocales(), is(
+                (Set<Locale>) new HashSet<Locale>(Arrays.asList(Locale.ENGLISH,
+                        Locale.JAPANESE))));
+        assertThat(testSetRows01.asMap(Locale.FRENCH).isEmpty(), is(true));
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     public void testSetRows02() {
         // check unmodifiable
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.terasoluna.gfw.common.exception.ExceptionLogger.LogLevelWrappingLogger;
+
+public class ExceptionLogThrottleTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private ExceptionLogThrottle testTarget;
+
+    private LogLevelWrappingLogger mockLogger;
+
+    @Before
+    public void setUp() {
+        this.testTarget = createThrottle(new ExceptionLogger());
+        this.mockLogger = mock(LogLevelWrappingLogger.class);
+        when(mockLogger.isEnabled()).thenReturn(true);
+    }
+
+    @Test
+    public void testAcquire_suppress_duplicates_and_log_summary() {
+        // occurred at the same stack frame
+        Exception[] exceptions = new Exception[5];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptions[i] = new IllegalStateException("error" + i);
+        }
+
+        for (int i = 0; i < exceptions.length; i++) {
+            assertThat(testTarget.acquire(
+                    new ExceptionResolution(exceptions[i], "e.xx.0001", null),
+                    mockLogger), is(i < 2));
+        }
+        verify(mockLogger, never()).log(anyString(), (Exception) isNull());
+
+        // next window
+        clock.addAndGet(100);
+        assertThat(testTarget.acquire(
+                new ExceptionResolution(exceptions[0], "e.xx.0001", null),
+                mockLogger), is(true));
+        verify(mockLogger).log(
+                "[e.xx.0001] java.lang.IllegalStateException occurred 5 times in 100 ms. 3 duplicate logs were suppressed.",
+                null);
+    }
+
+    @Test
+    public void testAcquire_different_code_and_frame_are_not_duplicate() {
+        Exception ex1 = new IllegalStateException("error");
+        Exception ex2 = new IllegalStateException("error");
+        for (int i = 0; i < 3; i++) {
+            assertThat(testTarget.acquire(
+                    new ExceptionResolution(ex1, "e.xx.000" + i, null),
+                    mockLogger), is(true));
+            assertThat(testTarget.acquire(
+                    new ExceptionResolution(ex2, "e.xx.0001", null),
+                    mockLogger), is(i < 2));
+        }
+    }
+
+    @Test
+    public void testAcquire_sweep_logs_summary_of_other_exceptions() {
+        Exception ex = new IllegalStateException("error");
+        for (int i = 0; i < 4; i++) {
+            testTarget.acquire(new ExceptionResolution(ex, null, null),
+                    mockLogger);
+        }
+
+        // another exception after the window triggers the sweep
+        clock.addAndGet(150);
+        assertThat(testTarget.acquire(
+                new ExceptionResolution(new IllegalArgumentException(), "w.xx.0001", null),
+                mockLogger), is(true));
+        verify(mockLogger).log(
+                "[UNDEFINED-CODE] java.lang.IllegalStateException occurred 4 times in 150 ms. 2 duplicate logs were suppressed.",
+                null);
+
+        // no occurrences in the window. the counter is removed without summary.
+        clock.addAndGet(150);
+        assertThat(testTarget.acquire(
+                new ExceptionResolution(new IllegalArgumentException(), "w.xx.0001", null),
+                mockLogger), is(true));
+        assertThat(testTarget.acquire(new ExceptionResolution(ex, null, null),
+                mockLogger), is(true));
+    }
+
+    @Test
+    public void testAcquire_summary_is_formatted_by_exception_logger() {
+        ExceptionLogger exceptionLogger = new ExceptionLogger();
+        exceptionLogger.setLogMessageFormat("  {0}: {1}  ");
+        testTarget = createThrottle(exceptionLogger);
+        Exception ex = new IllegalStateException("error");
+
+        for (int i = 0; i < 3; i++) {
+            testTarget.acquire(new ExceptionResolution(ex, "e.xx.0001", null),
+                    mockLogger);
+        }
+        clock.addAndGet(100);
+        testTarget.acquire(new ExceptionResolution(ex, "e.xx.0001", null),
+                mockLogger);
+
+        verify(mockLogger).log(
+                "e.xx.0001: java.lang.IllegalStateException occurred 3 times in 100 ms. 1 duplicate logs were suppressed.",
+                null);
+    }
+
+    @Test
+    public void testAcquire_after_sweep_removes_idle_counter() {
+        Exception ex = new IllegalStateException("error");
+        Exception other = new IllegalArgumentException("other");
+        testTarget.acquire(new ExceptionResolution(ex, "e.xx.0001", null),
+                mockLogger);
+
+        // the counter of ex is idle in the second window and removed by the sweep in the third window
+        clock.addAndGet(100);
+        testTarget.acquire(new ExceptionResolution(other, "e.xx.0002", null),
+                mockLogger);
+        clock.addAndGet(100);
+        testTarget.acquire(new ExceptionResolution(other, "e.xx.0002", null),
+                mockLogger);
+        clock.addAndGet(100);
+        testTarget.acquire(new ExceptionResolution(other, "e.xx.0002", null),
+                mockLogger);
+
+        // counted by a new counter
+        for (int i = 0; i < 3; i++) {
+            assertThat(testTarget.acquire(
+                    new ExceptionResolution(ex, "e.xx.0001", null), mockLogger),
+                    is(i < 2));
+        }
+    }
+
+    @Test
+    public void testSweep_logs_summary_without_further_exception() {
+        Exception ex = new IllegalStateException("error");
+        for (int i = 0; i < 3; i++) {
+            testTarget.acquire(new ExceptionResolution(ex, "e.xx.0001", null),
+                    mockLogger);
+        }
+
+        testTarget.sweep();
+        verify(mockLogger, never()).log(anyString(), (Exception) isNull());
+
+        // no further exception occurs after the window
+        clock.addAndGet(100);
+        testTarget.sweep();
+        verify(mockLogger).log(
+                "[e.xx.0001] java.lang.IllegalStateException occurred 3 times in 100 ms. 1 duplicate logs were suppressed.",
+                null);
+    }
+
+    @Test
+    public void testFlush_logs_summary_of_current_window() {
+        Exception ex = new IllegalStateException("error");
+        Exception other = new IllegalArgumentException("other");
+        for (int i = 0; i < 4; i++) {
+            testTarget.acquire(new ExceptionResolution(ex, "e.xx.0001", null),
+                    mockLogger);
+        }
+        testTarget.acquire(new ExceptionResolution(other, "e.xx.0002", null),
+                mockLogger);
+
+        // the window is not over
+        clock.addAndGet(30);
+        testTarget.flush();
+
+        verify(mockLogger).log(
+                "[e.xx.0001] java.lang.IllegalStateException occurred 4 times in 30 ms. 2 duplicate logs were suppressed.",
+                null);
+        verify(mockLogger).log(anyString(), (Exception) isNull());
+    }
+
+    private ExceptionLogThrottle createThrottle(
+            ExceptionLogger exceptionLogger) {
+        final AtomicLong clock = this.clock;
+        return new ExceptionLogThrottle(2, 100, exceptionLogger) {
+            @Override
+            long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+    }
+}
@@ -21,6 +21,7 @@ import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -261,6 +262,224 @@ public class ExceptionLoggerTest {
 
     }
 
+    @Test
+    public void testLog_resolve_exception_code_once() throws Exception {
+        // do setup.
+        applicationLogger.setLevel(Level.INFO);
+        monitoringLogger.setLevel(Level.INFO);
+
+        Exception ex = new SystemException("w.code01", "system error.");
+
+        ExceptionCodeResolver mockExceptionCodeResolver = mock(
+                ExceptionCodeResolver.class);
+        when(mockExceptionCodeResolver.resolveExceptionCode(ex)).thenReturn(
+                "w.code01");
+        testTarget = new ExceptionLogger();
+        testTarget.setExceptionCodeResolver(mockExceptionCodeResolver);
+        testTarget.afterPropertiesSet();
+
+        // do test.
+        testTarget.log(ex);
+
+        // do assert.
+        verify(mockExceptionCodeResolver, times(1)).resolveExceptionCode(ex);
+        verifyLogging("[w.code01] system error.", Level.WARN, ex,
+                mockApplicationLoggerAppender);
+    }
+
+    @Test
+    public void testLog_reuse_exception_resolution() throws Exception {
+        // do setup.
+        applicationLogger.setLevel(Level.INFO);
+        monitoringLogger.setLevel(Level.INFO);
+
+        Exception ex = new SystemException("code01", "system error.");
+
+        ExceptionCodeResolver mockExceptionCodeResolver = mock(
+                ExceptionCodeResolver.class);
+        testTarget = new ExceptionLogger();
+        testTarget.setExceptionCodeResolver(mockExceptionCodeResolver);
+        testTarget.afterPropertiesSet();
+
+        // do test.
+        testTarget.log(
+                new ExceptionResolution(ex, "i.code01", mockExceptionCodeResolver));
+
+        // do assert.
+        verify(mockExceptionCodeResolver, times(0)).resolveExceptionCode(ex);
+        verifyLogging("[i.code01] system error.", Level.INFO, ex,
+                mockApplicationLoggerAppender);
+    }
+
+    @Test
+    public void testWarn_resolution_of_other_resolver() {
+        // do setup.
+        applicationLogger.setLevel(Level.WARN);
+        monitoringLogger.setLevel(Level.WARN);
+
+        Exception ex = new SystemException("code01", "system error.");
+
+        ExceptionCodeResolver mockExceptionCodeResolver = mock(
+                ExceptionCodeResolver.class);
+        when(mockExceptionCodeResolver.resolveExceptionCode(ex)).thenReturn(
+                "code01");
+        testTarget.setExceptionCodeResolver(mockExceptionCodeResolver);
+
+        // do test.
+        testTarget.warn(new ExceptionResolution(ex, "other01", mock(
+                ExceptionCodeResolver.class)));
+
+        // do assert.
+        verify(mockExceptionCodeResolver, times(1)).resolveExceptionCode(ex);
+        verifyLogging("[code01] system error.", Level.WARN, ex,
+                mockApplicationLoggerAppender);
+    }
+
+    @Test
+    public void testWarn_duplicateLogLimit() {
+        // do setup.
+        applicationLogger.setLevel(Level.WARN);
+        monitoringLogger.setLevel(Level.WARN);
+        testTarget.setDuplicateLogLimit(1);
+        testTarget.afterPropertiesSet();
+
+        Exception[] exceptions = new Exception[3];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptions[i] = new SystemException("w.code01", "system error.");
+        }
+
+        // do test.
+        for (Exception ex : exceptions) {
+            testTarget.warn(ex);
+        }
+
+        // do assert.
+        verifyLogging("[w.code01] system error.", Level.WARN, exceptions[0],
+                mockApplicationLoggerAppender);
+        verifyLogging("[w.code01] system error.", Level.WARN,
+                mockMonitoringLoggerAppender);
+    }
+
+    @Test
+    public void testDestroy_logs_summary_of_suppressed_duplicates() {
+        // do setup.
+        applicationLogger.setLevel(Level.WARN);
+        monitoringLogger.setLevel(Level.WARN);
+        testTarget.setDuplicateLogLimit(1);
+        testTarget.afterPropertiesSet();
+
+        Exception[] exceptions = new Exception[3];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptions[i] = new SystemException("w.code01", "system error.");
+        }
+        for (Exception ex : exceptions) {
+            testTarget.warn(ex);
+        }
+
+        // do test.
+        // no further exception occurs in the window
+        testTarget.destroy();
+
+        // do assert.
+        ArgumentMatcher<ILoggingEvent> summary = summaryOf(3, 2);
+        verify(mockApplicationLoggerAppender).doAppend(argThat(summary));
+        verify(mockMonitoringLoggerAppender).doAppend(argThat(summary));
+    }
+
+    @Test
+    public void testWarn_duplicateLogLimit_summary_without_further_exception() {
+        // do setup.
+        applicationLogger.setLevel(Level.WARN);
+        monitoringLogger.setLevel(Level.WARN);
+        testTarget.setDuplicateLogLimit(1);
+        testTarget.setDuplicateLogWindowMillis(50);
+        testTarget.afterPropertiesSet();
+
+        Exception[] exceptions = new Exception[3];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptions[i] = new SystemException("w.code01", "system error.");
+        }
+
+        // do test.
+        try {
+            for (Exception ex : exceptions) {
+                testTarget.warn(ex);
+            }
+
+            // do assert.
+            // logged by the timer even if no further exception occurs
+            ArgumentMatcher<ILoggingEvent> summary = summaryOf(3, 2);
+            verify(mockApplicationLoggerAppender, timeout(5000)).doAppend(
+                    argThat(summary));
+            verify(mockMonitoringLoggerAppender, timeout(5000)).doAppend(
+                    argThat(summary));
+        } finally {
+            testTarget.destroy();
+        }
+    }
+
+    @Test
+    public void testLog_exceptionMetricsRecorder() {
+        // do setup.
+        applicationLogger.setLevel(Level.ERROR);
+        monitoringLogger.setLevel(Level.ERROR);
+        ExceptionStatistics statistics = new ExceptionStatistics();
+        testTarget.setExceptionMetricsRecorder(statistics);
+        testTarget.setDuplicateLogLimit(1);
+        testTarget.afterPropertiesSet();
+
+        // do test.
+        testTarget.warn(new SystemException("w.code01", "system error."));
+        for (int i = 0; i < 2; i++) {
+            testTarget.log(new SystemException("e.code01", "system error."));
+        }
+        testTarget.log(new SystemException("i.code01", "system error."));
+
+        // do assert.
+        // recorded even if the log is disabled or suppressed
+        assertThat(statistics.getTotalCount(), is(4L));
+        for (ExceptionCount count : statistics.getExceptionCounts()) {
+            String code = count.getExceptionCode();
+            if (code.equals("w.code01")) {
+                assertThat(count.getLevel(), is(ExceptionLevel.WARN));
+                assertThat(count.getTotalCount(), is(1L));
+            } else if (code.equals("e.code01")) {
+                assertThat(count.getLevel(), is(ExceptionLevel.ERROR));
+                assertThat(count.getTotalCount(), is(2L));
+            } else {
+                assertThat(count.getLevel(), is(ExceptionLevel.INFO));
+                assertThat(count.getTotalCount(), is(1L));
+            }
+        }
+        verify(mockApplicationLoggerAppender, times(1)).doAppend(
+                (ILoggingEvent) anyObject());
+    }
+
+    @Test
+    public void testAfterPropertiesSet_duplicateLogLimit_is_negative() {
+        testTarget.setDuplicateLogLimit(-1);
+        try {
+            testTarget.afterPropertiesSet();
+            fail("if duplicateLogLimit is negative, must be occur IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(
+                    "duplicateLogLimit must be zero or positive. current duplicateLogLimit is -1."));
+        }
+    }
+
+    @Test
+    public void testAfterPropertiesSet_duplicateLogWindowMillis_is_zero() {
+        testTarget.setDuplicateLogLimit(1);
+        testTarget.setDuplicateLogWindowMillis(0);
+        try {
+            testTarget.afterPropertiesSet();
+            fail("if duplicateLogWindowMillis is zero, must be occur IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(
+                    "duplicateLogWindowMillis must be positive. current duplicateLogWindowMillis is 0."));
+        }
+    }
+
     @Test
     public void testWarn_application_and_monitoring_is_enabled() {
         // do setup.
@@ -751,12 +970,58 @@ public class ExceptionLoggerTest {
                 "test.Monitoring"));
     }
 
+    @Test
+    public void testLog_overridden_makeLogMessage() throws Exception {
+        // do setup.
+        applicationLogger.setLevel(Level.INFO);
+        monitoringLogger.setLevel(Level.INFO);
+        testTarget = new CustomMessageExceptionLogger();
+        testTarget.afterPropertiesSet();
+
+        Exception ex = new SystemException("code01", "system error.");
+
+        // do test.
+        testTarget.info(ex);
+        testTarget.info(testTarget.resolve(ex));
+
+        // do assert.
+        verify(mockApplicationLoggerAppender, times(2)).doAppend(argThat(
+                new ArgumentMatcher<LoggingEvent>() {
+                    @Override
+                    public boolean matches(Object argument) {
+                        return ((LoggingEvent) argument).getFormattedMessage()
+                                .equals("custom:system error.");
+                    }
+                }));
+    }
+
+    static class CustomMessageExceptionLogger extends ExceptionLogger {
+        @Override
+        protected String makeLogMessage(Exception ex) {
+            return "custom:" + ex.getMessage();
+        }
+    }
+
     /**
      * verify logging.
      * @param expectedLogMessage expected log message.
      * @param expectedLogLevel expected log level.
      * @param mockAppender mock appender.
      */
+    private ArgumentMatcher<ILoggingEvent> summaryOf(final int occurred,
+            final int suppressed) {
+        return new ArgumentMatcher<ILoggingEvent>() {
+            @Override
+            public boolean matches(Object argument) {
+                return ((LoggingEvent) argument).getFormattedMessage().matches(
+                        "\\[w\\.code01\\] " + SystemException.class.getName()
+                                .replace(".", "\\.") + " occurred " + occurred
+                                + " times in [0-9]+ ms\\. " + suppressed
+                                + " duplicate logs were suppressed\\.");
+            }
+        };
+    }
+
     private void verifyLogging(final String expectedLogMessage,
             final Level expectedLogLevel,
             final Appender<ILoggingEvent> mockAppender) {
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExceptionStatisticsTest {
+
+    private final AtomicLong clock = new AtomicLong(100000);
+
+    private ExceptionStatistics testTarget;
+
+    @Before
+    public void setUp() {
+        final AtomicLong clock = this.clock;
+        this.testTarget = new ExceptionStatistics(10) {
+            @Override
+            long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+    }
+
+    @Test
+    public void testRecord_count_per_code_and_level() {
+        Exception ex = new IllegalStateException();
+        for (int i = 0; i < 3; i++) {
+            testTarget.record(new ExceptionResolution(ex, "e.xx.0001", null),
+                    ExceptionLevel.ERROR);
+        }
+        testTarget.record(new ExceptionResolution(ex, "e.xx.0001", null),
+                ExceptionLevel.WARN);
+        testTarget.record(new ExceptionResolution(ex, null, null),
+                ExceptionLevel.ERROR);
+
+        Map<String, ExceptionCount> counts = toMap(testTarget
+                .getExceptionCounts());
+        assertThat(counts.size(), is(3));
+        assertThat(counts.get("e.xx.0001:ERROR").getTotalCount(), is(3L));
+        assertThat(counts.get("e.xx.0001:ERROR").getRecentCount(), is(3L));
+        assertThat(counts.get("e.xx.0001:ERROR").getRecentRatePerSecond(), is(
+                0.3));
+        assertThat(counts.get("e.xx.0001:WARN").getTotalCount(), is(1L));
+        assertThat(counts.get("UNDEFINED-CODE:ERROR").getTotalCount(), is(1L));
+        assertThat(testTarget.getTotalCount(), is(5L));
+        assertThat(testTarget.getWindowSeconds(), is(10));
+    }
+
+    @Test
+    public void testRecord_recent_window() {
+        Exception ex = new IllegalStateException();
+        testTarget.record(new ExceptionResolution(ex, "e.xx.0001", null),
+                ExceptionLevel.ERROR);
+        clock.addAndGet(5000);
+        testTarget.record(new ExceptionResolution(ex, "e.xx.0001", null),
+                ExceptionLevel.ERROR);
+        assertThat(testTarget.getExceptionCounts().get(0).getRecentCount(), is(
+                2L));
+
+        // first one is out of the window
+        clock.addAndGet(5000);
+        assertThat(testTarget.getExceptionCounts().get(0).getRecentCount(), is(
+                1L));
+
+        // bucket of the first one is reused
+        testTarget.record(new ExceptionResolution(ex, "e.xx.0001", null),
+                ExceptionLevel.ERROR);
+        ExceptionCount count = testTarget.getExceptionCounts().get(0);
+        assertThat(count.getRecentCount(), is(2L));
+        assertThat(count.getTotalCount(), is(3L));
+
+        clock.addAndGet(60000);
+        count = testTarget.getExceptionCounts().get(0);
+        assertThat(count.getRecentCount(), is(0L));
+        assertThat(count.getTotalCount(), is(3L));
+    }
+
+    @Test
+    public void testRecord_stale_second_does_not_reset_bucket() {
+        Exception ex = new IllegalStateException();
+        clock.addAndGet(10000);
+        for (int i = 0; i < 3; i++) {
+            testTarget.record(new ExceptionResolution(ex, "e.xx.0001", null),
+                    ExceptionLevel.ERROR);
+        }
+
+        // a thread that read the clock a window ago records into the same bucket
+        clock.addAndGet(-10000);
+        testTarget.record(new ExceptionResolution(ex, "e.xx.0001", null),
+                ExceptionLevel.ERROR);
+        clock.addAndGet(10000);
+
+        ExceptionCount count = testTarget.getExceptionCounts().get(0);
+        assertThat(count.getRecentCount(), is(3L));
+        assertThat(count.getTotalCount(), is(4L));
+    }
+
+    @Test
+    public void testRecord_concurrent_bucket_reuse() throws Exception {
+        final Exception ex = new IllegalStateException();
+        final int threads = 8;
+        final int recordsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 1; round <= 10; round++) {
+                // all buckets are expired, so the threads race to reuse them
+                clock.addAndGet(10000);
+                final CountDownLatch start = new CountDownLatch(1);
+                List<Future<Void>> futures = new ArrayList<Future<Void>>();
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            start.await();
+                            for (int j = 0; j < recordsPerThread; j++) {
+                                testTarget.record(new ExceptionResolution(ex, "e.xx.0001", null),
+                                        ExceptionLevel.ERROR);
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                start.countDown();
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+
+                ExceptionCount count = testTarget.getExceptionCounts().get(0);
+                assertThat(count.getRecentCount(), is((long) threads
+                        * recordsPerThread));
+                assertThat(count.getTotalCount(), is((long) round * threads
+                        * recordsPerThread));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReset() {
+        testTarget.record(
+                new ExceptionResolution(new IllegalStateException(), "e.xx.0001", null),
+                ExceptionLevel.ERROR);
+        testTarget.reset();
+        assertThat(testTarget.getExceptionCounts().isEmpty(), is(true));
+        assertThat(testTarget.getTotalCount(), is(0L));
+    }
+
+    @Test
+    public void testSetUndefinedCode() {
+        testTarget.setUndefinedCode("UNKNOWN");
+        testTarget.record(
+                new ExceptionResolution(new IllegalStateException(), "", null),
+                null);
+        ExceptionCount count = testTarget.getExceptionCounts().get(0);
+        assertThat(count.getExceptionCode(), is("UNKNOWN"));
+        assertThat(count.getLevel(), is(ExceptionLevel.ERROR));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_invalid_windowSeconds() {
+        new ExceptionStatistics(0);
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        ExceptionStatistics statistics = new ExceptionStatistics();
+        statistics.record(
+                new ExceptionResolution(new IllegalStateException(), "e.xx.0001", null),
+                ExceptionLevel.ERROR);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.terasoluna.gfw.common.exception:type=ExceptionStatistics");
+        server.registerMBean(statistics, name);
+        try {
+            assertThat(server.getAttribute(name, "TotalCount"), is(
+                    (Object) 1L));
+            CompositeData[] counts = (CompositeData[]) server.getAttribute(name,
+                    "ExceptionCounts");
+            assertThat(counts.length, is(1));
+            assertThat(counts[0].get("exceptionCode"), is(
+                    (Object) "e.xx.0001"));
+            assertThat(counts[0].get("level"), is((Object) "ERROR"));
+            assertThat(counts[0].get("totalCount"), is((Object) 1L));
+
+            server.invoke(name, "reset", null, null);
+            assertThat(statistics.getTotalCount(), is(0L));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    private Map<String, ExceptionCount> toMap(List<ExceptionCount> counts) {
+        Map<String, ExceptionCount> map = new HashMap<String, ExceptionCount>();
+        for (ExceptionCount count : counts) {
+            map.put(count.getExceptionCode() + ":" + count.getLevel(), count);
+        }
+        return map;
+    }
+}
@@ -37,6 +37,8 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.context.support.ApplicationObjectSupport;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -306,7 +308,7 @@ public class ResultMessagesLoggingInterceptorTest extends
      * [Expected Result]
      * <ol>
      * <li>throws exception.</li>
-     * <li>BusinessException log is output in both interception.(verify ThreadLocal variable is removed.)</li>
+     * <li>BusinessException log is output in both interception.(verify the depth of interception in thread is restored.)</li>
      * </ol>
      * </p>
      */
@@ -343,6 +345,185 @@ public class ResultMessagesLoggingInterceptorTest extends
 
     }
 
+    /**
+     * [invoke] Case of rethrow the exception that occurred in another thread.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>throws BusinessException on both thread.</li>
+     * <li>BusinessException log is output in the starting point of interception of each thread.</li>
+     * </ol>
+     * </p>
+     */
+    @Test
+    public void testInvoke_rethrow_in_another_thread() throws Throwable {
+        // do setup for test case.
+        final BusinessException occurException = new BusinessException(ResultMessages
+                .error().add("e.cm.xxx1"));
+        when(mockMethodInvocation.proceed()).thenThrow(occurException);
+        final Map<Thread, Throwable> actualException = new HashMap<Thread, Throwable>();
+
+        // do test.
+        // intercept on async thread.
+        Thread asyncThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    testTarget.invoke(mockMethodInvocation);
+                } catch (Throwable e) {
+                    actualException.put(Thread.currentThread(), e);
+                }
+            }
+        });
+        asyncThread.start();
+        asyncThread.join();
+        // intercept on caller thread that rethrows the exception.
+        try {
+            testTarget.invoke(mockMethodInvocation);
+            fail("don't occur BusinessException.");
+        } catch (BusinessException e) {
+            assertThat(e, is(occurException));
+        }
+
+        // do assert.
+        assertThat(actualException.get(asyncThread), is(
+                (Throwable) occurException));
+        verify(mockExceptionLogger, times(2)).warn(occurException);
+        verify(mockExceptionLogger, times(2)).warn((Exception) anyObject());
+    }
+
+    /**
+     * [invoke] Case of the same exception instance thrown through distinct invocations on same thread.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>throws BusinessException.</li>
+     * <li>BusinessException log is output once per starting point of interception.</li>
+     * </ol>
+     * </p>
+     */
+    @Test
+    public void testInvoke_reused_exception_distinct_invocations() throws Throwable {
+        // do setup for test case.
+        BusinessException occurException = new BusinessException(ResultMessages
+                .error().add("e.cm.xxx1"));
+
+        // do test.
+        // new invocations per call as the AOP proxy does.
+        for (int i = 0; i < 3; i++) {
+            // outer -> (test target) -> inner -> (test target) -> target
+            final MethodInvocation innerInvocation = mock(
+                    MethodInvocation.class);
+            when(innerInvocation.proceed()).thenThrow(occurException);
+            MethodInvocation outerInvocation = mock(MethodInvocation.class);
+            when(outerInvocation.proceed()).thenAnswer(new Answer<Object>() {
+                @Override
+                public Object answer(
+                        InvocationOnMock invocation) throws Throwable {
+                    return testTarget.invoke(innerInvocation);
+                }
+            });
+            try {
+                testTarget.invoke(outerInvocation);
+                fail("don't occur BusinessException.");
+            } catch (BusinessException e) {
+                assertThat(e, is(occurException));
+            }
+        }
+
+        // do assert.
+        verify(mockExceptionLogger, times(3)).warn(occurException);
+        verify(mockExceptionLogger, times(3)).warn((Exception) anyObject());
+    }
+
+    /**
+     * [invoke] Case of the exception handled by an intermediate method.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>not throws BusinessException.</li>
+     * <li>BusinessException log is not output.</li>
+     * </ol>
+     * </p>
+     */
+    @Test
+    public void testInvoke_handled_in_nested_method() throws Throwable {
+        // do setup for test case.
+        final BusinessException occurException = new BusinessException(ResultMessages
+                .error().add("e.cm.xxx1"));
+        // outer -> (test target) -> inner (handles exception) -> (test target) -> target
+        when(mockMethodInvocation.proceed()).thenThrow(occurException);
+        MethodInvocation outerInvocation = mock(MethodInvocation.class);
+        when(outerInvocation.proceed()).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                try {
+                    return testTarget.invoke(mockMethodInvocation);
+                } catch (BusinessException e) {
+                    return "handled";
+                }
+            }
+        });
+
+        // do test.
+        Object actual = testTarget.invoke(outerInvocation);
+
+        // do assert.
+        assertThat(actual, is((Object) "handled"));
+        verify(mockExceptionLogger, never()).warn((Exception) anyObject());
+    }
+
+    /**
+     * [invoke] Case of nested interception by two interceptor instances.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>throws BusinessException.</li>
+     * <li>BusinessException log is output once per interceptor instance.</li>
+     * </ol>
+     * </p>
+     */
+    @Test
+    public void testInvoke_nested_other_instance() throws Throwable {
+        // do setup for test case.
+        BusinessException occurException = new BusinessException(ResultMessages
+                .error().add("e.cm.xxx1"));
+        when(mockMethodInvocation.proceed()).thenThrow(occurException);
+        ExceptionLogger otherExceptionLogger = mock(ExceptionLogger.class);
+        ResultMessagesLoggingInterceptor otherInterceptor = new ResultMessagesLoggingInterceptor();
+        otherInterceptor.setExceptionLogger(otherExceptionLogger);
+        otherInterceptor.afterPropertiesSet();
+        // (other interceptor) -> middle -> (test target) -> inner -> (test target) -> target
+        final MethodInvocation innerInvocation = mock(MethodInvocation.class);
+        when(innerInvocation.proceed()).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return testTarget.invoke(mockMethodInvocation);
+            }
+        });
+        MethodInvocation middleInvocation = mock(MethodInvocation.class);
+        when(middleInvocation.proceed()).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return testTarget.invoke(innerInvocation);
+            }
+        });
+
+        // do test.
+        try {
+            otherInterceptor.invoke(middleInvocation);
+            fail("don't occur BusinessException.");
+        } catch (BusinessException e) {
+            assertThat(e, is(occurException));
+        }
+
+        // do assert.
+        verify(mockExceptionLogger, times(1)).warn(occurException);
+        verify(mockExceptionLogger, times(1)).warn((Exception) anyObject());
+        verify(otherExceptionLogger, times(1)).warn(occurException);
+        verify(otherExceptionLogger, times(1)).warn((Exception) anyObject());
+    }
+
     /**
      * [invoke] Case of not occur exception in a multit-hreaded environment.
      * <p>
@@ -19,7 +19,10 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.util.LinkedHashMap;
 
@@ -397,6 +400,120 @@ public class SimpleMappingExceptionCodeResolverTest {
         assertThat(actualExceptionCode, is("default001"));
     }
 
+    /**
+     * [resolveExceptionCode] Case of resolve same exception class repeatedly.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>cached result is same as first result, and precedence of definitions is kept.</li>
+     * <li>default exception code changed after caching is applied.</li>
+     * <li>cache is cleared when exception mappings are changed.</li>
+     * </ol>
+     * </p>
+     */
+    @Test
+    public void testResolveExceptionCode_cached() {
+
+        // do setup.
+        LinkedHashMap<String, String> exceptionMappings = new LinkedHashMap<String, String>();
+        exceptionMappings.put("IOException", "ioexception");
+        exceptionMappings.put("FileNotFound", "filenotfound");
+        exceptionMappings.put("NullValue", null);
+        testTarget.setExceptionMappings(exceptionMappings);
+        testTarget.setDefaultExceptionCode("default");
+
+        // do test & assert.
+        for (int i = 0; i < 2; i++) {
+            assertThat(testTarget.resolveExceptionCode(
+                    new FileNotFoundException("filenotfounderror")), is(
+                            "ioexception"));
+            assertThat(testTarget.resolveExceptionCode(
+                    new NullValueException()), is(nullValue()));
+            assertThat(testTarget.resolveExceptionCode(
+                    new ParseException("parseerror", 0)), is("default"));
+        }
+
+        testTarget.setDefaultExceptionCode("default2");
+        assertThat(testTarget.resolveExceptionCode(
+                new ParseException("parseerror", 0)), is("default2"));
+
+        LinkedHashMap<String, String> newExceptionMappings = new LinkedHashMap<String, String>();
+        newExceptionMappings.put("ParseException", "parseexception");
+        testTarget.setExceptionMappings(newExceptionMappings);
+        assertThat(testTarget.resolveExceptionCode(
+                new ParseException("parseerror", 0)), is("parseexception"));
+        assertThat(testTarget.resolveExceptionCode(
+                new FileNotFoundException("filenotfounderror")), is(
+                        "default2"));
+    }
+
+    /**
+     * [resolveExceptionCode] Case of more exception classes than the maximum cache size.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>exception code is resolved even if the result is not cached.</li>
+     * </ol>
+     * </p>
+     */
+    @Test
+    public void testResolveExceptionCode_exceed_max_cached_classes() throws Exception {
+
+        // do setup.
+        LinkedHashMap<String, String> exceptionMappings = new LinkedHashMap<String, String>();
+        exceptionMappings.put("TestException", "testexception");
+        testTarget.setExceptionMappings(exceptionMappings);
+        testTarget.setDefaultExceptionCode("default");
+
+        // do test & assert.
+        for (int i = 0; i < SimpleMappingExceptionCodeResolver.MAX_CACHED_CLASSES
+                + 10; i++) {
+            Class<?> exceptionClass = new ClassLoader(getClass()
+                    .getClassLoader()) {
+                {
+                    byte[] bytes = readClass(ReloadableTestException.class);
+                    defineClass(ReloadableTestException.class.getName(), bytes,
+                            0, bytes.length);
+                }
+            }.loadClass(ReloadableTestException.class.getName());
+            assertThat(testTarget.resolveExceptionCode(
+                    (Exception) exceptionClass.newInstance()), is(
+                            "testexception"));
+        }
+        assertThat(testTarget.resolveExceptionCode(
+                new ParseException("parseerror", 0)), is("default"));
+    }
+
+    private static byte[] readClass(Class<?> clazz) throws IOException {
+        InputStream in = clazz.getResourceAsStream(clazz.getName().substring(
+                clazz.getName().lastIndexOf('.') + 1) + ".class");
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * exception class for test.
+     */
+    public static class ReloadableTestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * exception class for test.
+     */
+    private static class NullValueException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
     /**
      * exception class for test.
      */
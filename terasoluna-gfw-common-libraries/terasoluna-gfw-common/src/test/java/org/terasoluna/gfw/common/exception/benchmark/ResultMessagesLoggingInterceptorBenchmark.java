@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.exception.benchmark;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.terasoluna.gfw.common.exception.BusinessException;
+import org.terasoluna.gfw.common.exception.ResultMessagesLoggingInterceptor;
+import org.terasoluna.gfw.common.exception.ResultMessagesNotificationException;
+
+/**
+ * JMH benchmark of the overhead per call of {@link ResultMessagesLoggingInterceptor}.
+ * <p>
+ * The interceptor that tracks the depth of interception in a {@link ThreadLocal} (one {@code get} per call) is compared
+ * with the implementation until 5.4.x that sets and removes the starting point of interception in a {@link ThreadLocal},
+ * on a single and a nested (facade and service) interception. The exception path is
+ * measured with a preallocated exception and without log output. This class is not run by the unit tests. Run it after
+ * {@code mvn test-compile} as following:
+ * </p>
+ *
+ * <pre>
+ * <code>mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ResultMessagesLoggingInterceptorBenchmark</code>
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResultMessagesLoggingInterceptorBenchmark {
+
+    private static final Object RESULT = new Object();
+
+    private final BusinessException exception = new BusinessException("benchmark");
+
+    private MethodInvocation single;
+
+    private MethodInvocation nested;
+
+    private MethodInvocation singleThreadLocal;
+
+    private MethodInvocation nestedThreadLocal;
+
+    private MethodInvocation nestedThrowing;
+
+    private MethodInvocation nestedThrowingThreadLocal;
+
+    @Setup
+    public void setup() throws Exception {
+        ResultMessagesLoggingInterceptor interceptor = new ResultMessagesLoggingInterceptor() {
+            @Override
+            protected void logResultMessagesNotificationException(
+                    ResultMessagesNotificationException e) {
+                // not output log to measure the interceptor only
+            }
+        };
+        interceptor.afterPropertiesSet();
+        MethodInterceptor threadLocalInterceptor = new ThreadLocalResultMessagesLoggingInterceptor();
+
+        MethodInvocation target = new TargetInvocation(null);
+        MethodInvocation throwingTarget = new TargetInvocation(exception);
+
+        single = new InterceptedInvocation(interceptor, target);
+        nested = new InterceptedInvocation(interceptor, new InterceptedInvocation(interceptor, target));
+        singleThreadLocal = new InterceptedInvocation(threadLocalInterceptor, target);
+        nestedThreadLocal = new InterceptedInvocation(threadLocalInterceptor, new InterceptedInvocation(threadLocalInterceptor, target));
+        nestedThrowing = new InterceptedInvocation(interceptor, new InterceptedInvocation(interceptor, throwingTarget));
+        nestedThrowingThreadLocal = new InterceptedInvocation(threadLocalInterceptor, new InterceptedInvocation(threadLocalInterceptor, throwingTarget));
+    }
+
+    @Benchmark
+    public Object single() throws Throwable {
+        return single.proceed();
+    }
+
+    @Benchmark
+    public Object singleThreadLocal() throws Throwable {
+        return singleThreadLocal.proceed();
+    }
+
+    @Benchmark
+    public Object nested() throws Throwable {
+        return nested.proceed();
+    }
+
+    @Benchmark
+    public Object nestedThreadLocal() throws Throwable {
+        return nestedThreadLocal.proceed();
+    }
+
+    @Benchmark
+    public Object nestedThrowing() throws Throwable {
+        try {
+            return nestedThrowing.proceed();
+        } catch (BusinessException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object nestedThrowingThreadLocal() throws Throwable {
+        try {
+            return nestedThrowingThreadLocal.proceed();
+        } catch (BusinessException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Implementation until 5.4.x.
+     */
+    private static class ThreadLocalResultMessagesLoggingInterceptor implements
+                                                                     MethodInterceptor {
+
+        private final ThreadLocal<MethodInvocation> startingPoint = new ThreadLocal<MethodInvocation>();
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (startingPoint.get() == null) {
+                startingPoint.set(invocation);
+            }
+            try {
+                return invocation.proceed();
+            } catch (ResultMessagesNotificationException e) {
+                if (startingPoint.get() == invocation) {
+                    // not output log to measure the interceptor only
+                }
+                throw e;
+            } finally {
+                if (startingPoint.get() == invocation) {
+                    startingPoint.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Invocation that applies the interceptor to the next invocation.
+     */
+    private static class InterceptedInvocation implements MethodInvocation {
+
+        private final MethodInterceptor interceptor;
+
+        private final MethodInvocation next;
+
+        InterceptedInvocation(MethodInterceptor interceptor,
+                MethodInvocation next) {
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            return interceptor.invoke(next);
+        }
+
+        @Override
+        public Method getMethod() {
+            return null;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[0];
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return null;
+        }
+    }
+
+    /**
+     * Invocation of the target method.
+     */
+    private static class TargetInvocation implements MethodInvocation {
+
+        private final RuntimeException exception;
+
+        TargetInvocation(RuntimeException exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public Object proceed() {
+            if (exception != null) {
+                throw exception;
+            }
+            return RESULT;
+        }
+
+        @Override
+        public Method getMethod() {
+            return null;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[0];
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return null;
+        }
+    }
+}
@@ -94,6 +94,18 @@ public class ResultMessageTest {
         }
     }
 
+    @Test
+    public void testSerialization_round_trip() {
+        ResultMessage message = new ResultMessage("e.xx.0001", new Object[] {
+                "arg1", null, 3 }, null);
+
+        ResultMessage deserialized = (ResultMessage) SerializationUtils
+                .deserialize(SerializationUtils.serialize(message));
+
+        assertThat(deserialized, is(message));
+        assertThat(deserialized.getText(), is(nullValue()));
+    }
+
     @Test
     public void testEquals01() {
         // set up
@@ -18,14 +18,19 @@ package org.terasoluna.gfw.common.message;
 import static org.junit.Assert.*;
 import static org.hamcrest.CoreMatchers.*;
 
+import java.io.InputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.serializer.support.SerializationFailedException;
 import org.springframework.util.SerializationUtils;
+import org.springframework.util.StreamUtils;
 import org.terasoluna.gfw.common.message.ResultMessage;
 import org.terasoluna.gfw.common.message.ResultMessageType;
 import org.terasoluna.gfw.common.message.ResultMessages;
@@ -266,4 +271,115 @@ public class ResultMessagesTest {
             fail();
         }
     }
+
+    @Test
+    public void testSerialization_round_trip() {
+        StringBuilder longText = new StringBuilder();
+        while (longText.length() <= 65535) {
+            longText.append("\u3042");
+        }
+        ResultMessages messages = ResultMessages.warning().add("w.xx.0001",
+                "arg1", 2, 3L, null, new Date(0)).add(ResultMessage.fromText(
+                        longText.toString())).add(
+                                new ResultMessage("w.xx.0002", null, "default text"));
+
+        ResultMessages deserialized = (ResultMessages) SerializationUtils
+                .deserialize(SerializationUtils.serialize(messages));
+
+        assertThat(deserialized.getType(), is(messages.getType()));
+        assertThat(deserialized.getList(), is(messages.getList()));
+        assertThat(deserialized.getList().get(0).getArgs()[2], is((Object) 3L));
+    }
+
+    @Test
+    public void testSerialization_custom_type_and_subclass_message() {
+        ResultMessage subclassMessage = new DefaultFormResultMessage("e.xx.0001", null, null);
+        ResultMessages messages = new ResultMessages(new CustomType()).add(
+                subclassMessage);
+
+        ResultMessages deserialized = (ResultMessages) SerializationUtils
+                .deserialize(SerializationUtils.serialize(messages));
+
+        assertThat(deserialized.getType(), is(
+                (ResultMessageType) new CustomType()));
+        assertThat(deserialized.getList().get(0).getClass() == subclassMessage
+                .getClass(), is(true));
+        assertThat(deserialized.getList(), is(messages.getList()));
+    }
+
+    @Test
+    public void testSerialization_compact_form_is_smaller_than_default_form() {
+        ResultMessages messages = ResultMessages.error().add("e.xx.0001",
+                "arg1", 2).add(ResultMessage.fromText("text message"));
+        ResultMessages defaultForm = new DefaultFormResultMessages(ERROR);
+        for (ResultMessage message : messages) {
+            defaultForm.add(new DefaultFormResultMessage(message
+                    .getCode(), message.getArgs(), message.getText()));
+        }
+
+        assertThat(SerializationUtils.serialize(
+                messages).length < SerializationUtils.serialize(
+                        defaultForm).length, is(true));
+    }
+
+    @Test
+    public void testSerialization_deserialize_default_form_of_5_4() throws Exception {
+        // serialized by terasoluna-gfw-common 5.4.x
+        InputStream in = new ClassPathResource("ResultMessages_5.4.ser", getClass())
+                .getInputStream();
+        byte[] serialized;
+        try {
+            serialized = StreamUtils.copyToByteArray(in);
+        } finally {
+            in.close();
+        }
+
+        ResultMessages messages = (ResultMessages) SerializationUtils
+                .deserialize(serialized);
+
+        assertThat(messages.getType(), is((ResultMessageType) ERROR));
+        assertThat(messages.getList(), is(Arrays.asList(ResultMessage.fromCode(
+                "e.xx.0001", "arg1", 2), ResultMessage.fromText("text message"),
+                new ResultMessage("e.xx.0002", null, "default text"))));
+    }
+
+    private static class CustomType implements ResultMessageType, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getType() {
+            return "custom";
+        }
+
+        @Override
+        public String toString() {
+            return getType();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CustomType;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+
+    private static class DefaultFormResultMessages extends ResultMessages {
+        private static final long serialVersionUID = 1L;
+
+        DefaultFormResultMessages(ResultMessageType type) {
+            super(type);
+        }
+    }
+
+    private static class DefaultFormResultMessage extends ResultMessage {
+        private static final long serialVersionUID = 1L;
+
+        DefaultFormResultMessage(String code, Object[] args, String text) {
+            super(code, args, text);
+        }
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.message.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.SerializationUtils;
+import org.terasoluna.gfw.common.message.ResultMessage;
+import org.terasoluna.gfw.common.message.ResultMessageType;
+import org.terasoluna.gfw.common.message.ResultMessages;
+import org.terasoluna.gfw.common.message.StandardResultMessageType;
+
+/**
+ * JMH benchmark of the serialization round trip of {@link ResultMessages}.
+ * <p>
+ * The compact serialized form is compared with the default serialized form (the implementation until 5.4.x). The
+ * default form is measured with subclasses, that are serialized by default serialization. The serialized sizes
+ * are printed at setup. This class is not run by the unit tests. Run it after {@code mvn test-compile} as following:
+ * </p>
+ *
+ * <pre>
+ * <code>mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ResultMessagesSerializationBenchmark</code>
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResultMessagesSerializationBenchmark {
+
+    @Param({ "1", "10" })
+    public int size;
+
+    private ResultMessages compactForm;
+
+    private ResultMessages defaultForm;
+
+    @Setup
+    public void setup() {
+        compactForm = new ResultMessages(StandardResultMessageType.ERROR);
+        defaultForm = new DefaultFormResultMessages(StandardResultMessageType.ERROR);
+        for (int i = 0; i < size; i++) {
+            String code = String.format("e.xx.%04d", i);
+            Object[] args = { "arg" + i, i };
+            compactForm.add(new ResultMessage(code, args, null));
+            defaultForm.add(new DefaultFormResultMessage(code, args, null));
+        }
+        System.out.printf(
+                "%nserialized size: compact form=%d bytes, default form=%d bytes%n",
+                SerializationUtils.serialize(compactForm).length,
+                SerializationUtils.serialize(defaultForm).length);
+    }
+
+    @Benchmark
+    public Object compactForm() {
+        return SerializationUtils.deserialize(SerializationUtils.serialize(
+                compactForm));
+    }
+
+    @Benchmark
+    public Object defaultForm() {
+        return SerializationUtils.deserialize(SerializationUtils.serialize(
+                defaultForm));
+    }
+
+    private static class DefaultFormResultMessages extends ResultMessages {
+        private static final long serialVersionUID = 1L;
+
+        DefaultFormResultMessages(ResultMessageType type) {
+            super(type);
+        }
+    }
+
+    private static class DefaultFormResultMessage extends ResultMessage {
+        private static final long serialVersionUID = 1L;
+
+        DefaultFormResultMessage(String code, Object[] args, String text) {
+            super(code, args, text);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.fullhalf;
+
+/**
+ * The set of code points accepted by the check of {@link FullHalfConverter#toFullwidthAndCheck(String, AcceptableCodePoints...)}
+ * and {@link FullHalfConverter#toHalfwidthAndCheck(String, AcceptableCodePoints...)}.
+ * <p>
+ * {@code org.terasoluna.gfw.common.codepoints.CodePoints} can be adapted as following:
+ * </p>
+ *
+ * <pre>
+ * <code>final CodePoints codePoints = CodePoints.of(JIS_X_0208_Katakana.class);
+ * FullHalfConversionResult result = DefaultFullHalf.INSTANCE.toFullwidthAndCheck(value, new AcceptableCodePoints() {
+ *     public boolean contains(int codePoint) {
+ *         return codePoints.contains(codePoint);
+ *     }
+ * });</code>
+ * </pre>
+ * @since 5.5.0
+ */
+public interface AcceptableCodePoints {
+    /**
+     * Return whether the given code point is accepted.
+     * @param codePoint the code point to check
+     * @return whether the given code point is accepted.
+     */
+    boolean contains(int codePoint);
+}
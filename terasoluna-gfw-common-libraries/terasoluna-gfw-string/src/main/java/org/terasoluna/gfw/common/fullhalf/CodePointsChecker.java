@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.fullhalf;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Checks the code points of chars written by {@link FullHalfConverter} while converting.
+ * @since 5.5.0
+ */
+final class CodePointsChecker {
+    /**
+     * code points list to check
+     */
+    private final AcceptableCodePoints[] codePointsList;
+
+    /**
+     * index of the next char to check
+     */
+    private int checked = 0;
+
+    /**
+     * code points which are not accepted. {@code null} until found.
+     */
+    private Set<Integer> excludedCodePoints;
+
+    /**
+     * Constructor.
+     * @param codePointsList code points list to check. must not be null or empty.
+     * @throws IllegalArgumentException if the given code points list is null or empty
+     */
+    CodePointsChecker(AcceptableCodePoints[] codePointsList) {
+        if (codePointsList == null || codePointsList.length == 0) {
+            throw new IllegalArgumentException("codePointsList must not be empty.");
+        }
+        this.codePointsList = codePointsList;
+    }
+
+    /**
+     * Checks the code points in the chars written since the last check.
+     * <p>
+     * Unless {@code endOfInput} is {@code true}, a high surrogate at the end is checked at the next check together with the
+     * following low surrogate.
+     * </p>
+     * @param chars written chars
+     * @param end index after the last written char
+     * @param endOfInput whether no more chars will be written
+     */
+    void check(char[] chars, int end, boolean endOfInput) {
+        int i = this.checked;
+        while (i < end) {
+            char c = chars[i];
+            int codePoint = c;
+            if (Character.isHighSurrogate(c)) {
+                if (i + 1 < end) {
+                    if (Character.isLowSurrogate(chars[i + 1])) {
+                        codePoint = Character.toCodePoint(c, chars[i + 1]);
+                    }
+                } else if (!endOfInput) {
+                    break;
+                }
+            }
+            if (!isAccepted(codePoint)) {
+                if (this.excludedCodePoints == null) {
+                    this.excludedCodePoints = new LinkedHashSet<Integer>();
+                }
+                this.excludedCodePoints.add(codePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+        this.checked = i;
+    }
+
+    /**
+     * Creates the result.
+     * @param value converted string
+     * @return result of the conversion and the check
+     */
+    FullHalfConversionResult result(String value) {
+        Set<Integer> excluded = this.excludedCodePoints;
+        return new FullHalfConversionResult(value, excluded == null
+                ? Collections.<Integer> emptySet() : excluded);
+    }
+
+    /**
+     * Returns whether the given code point is included in any of the code points list.
+     * @param codePoint code point to check
+     * @return whether the given code point is accepted
+     */
+    private boolean isAccepted(int codePoint) {
+        for (AcceptableCodePoints codePoints : this.codePointsList) {
+            if (codePoints.contains(codePoint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.fullhalf;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The result of {@link FullHalfConverter#toFullwidthAndCheck(String, AcceptableCodePoints...)} and
+ * {@link FullHalfConverter#toHalfwidthAndCheck(String, AcceptableCodePoints...)}. It holds the converted string and the code
+ * points in it which are not accepted.
+ * @since 5.5.0
+ */
+public final class FullHalfConversionResult {
+    /**
+     * shows no code point is found in the converted string which is not accepted.
+     */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    /**
+     * converted string
+     */
+    private final String value;
+
+    /**
+     * code points in the converted string which are not accepted (in order of appearance)
+     */
+    private final Set<Integer> excludedCodePoints;
+
+    /**
+     * Constructor.
+     * @param value converted string
+     * @param excludedCodePoints code points in the converted string which are not accepted (in order of appearance)
+     */
+    FullHalfConversionResult(String value, Set<Integer> excludedCodePoints) {
+        this.value = value;
+        this.excludedCodePoints = Collections.unmodifiableSet(
+                excludedCodePoints);
+    }
+
+    /**
+     * returns the converted string
+     * @return the converted string
+     */
+    public String value() {
+        return this.value;
+    }
+
+    /**
+     * returns whether all code points in the converted string are accepted
+     * @return {@code true} if all code points in the converted string are accepted. Otherwise {@code false} is returned.
+     */
+    public boolean isValid() {
+        return this.excludedCodePoints.isEmpty();
+    }
+
+    /**
+     * returns the first code point in the converted string which is not accepted
+     * @return first code point in the converted string which is not accepted. {@link #NOT_FOUND} is returned if all code
+     *         points in the converted string are accepted.
+     */
+    public int firstExcludedCodePoint() {
+        return isValid() ? NOT_FOUND
+                : this.excludedCodePoints.iterator().next();
+    }
+
+    /**
+     * returns set of code points in the converted string which are not accepted
+     * @return set of code points in the converted string which are not accepted (in order of appearance). an empty set is
+     *         returned if all code points in the converted string are accepted.
+     */
+    public Set<Integer> allExcludedCodePoints() {
+        return this.excludedCodePoints;
+    }
+}
@@ -15,7 +15,13 @@
  */
 package org.terasoluna.gfw.common.fullhalf;
 
-import java.util.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Convert which converts from fullwidth to halfwidth and from halfwidth to fullwidth. This implementation does not have the
@@ -31,18 +37,45 @@ import java.util.*;
  * If the halfwidth or fullwidth in the given pair is already registered, the former is preferred. Note that it cannot be
  * overridden.
  * </p>
+ * <p>
+ * The given pairs are compiled into char lookup tables when constructed, so that conversion is done in a single pass over
+ * the chars of the given string without creating intermediate strings.
+ * </p>
+ * <p>
+ * Large inputs can be converted with constant memory by the {@link Reader}/{@link Writer} and {@link CharBuffer} variants.
+ * </p>
  * @since 5.1.0
  */
 public final class FullHalfConverter {
     /**
-     * map to convert from fullwidth char
+     * table to convert from fullwidth char
+     */
+    private final CharTable fullwidthTable;
+
+    /**
+     * halfwidth strings of 2 chars (e.g. "ｶﾞ") referred from {@link #fullwidthTable}
      */
-    private final Map<String, FullHalfPair> fullwidthMap;
+    private final char[][] multiCharHalfwidths;
 
     /**
-     * map to convert from halfwidth char
+     * table to convert from halfwidth char
      */
-    private final Map<String, FullHalfPair> halfwidthMap;
+    private final CharTable halfwidthTable;
+
+    /**
+     * sorted keys of halfwidth strings of 2 chars. the key is {@code (first char << 16) | second char}.
+     */
+    private final int[] multiCharHalfwidthKeys;
+
+    /**
+     * fullwidth chars for {@link #multiCharHalfwidthKeys} (same order)
+     */
+    private final char[] multiCharHalfwidthValues;
+
+    /**
+     * size of the buffers used to convert from {@link Reader} to {@link Writer}
+     */
+    private static final int STREAM_BUFFER_SIZE = 8192;
 
     /**
      * predicates if the given character is appendable like 'ﾞ' or 'ﾟ'.
@@ -60,20 +93,57 @@ public final class FullHalfConverter {
         if (pairs == null) {
             throw new IllegalArgumentException("pairs must not be null.");
         }
-        Set<FullHalfPair> pairSet = pairs.pairs();
-        Map<String, FullHalfPair> f = new HashMap<String, FullHalfPair>();
-        Map<String, FullHalfPair> h = new HashMap<String, FullHalfPair>();
-        for (FullHalfPair pair : pairSet) {
+        CharTable f = new CharTable();
+        CharTable h = new CharTable();
+        Map<String, Integer> multiCharHalfwidthIndexes = new LinkedHashMap<String, Integer>();
+        Map<Integer, Character> multiCharFullwidthMap = new LinkedHashMap<Integer, Character>();
+        for (FullHalfPair pair : pairs.pairs()) {
+            char fullwidth = pair.fullwidth().charAt(0);
+            String halfwidth = pair.halfwidth();
             // first definition is prior
-            if (!f.containsKey(pair.fullwidth())) {
-                f.put(pair.fullwidth(), pair);
+            if (!f.contains(fullwidth)) {
+                if (halfwidth.length() == 1) {
+                    f.put(fullwidth, halfwidth.charAt(0));
+                } else {
+                    Integer index = multiCharHalfwidthIndexes.get(halfwidth);
+                    if (index == null) {
+                        index = multiCharHalfwidthIndexes.size();
+                        multiCharHalfwidthIndexes.put(halfwidth, index);
+                    }
+                    f.put(fullwidth, CharTable.MULTI_CHAR_FLAG | index);
+                }
             }
-            if (!h.containsKey(pair.halfwidth())) {
-                h.put(pair.halfwidth(), pair);
+            if (halfwidth.length() == 1) {
+                if (!h.contains(halfwidth.charAt(0))) {
+                    h.put(halfwidth.charAt(0), fullwidth);
+                }
+            } else {
+                Integer key = multiCharKey(halfwidth.charAt(0), halfwidth
+                        .charAt(1));
+                if (!multiCharFullwidthMap.containsKey(key)) {
+                    multiCharFullwidthMap.put(key, fullwidth);
+                }
             }
         }
-        this.fullwidthMap = Collections.unmodifiableMap(f);
-        this.halfwidthMap = Collections.unmodifiableMap(h);
+        this.fullwidthTable = f;
+        this.multiCharHalfwidths = new char[multiCharHalfwidthIndexes.size()][];
+        for (Map.Entry<String, Integer> e : multiCharHalfwidthIndexes
+                .entrySet()) {
+            this.multiCharHalfwidths[e.getValue()] = e.getKey().toCharArray();
+        }
+        this.halfwidthTable = h;
+        int[] keys = new int[multiCharFullwidthMap.size()];
+        int i = 0;
+        for (Integer key : multiCharFullwidthMap.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        char[] values = new char[keys.length];
+        for (i = 0; i < keys.length; i++) {
+            values[i] = multiCharFullwidthMap.get(keys[i]);
+        }
+        this.multiCharHalfwidthKeys = keys;
+        this.multiCharHalfwidthValues = values;
         this.predicate = pairs.predicate();
     }
 
@@ -83,15 +153,65 @@ public final class FullHalfConverter {
      * @return converted string. if the given string is null or empty, returns as it is.
      */
     public String toHalfwidth(String fullwidth) {
+        return toHalfwidth(fullwidth, null);
+    }
+
+    /**
+     * Converts from fullwidth to halfwidth as much as possible with the given mapping table, and checks whether all code points
+     * in the converted string are included in any of the given code points list.
+     * <p>
+     * The result is the same as {@link #toHalfwidth(String)} followed by the check of the converted string, but both are done
+     * in one pass without creating an intermediate string.
+     * </p>
+     * @param fullwidth string to convert
+     * @param codePointsList code points list to check. a code point is regarded as valid if it is included in any of them.
+     * @return converted string and result of the check. if the given string is null or empty, the string is returned as it is
+     *         and regarded as valid.
+     * @since 5.5.0
+     */
+    public FullHalfConversionResult toHalfwidthAndCheck(String fullwidth,
+            AcceptableCodePoints... codePointsList) {
+        CodePointsChecker checker = new CodePointsChecker(codePointsList);
+        return checker.result(toHalfwidth(fullwidth, checker));
+    }
+
+    /**
+     * Converts from fullwidth to halfwidth as much as possible with the given mapping table.
+     * @param fullwidth string to convert
+     * @param checker checker of converted chars. {@code null} if not checked.
+     * @return converted string. if the given string is null or empty, returns as it is.
+     */
+    private String toHalfwidth(String fullwidth, CodePointsChecker checker) {
         if (fullwidth == null || fullwidth.isEmpty()) {
             return fullwidth;
         }
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < fullwidth.length(); i++) {
-            String s = String.valueOf(fullwidth.charAt(i));
-            builder.append(halfwidth(s));
+        int length = fullwidth.length();
+        char[] converted = new char[length * 2];
+        int pos = 0;
+        boolean changed = false;
+        for (int i = 0; i < length; i++) {
+            char c = fullwidth.charAt(i);
+            int value = fullwidthTable.get(c);
+            if (value == CharTable.NOT_FOUND) {
+                converted[pos++] = c;
+            } else if ((value & CharTable.MULTI_CHAR_FLAG) != 0) {
+                char[] halfwidth = multiCharHalfwidths[value
+                        & ~CharTable.MULTI_CHAR_FLAG];
+                converted[pos++] = halfwidth[0];
+                converted[pos++] = halfwidth[1];
+                changed = true;
+            } else {
+                converted[pos++] = (char) value;
+                changed |= value != c;
+            }
+            if (checker != null) {
+                checker.check(converted, pos, false);
+            }
+        }
+        if (checker != null) {
+            checker.check(converted, pos, true);
         }
-        return builder.toString();
+        return changed ? new String(converted, 0, pos) : fullwidth;
     }
 
     /**
@@ -100,72 +220,313 @@ public final class FullHalfConverter {
      * @return converted string. if the given string is null or empty, returns as it is.
      */
     public String toFullwidth(String halfwidth) {
+        return toFullwidth(halfwidth, null);
+    }
+
+    /**
+     * Converts from halfwidth to fullwidth as much as possible with the given mapping table, and checks whether all code points
+     * in the converted string are included in any of the given code points list.
+     * <p>
+     * The result is the same as {@link #toFullwidth(String)} followed by the check of the converted string, but both are done
+     * in one pass without creating an intermediate string.
+     * </p>
+     * @param halfwidth string to convert
+     * @param codePointsList code points list to check. a code point is regarded as valid if it is included in any of them.
+     * @return converted string and result of the check. if the given string is null or empty, the string is returned as it is
+     *         and regarded as valid.
+     * @since 5.5.0
+     */
+    public FullHalfConversionResult toFullwidthAndCheck(String halfwidth,
+            AcceptableCodePoints... codePointsList) {
+        CodePointsChecker checker = new CodePointsChecker(codePointsList);
+        return checker.result(toFullwidth(halfwidth, checker));
+    }
+
+    /**
+     * Converts from halfwidth to fullwidth as much as possible with the given mapping table.
+     * @param halfwidth string to convert
+     * @param checker checker of converted chars. {@code null} if not checked.
+     * @return converted string. if the given string is null or empty, returns as it is.
+     */
+    private String toFullwidth(String halfwidth, CodePointsChecker checker) {
         if (halfwidth == null || halfwidth.isEmpty()) {
             return halfwidth;
         }
-        StringBuilder builder = new StringBuilder();
-        Queue<String> buffer = new LinkedList<String>(); // use queue as 1 element buffer
+        int length = halfwidth.length();
+        char[] converted = new char[length];
+        int pos = 0;
+        // 1 char buffer
+        boolean buffered = false;
+        char prev = 0;
 
-        for (int i = 0; i < halfwidth.length(); i++) {
+        for (int i = 0; i < length; i++) {
             char c = halfwidth.charAt(i);
-            String s = String.valueOf(c);
             // next loop when the buffer is empty
-            if (buffer.isEmpty()) {
-                buffer.add(s);
+            if (!buffered) {
+                prev = c;
+                buffered = true;
                 continue;
             }
-            // poll the previous string from buffer
-            String prev = buffer.poll();
             // check if the target character is appendable
             if (predicate.isAppendable(c)) {
-                // check if "previous string"+"appendable char" is contained in the mapping table
-                FullHalfPair pair = this.halfwidthMap.get(prev + s);
-                if (pair != null) {
-                    // append the concatenated string
-                    builder.append(pair.fullwidth());
+                // check if "previous char"+"appendable char" is contained in the mapping table
+                int index = Arrays.binarySearch(multiCharHalfwidthKeys,
+                        multiCharKey(prev, c));
+                if (index >= 0) {
+                    // append the concatenated char
+                    converted[pos++] = multiCharHalfwidthValues[index];
+                } else {
+                    // append fullwidth of the previous char and current char
+                    converted[pos++] = fullwidth(prev);
+                    converted[pos++] = fullwidth(c);
+                }
+                buffered = false;
+            } else {
+                // append fullwidth of the previous char and put current char into the buffer
+                converted[pos++] = fullwidth(prev);
+                prev = c;
+            }
+            if (checker != null) {
+                checker.check(converted, pos, false);
+            }
+        }
+        // append the char in the buffer if exists
+        if (buffered) {
+            converted[pos++] = fullwidth(prev);
+        }
+        if (checker != null) {
+            checker.check(converted, pos, true);
+        }
+        return new String(converted, 0, pos);
+    }
+
+    /**
+     * Converts from fullwidth to halfwidth as much as possible, from the given buffer into the given buffer.
+     * <p>
+     * The chars are read from {@code in} and the converted chars are written to {@code out} as many as possible. The
+     * conversion stops when {@code in} has no remaining chars or {@code out} has no room for the next converted chars. The
+     * positions of both buffers are advanced.
+     * </p>
+     * @param in buffer to convert
+     * @param out buffer to write converted chars. should have room for at least 2 chars.
+     * @since 5.5.0
+     */
+    public void toHalfwidth(CharBuffer in, CharBuffer out) {
+        int pos = in.position();
+        int limit = in.limit();
+        while (pos < limit) {
+            char c = in.get(pos);
+            int value = fullwidthTable.get(c);
+            if (value != CharTable.NOT_FOUND && (value
+                    & CharTable.MULTI_CHAR_FLAG) != 0) {
+                if (out.remaining() < 2) {
+                    break;
+                }
+                char[] halfwidth = multiCharHalfwidths[value
+                        & ~CharTable.MULTI_CHAR_FLAG];
+                out.put(halfwidth[0]).put(halfwidth[1]);
+            } else {
+                if (!out.hasRemaining()) {
+                    break;
+                }
+                out.put(value == CharTable.NOT_FOUND ? c : (char) value);
+            }
+            pos++;
+        }
+        in.position(pos);
+    }
+
+    /**
+     * Converts from halfwidth to fullwidth as much as possible, from the given buffer into the given buffer.
+     * <p>
+     * The chars are read from {@code in} and the converted chars are written to {@code out} as many as possible. The
+     * conversion stops when {@code in} has no remaining chars or {@code out} has no room for the next converted chars. The
+     * positions of both buffers are advanced.
+     * </p>
+     * <p>
+     * Unless {@code endOfInput} is {@code true}, the last char of {@code in} is left unread because it may be combined with an
+     * appendable char (like 'ﾞ' or 'ﾟ') that comes in the next buffer. Compact {@code in}, fill it and call this method again.
+     * The result is the same as {@link #toFullwidth(String)} for the concatenated input, regardless of how it is split.
+     * </p>
+     * @param in buffer to convert
+     * @param out buffer to write converted chars. should have room for at least 2 chars.
+     * @param endOfInput {@code true} if no more input will be given after {@code in}
+     * @since 5.5.0
+     */
+    public void toFullwidth(CharBuffer in, CharBuffer out, boolean endOfInput) {
+        int pos = in.position();
+        int limit = in.limit();
+        while (pos < limit) {
+            char prev = in.get(pos);
+            if (pos + 1 == limit) {
+                // the next char is unknown yet
+                if (endOfInput && out.hasRemaining()) {
+                    out.put(fullwidth(prev));
+                    pos++;
+                }
+                break;
+            }
+            char c = in.get(pos + 1);
+            if (predicate.isAppendable(c)) {
+                int index = Arrays.binarySearch(multiCharHalfwidthKeys,
+                        multiCharKey(prev, c));
+                if (index >= 0) {
+                    if (!out.hasRemaining()) {
+                        break;
+                    }
+                    out.put(multiCharHalfwidthValues[index]);
                 } else {
-                    // append fullwidth of the previous string and current string
-                    builder.append(fullwidth(prev));
-                    builder.append(fullwidth(s));
+                    if (out.remaining() < 2) {
+                        break;
+                    }
+                    out.put(fullwidth(prev)).put(fullwidth(c));
                 }
+                pos += 2;
             } else {
-                // append fullwidth of the previous string and put current string into the buffer
-                builder.append(fullwidth(prev));
-                buffer.add(s);
+                if (!out.hasRemaining()) {
+                    break;
+                }
+                out.put(fullwidth(prev));
+                pos++;
             }
         }
-        // append the string in the buffer if exists
-        if (!buffer.isEmpty()) {
-            builder.append(fullwidth(buffer.poll()));
+        in.position(pos);
+    }
+
+    /**
+     * Converts from fullwidth to halfwidth as much as possible, from the given reader into the given writer.
+     * <p>
+     * The reader is read until the end of stream with fixed size buffers. Neither the reader nor the writer is closed.
+     * </p>
+     * @param reader reader to convert
+     * @param writer writer to write converted chars
+     * @throws IOException if an I/O error occurs
+     * @since 5.5.0
+     */
+    public void toHalfwidth(Reader reader, Writer writer) throws IOException {
+        convert(reader, writer, true);
+    }
+
+    /**
+     * Converts from halfwidth to fullwidth as much as possible, from the given reader into the given writer.
+     * <p>
+     * The reader is read until the end of stream with fixed size buffers. A char and an appendable char (like 'ﾞ' or 'ﾟ') are
+     * combined even if they are read by different reads. Neither the reader nor the writer is closed.
+     * </p>
+     * @param reader reader to convert
+     * @param writer writer to write converted chars
+     * @throws IOException if an I/O error occurs
+     * @since 5.5.0
+     */
+    public void toFullwidth(Reader reader, Writer writer) throws IOException {
+        convert(reader, writer, false);
+    }
+
+    /**
+     * Converts from the given reader into the given writer.
+     * @param reader reader to convert
+     * @param writer writer to write converted chars
+     * @param toHalfwidth {@code true} to convert to halfwidth. {@code false} to convert to fullwidth.
+     * @throws IOException if an I/O error occurs
+     */
+    private void convert(Reader reader, Writer writer,
+            boolean toHalfwidth) throws IOException {
+        CharBuffer in = CharBuffer.allocate(STREAM_BUFFER_SIZE);
+        CharBuffer out = CharBuffer.allocate(STREAM_BUFFER_SIZE);
+        boolean endOfInput = false;
+        boolean completed = false;
+        while (!completed) {
+            if (!endOfInput) {
+                endOfInput = reader.read(in) < 0;
+            }
+            in.flip();
+            if (toHalfwidth) {
+                toHalfwidth(in, out);
+            } else {
+                toFullwidth(in, out, endOfInput);
+            }
+            writer.write(out.array(), 0, out.position());
+            out.clear();
+            completed = endOfInput && !in.hasRemaining();
+            in.compact();
         }
-        return builder.toString();
     }
 
     /**
-     * Returns fullwidth string if the given halfwidth string exists in the pairs
-     * @param s halfwidth
+     * Returns fullwidth char if the given halfwidth char exists in the pairs
+     * @param c halfwidth
      * @return fullwidth for the given halfwidth
      */
-    private String fullwidth(String s) {
-        FullHalfPair pair = this.halfwidthMap.get(s);
-        if (pair != null) {
-            return pair.fullwidth();
-        } else {
-            return s;
-        }
+    private char fullwidth(char c) {
+        int value = halfwidthTable.get(c);
+        return value == CharTable.NOT_FOUND ? c : (char) value;
     }
 
     /**
-     * Returns halfwidth string if the given fullwidth string exists in the pairs
-     * @param s fullwidth
-     * @return halfwidth for the given fullwidth
+     * Returns the key of halfwidth string of 2 chars.
+     * @param first first char
+     * @param second second char
+     * @return key of halfwidth string
      */
-    private String halfwidth(String s) {
-        FullHalfPair pair = this.fullwidthMap.get(s);
-        if (pair != null) {
-            return pair.halfwidth();
-        } else {
-            return s;
+    private static int multiCharKey(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    /**
+     * Lookup table from char to int value.
+     * <p>
+     * The table is divided into pages of 256 chars, and only the pages that have values are allocated.
+     * </p>
+     */
+    private static final class CharTable {
+
+        /**
+         * value returned if the char is not registered
+         */
+        private static final int NOT_FOUND = -1;
+
+        /**
+         * flag of value that represents an index of multi chars
+         */
+        private static final int MULTI_CHAR_FLAG = 0x10000;
+
+        /**
+         * pages of values
+         */
+        private final int[][] pages = new int[256][];
+
+        /**
+         * Returns whether the given char is registered.
+         * @param c char
+         * @return whether the given char is registered
+         */
+        private boolean contains(char c) {
+            return get(c) != NOT_FOUND;
+        }
+
+        /**
+         * Returns the value of the given char.
+         * @param c char
+         * @return the value, or {@link #NOT_FOUND} if the char is not registered
+         */
+        private int get(char c) {
+            int[] page = pages[c >>> 8];
+            return page == null ? NOT_FOUND : page[c & 0xFF];
+        }
+
+        /**
+         * Registers the value of the given char.
+         * @param c char
+         * @param value value
+         */
+        private void put(char c, int value) {
+            int[] page = pages[c >>> 8];
+            if (page == null) {
+                page = new int[256];
+                Arrays.fill(page, NOT_FOUND);
+                pages[c >>> 8] = page;
+            }
+            page[c & 0xFF] = value;
         }
     }
 }
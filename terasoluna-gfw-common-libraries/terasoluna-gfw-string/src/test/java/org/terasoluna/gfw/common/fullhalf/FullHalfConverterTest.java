@@ -18,6 +18,12 @@ package org.terasoluna.gfw.common.fullhalf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -52,6 +58,26 @@ public class FullHalfConverterTest {
         assertThat(converter.toFullwidth("-—ｰ"), is("‐‐‐"));
     }
 
+    @Test
+    public void multiCharHalfwidth_firstDefinitionIsPrior() {
+        FullHalfConverter converter = new FullHalfConverter(new FullHalfPairsBuilder()
+                .pair("ガ", "ｶﾞ").pair("ガ", "ｶ").pair("カ", "ｶ").pair("ヵ", "ｶﾞ")
+                .pair("゛", "ﾞ").build());
+
+        assertThat(converter.toHalfwidth("ガカヵ゛x"), is("ｶﾞｶｶﾞﾞx"));
+        assertThat(converter.toFullwidth("ｶﾞｶｶﾞﾞx"), is("ガガガ゛x"));
+        assertThat(converter.toFullwidth("ﾞｶﾞﾞﾞｶ"), is("゛ガ゛゛ガ"));
+    }
+
+    @Test
+    public void notConverted_returnsSameString() {
+        FullHalfConverter converter = new FullHalfConverter(new FullHalfPairsBuilder()
+                .pair("Ａ", "A").build());
+
+        assertThat(converter.toHalfwidth("ABC"), is("ABC"));
+        assertThat(converter.toFullwidth("ＡＢＣ"), is("ＡＢＣ"));
+    }
+
     @Test
     public void testWithCustomAppenadablePredicate() {
         FullHalfConverter converter = new FullHalfConverter(new FullHalfPairsBuilder()
@@ -66,10 +92,154 @@ public class FullHalfConverterTest {
         assertThat(converter.toFullwidth("ﾊﾟ"), is("ハ゜"));
     }
 
+    @Test
+    public void testReaderWriter() throws IOException {
+        String halfwidth = "ｱｲｳｴｵｶﾞｷﾞｸﾞﾊﾟﾋﾟﾌﾟﾞﾟABC123 ｳﾞﾜﾞ";
+        String fullwidth = DefaultFullHalf.INSTANCE.toFullwidth(halfwidth);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            large.append(halfwidth);
+        }
+
+        StringWriter writer = new StringWriter();
+        DefaultFullHalf.INSTANCE.toFullwidth(new StringReader(large.toString()),
+                writer);
+        assertThat(writer.toString(), is(DefaultFullHalf.INSTANCE.toFullwidth(
+                large.toString())));
+
+        writer = new StringWriter();
+        DefaultFullHalf.INSTANCE.toFullwidth(new OneCharReader(halfwidth),
+                writer);
+        assertThat(writer.toString(), is(fullwidth));
+
+        writer = new StringWriter();
+        DefaultFullHalf.INSTANCE.toHalfwidth(new OneCharReader(fullwidth),
+                writer);
+        assertThat(writer.toString(), is(DefaultFullHalf.INSTANCE.toHalfwidth(
+                fullwidth)));
+    }
+
+    @Test
+    public void testCharBufferSplitAtAnyPosition() {
+        String halfwidth = "ﾞｶﾞｶﾟﾊﾟﾟﾞﾞx";
+        String expected = DefaultFullHalf.INSTANCE.toFullwidth(halfwidth);
+        for (int split = 0; split <= halfwidth.length(); split++) {
+            CharBuffer out = CharBuffer.allocate(2);
+            StringBuilder result = new StringBuilder();
+            CharBuffer in = CharBuffer.allocate(halfwidth.length());
+            in.put(halfwidth, 0, split).flip();
+            while (in.hasRemaining()) {
+                DefaultFullHalf.INSTANCE.toFullwidth(in, out, false);
+                result.append(out.flip());
+                out.clear();
+                if (in.remaining() == 1) {
+                    break;
+                }
+            }
+            in.compact().put(halfwidth, split, halfwidth.length()).flip();
+            while (in.hasRemaining()) {
+                DefaultFullHalf.INSTANCE.toFullwidth(in, out, true);
+                result.append(out.flip());
+                out.clear();
+            }
+            assertThat("split=" + split, result.toString(), is(expected));
+        }
+    }
+
+    @Test
+    public void testToHalfwidthCharBufferStopsWhenOutIsFull() {
+        CharBuffer in = CharBuffer.wrap("ガガ");
+        CharBuffer out = CharBuffer.allocate(3);
+
+        DefaultFullHalf.INSTANCE.toHalfwidth(in, out);
+
+        assertThat(in.position(), is(1));
+        assertThat(out.flip().toString(), is("ｶﾞ"));
+    }
+
+    @Test
+    public void testToFullwidthAndCheck() {
+        AcceptableCodePoints katakana = new AcceptableCodePoints() {
+            @Override
+            public boolean contains(int codePoint) {
+                return codePoint >= 'ァ' && codePoint <= 'ヶ';
+            }
+        };
+        AcceptableCodePoints latin = new AcceptableCodePoints() {
+            @Override
+            public boolean contains(int codePoint) {
+                return codePoint >= 'Ａ' && codePoint <= 'Ｚ';
+            }
+        };
+
+        FullHalfConversionResult result = DefaultFullHalf.INSTANCE
+                .toFullwidthAndCheck("ｶﾞABC", katakana, latin);
+        assertThat(result.value(), is("ガＡＢＣ"));
+        assertThat(result.isValid(), is(true));
+        assertThat(result.firstExcludedCodePoint(), is(
+                FullHalfConversionResult.NOT_FOUND));
+
+        result = DefaultFullHalf.INSTANCE.toFullwidthAndCheck("ｱ1ｲ𠮷ｳ1",
+                katakana);
+        assertThat(result.value(), is(DefaultFullHalf.INSTANCE.toFullwidth(
+                "ｱ1ｲ𠮷ｳ1")));
+        assertThat(result.isValid(), is(false));
+        assertThat(result.firstExcludedCodePoint(), is((int) '１'));
+        assertThat(result.allExcludedCodePoints().toArray(), is(new Object[] {
+                (int) '１', 0x20BB7 }));
+    }
+
+    @Test
+    public void testToHalfwidthAndCheck() {
+        AcceptableCodePoints halfwidthKatakana = new AcceptableCodePoints() {
+            @Override
+            public boolean contains(int codePoint) {
+                return codePoint >= 'ｦ' && codePoint <= 'ﾟ';
+            }
+        };
+
+        FullHalfConversionResult result = DefaultFullHalf.INSTANCE
+                .toHalfwidthAndCheck("ガギ", halfwidthKatakana);
+        assertThat(result.value(), is("ｶﾞｷﾞ"));
+        assertThat(result.isValid(), is(true));
+
+        result = DefaultFullHalf.INSTANCE.toHalfwidthAndCheck("ガ漢",
+                halfwidthKatakana);
+        assertThat(result.value(), is("ｶﾞ漢"));
+        assertThat(result.firstExcludedCodePoint(), is((int) '漢'));
+
+        result = DefaultFullHalf.INSTANCE.toHalfwidthAndCheck(null,
+                halfwidthKatakana);
+        assertThat(result.value(), is((String) null));
+        assertThat(result.isValid(), is(true));
+    }
+
     @Test
     public void testNull() {
         expectedException.expect(IllegalArgumentException.class);
         expectedException.expectMessage("pairs must not be null.");
         new FullHalfConverter(null);
     }
+
+    /**
+     * Reader that returns only one char per read.
+     */
+    private static class OneCharReader extends Reader {
+
+        private final StringReader reader;
+
+        OneCharReader(String s) {
+            this.reader = new StringReader(s);
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return reader.read(cbuf, off, Math.min(len, 1));
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+        }
+    }
 }
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.validator.constraintvalidators;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Calculator of the byte length of a {@link CharSequence} encoded in a charset.
+ * <p>
+ * The result is the same as {@code value.toString().getBytes(charset).length}, but the encoded byte array is not created.
+ * UTF-8, UTF-16, UTF-16BE, UTF-16LE, US-ASCII and ISO-8859-1 are calculated by walking the chars once. Other charsets are
+ * encoded into a small scratch buffer by a pooled {@link CharsetEncoder}.
+ * </p>
+ * @since 5.5.0
+ */
+class ByteLengthCalculator {
+
+    /**
+     * Encoding rule of the charset.
+     */
+    private enum Rule {
+        /** UTF-8 */
+        UTF_8,
+        /** UTF-16 with byte order mark */
+        UTF_16,
+        /** UTF-16 without byte order mark */
+        UTF_16_NO_BOM,
+        /** single byte per code point */
+        SINGLE_BYTE,
+        /** encode by {@link CharsetEncoder} */
+        ENCODER
+    }
+
+    /**
+     * Size of the scratch buffers used by {@link CharsetEncoder}.
+     */
+    private static final int SCRATCH_SIZE = 256;
+
+    /**
+     * The charset used to calculate byte length.
+     */
+    private final Charset charset;
+
+    /**
+     * The encoding rule of the charset.
+     */
+    private final Rule rule;
+
+    /**
+     * Pool of reusable encoders and scratch buffers. Only used for {@link Rule#ENCODER}.
+     */
+    private final Queue<EncoderHolder> encoderHolders = new ConcurrentLinkedQueue<EncoderHolder>();
+
+    /**
+     * Constructor.
+     * @param charset the charset used to calculate byte length
+     */
+    ByteLengthCalculator(Charset charset) {
+        this.charset = charset;
+        String name = charset.name();
+        if ("UTF-8".equals(name)) {
+            this.rule = Rule.UTF_8;
+        } else if ("UTF-16".equals(name)) {
+            this.rule = Rule.UTF_16;
+        } else if ("UTF-16BE".equals(name) || "UTF-16LE".equals(name)) {
+            this.rule = Rule.UTF_16_NO_BOM;
+        } else if ("US-ASCII".equals(name) || "ISO-8859-1".equals(name)) {
+            this.rule = Rule.SINGLE_BYTE;
+        } else {
+            this.rule = Rule.ENCODER;
+        }
+    }
+
+    /**
+     * Calculate the byte length of the value.
+     * <p>
+     * The calculation stops as soon as the byte length exceeds {@code threshold}.
+     * </p>
+     * @param value value to calculate
+     * @param threshold threshold of the byte length
+     * @return the byte length if it is lower or equal to {@code threshold}. otherwise a value greater than
+     *         {@code threshold}.
+     */
+    long byteLength(CharSequence value, long threshold) {
+        int length = value.length();
+        if (length == 0) {
+            return 0;
+        }
+        switch (rule) {
+        case UTF_8:
+            return utf8Length(value, length, threshold);
+        case UTF_16:
+            return 2L + 2L * length;
+        case UTF_16_NO_BOM:
+            return 2L * length;
+        case SINGLE_BYTE:
+            return singleByteLength(value, length);
+        default:
+            return encodedLength(value, threshold);
+        }
+    }
+
+    /**
+     * Calculate the byte length in UTF-8.
+     * <p>
+     * Malformed surrogate is replaced by {@code '?'} (1 byte) as well as {@link String#getBytes(Charset)}.
+     * </p>
+     * @param value value to calculate
+     * @param length length of the value
+     * @param threshold threshold of the byte length
+     * @return the byte length, or a value greater than {@code threshold}
+     */
+    private static long utf8Length(CharSequence value, int length,
+            long threshold) {
+        long byteLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                byteLength += 1;
+            } else if (c < 0x800) {
+                byteLength += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                byteLength += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                byteLength += 1;
+            } else {
+                byteLength += 3;
+            }
+            if (byteLength > threshold) {
+                return byteLength;
+            }
+        }
+        return byteLength;
+    }
+
+    /**
+     * Calculate the byte length in single byte charsets.
+     * <p>
+     * A surrogate pair is replaced by one {@code '?'} as well as {@link String#getBytes(Charset)}.
+     * </p>
+     * @param value value to calculate
+     * @param length length of the value
+     * @return the byte length
+     */
+    private static long singleByteLength(CharSequence value, int length) {
+        long byteLength = length;
+        for (int i = 0; i < length - 1; i++) {
+            if (Character.isHighSurrogate(value.charAt(i)) && Character
+                    .isLowSurrogate(value.charAt(i + 1))) {
+                byteLength--;
+                i++;
+            }
+        }
+        return byteLength;
+    }
+
+    /**
+     * Calculate the byte length by encoding into the scratch buffer.
+     * @param value value to calculate
+     * @param threshold threshold of the byte length
+     * @return the byte length, or a value greater than {@code threshold}
+     */
+    private long encodedLength(CharSequence value, long threshold) {
+        EncoderHolder holder = encoderHolders.poll();
+        if (holder == null) {
+            holder = new EncoderHolder(charset);
+        }
+        try {
+            return encodedLength(value, threshold, holder);
+        } finally {
+            encoderHolders.offer(holder);
+        }
+    }
+
+    /**
+     * Calculate the byte length by encoding into the scratch buffer of the holder.
+     * @param value value to calculate
+     * @param threshold threshold of the byte length
+     * @param holder holder of encoder and scratch buffer
+     * @return the byte length, or a value greater than {@code threshold}
+     */
+    private static long encodedLength(CharSequence value, long threshold,
+            EncoderHolder holder) {
+        CharsetEncoder encoder = holder.encoder.reset();
+        ByteBuffer out = holder.scratch;
+        CharBuffer in = CharBuffer.wrap(value);
+        long byteLength = 0;
+        CoderResult result;
+        do {
+            out.clear();
+            result = encoder.encode(in, out, true);
+            byteLength += out.position();
+            if (byteLength > threshold) {
+                return byteLength;
+            }
+        } while (result.isOverflow());
+        do {
+            out.clear();
+            result = encoder.flush(out);
+            byteLength += out.position();
+        } while (result.isOverflow());
+        return byteLength;
+    }
+
+    /**
+     * Holder of reusable encoder and scratch buffer.
+     */
+    private static final class EncoderHolder {
+
+        /**
+         * encoder that replaces malformed and unmappable chars as well as {@link String#getBytes(Charset)}.
+         */
+        private final CharsetEncoder encoder;
+
+        /**
+         * scratch buffer to write encoded bytes.
+         */
+        private final ByteBuffer scratch = ByteBuffer.allocate(SCRATCH_SIZE);
+
+        /**
+         * Constructor.
+         * @param charset charset of the encoder
+         */
+        private EncoderHolder(Charset charset) {
+            this.encoder = charset.newEncoder().onMalformedInput(
+                    CodingErrorAction.REPLACE).onUnmappableCharacter(
+                            CodingErrorAction.REPLACE);
+        }
+    }
+}
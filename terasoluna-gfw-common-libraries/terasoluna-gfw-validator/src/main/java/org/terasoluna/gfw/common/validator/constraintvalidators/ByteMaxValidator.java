@@ -42,6 +42,11 @@ public class ByteMaxValidator implements
      */
     private Charset charset;
 
+    /**
+     * The calculator of byte length in the charset.
+     */
+    private ByteLengthCalculator byteLengthCalculator;
+
     /**
      * Byte length must be lower or equal to.
      */
@@ -57,6 +62,7 @@ public class ByteMaxValidator implements
     public void initialize(ByteMax constraintAnnotation) {
         try {
             charset = Charset.forName(constraintAnnotation.charset());
+            byteLengthCalculator = new ByteLengthCalculator(charset);
         } catch (IllegalArgumentException e) {
             throw reportFailedToInitialize(e);
         }
@@ -77,7 +83,7 @@ public class ByteMaxValidator implements
             return true;
         }
 
-        long byteLength = value.toString().getBytes(charset).length;
+        long byteLength = byteLengthCalculator.byteLength(value, max);
         return byteLength <= max;
     }
 }
@@ -15,9 +15,15 @@
  */
 package org.terasoluna.gfw.common.validator.constraintvalidators;
 
-import static org.terasoluna.gfw.common.validator.constraintvalidators.ConstraintValidatorsUtils.getPropertyValue;
+import static org.terasoluna.gfw.common.validator.constraintvalidators.ConstraintValidatorsUtils.getReadMethod;
+import static org.terasoluna.gfw.common.validator.constraintvalidators.ConstraintValidatorsUtils.invokeReadMethod;
+import static org.terasoluna.gfw.common.validator.constraintvalidators.ConstraintValidatorsUtils.isEmpty;
 import static org.terasoluna.gfw.common.validator.constraintvalidators.ConstraintValidatorsUtils.reportUnexpectedType;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
@@ -68,6 +74,11 @@ public class CompareValidator implements ConstraintValidator<Compare, Object> {
      */
     private String message;
 
+    /**
+     * Cache of read methods of {@code left} and {@code right} per bean class.
+     */
+    private final ConcurrentMap<Class<?>, PropertyAccessors> propertyAccessorsCache = new ConcurrentHashMap<Class<?>, PropertyAccessors>(4);
+
     /**
      * Initialize validator.
      * @param constraintAnnotation annotation instance for a given constraint declaration
@@ -93,8 +104,13 @@ public class CompareValidator implements ConstraintValidator<Compare, Object> {
      */
     @Override
     public boolean isValid(Object bean, ConstraintValidatorContext context) {
-        Object leftValue = getPropertyValue(bean, left);
-        Object rightValue = getPropertyValue(bean, right);
+        if (bean == null) {
+            return true;
+        }
+
+        PropertyAccessors accessors = getPropertyAccessors(bean.getClass());
+        Object leftValue = accessors.getLeftValue(bean);
+        Object rightValue = accessors.getRightValue(bean);
 
         if (leftValue == null || rightValue == null) {
             if (requireBoth && !(leftValue == null && rightValue == null)) {
@@ -117,6 +133,27 @@ public class CompareValidator implements ConstraintValidator<Compare, Object> {
         return true;
     }
 
+    /**
+     * Get read methods of {@code left} and {@code right} of the bean class.
+     * <p>
+     * Read methods are resolved at first use per bean class, and cached.
+     * </p>
+     * @param beanClass class of bean to validate
+     * @return read methods of {@code left} and {@code right}
+     */
+    private PropertyAccessors getPropertyAccessors(Class<?> beanClass) {
+        PropertyAccessors accessors = propertyAccessorsCache.get(beanClass);
+        if (accessors == null) {
+            accessors = new PropertyAccessors(beanClass, left, right);
+            PropertyAccessors existing = propertyAccessorsCache.putIfAbsent(
+                    beanClass, accessors);
+            if (existing != null) {
+                accessors = existing;
+            }
+        }
+        return accessors;
+    }
+
     /**
      * Assert left value and right value are able to {@code Comparable#compareTo()}.
      * @param leftValue value to become left side of comparison
@@ -159,4 +196,54 @@ public class CompareValidator implements ConstraintValidator<Compare, Object> {
                 left).addConstraintViolation()
                 .disableDefaultConstraintViolation();
     }
+
+    /**
+     * Read methods of {@code left} and {@code right} of a bean class.
+     */
+    private static final class PropertyAccessors {
+
+        /**
+         * Read method of {@code left}. {@code null} if name of {@code left} is empty.
+         */
+        private final Method leftGetter;
+
+        /**
+         * Read method of {@code right}. {@code null} if name of {@code right} is empty.
+         */
+        private final Method rightGetter;
+
+        /**
+         * Constructor.
+         * @param beanClass class of bean to validate
+         * @param left name of property to become left side of comparison
+         * @param right name of property to become right side of comparison
+         */
+        private PropertyAccessors(Class<?> beanClass, String left,
+                String right) {
+            this.leftGetter = isEmpty(left) ? null
+                    : getReadMethod(beanClass, left);
+            this.rightGetter = isEmpty(right) ? null
+                    : getReadMethod(beanClass, right);
+        }
+
+        /**
+         * Get value of {@code left}.
+         * @param bean bean to validate
+         * @return value of {@code left}
+         */
+        private Object getLeftValue(Object bean) {
+            return leftGetter == null ? null
+                    : invokeReadMethod(leftGetter, bean);
+        }
+
+        /**
+         * Get value of {@code right}.
+         * @param bean bean to validate
+         * @return value of {@code right}
+         */
+        private Object getRightValue(Object bean) {
+            return rightGetter == null ? null
+                    : invokeReadMethod(rightGetter, bean);
+        }
+    }
 }
@@ -71,10 +71,38 @@ class ConstraintValidatorsUtils {
             return null;
         }
 
+        return invokeReadMethod(getReadMethod(bean.getClass(), propertyName),
+                bean);
+    }
+
+    /**
+     * Get read method of property in bean class by name.
+     * <p>
+     * The returned method can be cached per bean class and used by {@link #invokeReadMethod(Method, Object)}.
+     * </p>
+     * @param beanClass bean class which holds a specified property
+     * @param propertyName property name
+     * @return read method of property
+     * @since 5.5.0
+     */
+    static Method getReadMethod(Class<?> beanClass, String propertyName) {
+        try {
+            PropertyDescriptor property = new PropertyDescriptor(propertyName, beanClass);
+            return property.getReadMethod();
+        } catch (Exception e) {
+            throw reportFailedToInitialize(e);
+        }
+    }
+
+    /**
+     * Get property value in bean by read method.
+     * @param getter read method of property
+     * @param bean bean which holds a property
+     * @return property value
+     * @since 5.5.0
+     */
+    static Object invokeReadMethod(Method getter, Object bean) {
         try {
-            PropertyDescriptor property = new PropertyDescriptor(propertyName, bean
-                    .getClass());
-            Method getter = property.getReadMethod();
             return getter.invoke(bean);
         } catch (Exception e) {
             throw reportFailedToInitialize(e);
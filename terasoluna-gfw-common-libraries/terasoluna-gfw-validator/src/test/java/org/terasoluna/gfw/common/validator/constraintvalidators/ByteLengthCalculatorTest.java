@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.validator.constraintvalidators;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ByteLengthCalculatorTest {
+
+    private static final String[] CHARSETS = { "UTF-8", "UTF-16", "UTF-16BE",
+            "UTF-16LE", "US-ASCII", "ISO-8859-1", "Shift_JIS", "Windows-31J",
+            "EUC-JP", "ISO-2022-JP", "UTF-32" };
+
+    private static final String[] VALUES = { "", "a", "abc", "あいう", "éè", "𠮟",
+            "a𠮟b", "\ud842", "\udf9f", "\udf9f\ud842", "a\ud842", "ｱｲ",
+            "あaいbうc" };
+
+    @Test
+    public void testByteLength() {
+        for (String charsetName : CHARSETS) {
+            Charset charset = Charset.forName(charsetName);
+            ByteLengthCalculator calculator = new ByteLengthCalculator(charset);
+            for (String value : VALUES) {
+                assertThat(charsetName + ":" + value, calculator.byteLength(
+                        value, Long.MAX_VALUE), is((long) value.getBytes(
+                                charset).length));
+                assertThat(charsetName + ":" + value, calculator.byteLength(
+                        new StringBuilder(value), Long.MAX_VALUE), is(
+                                (long) value.getBytes(charset).length));
+            }
+        }
+    }
+
+    @Test
+    public void testByteLengthRandom() {
+        Random random = new Random(0);
+        for (String charsetName : CHARSETS) {
+            Charset charset = Charset.forName(charsetName);
+            ByteLengthCalculator calculator = new ByteLengthCalculator(charset);
+            for (int i = 0; i < 200; i++) {
+                String value = randomString(random, random.nextInt(600));
+                assertThat(charsetName, calculator.byteLength(value,
+                        Long.MAX_VALUE), is((long) value.getBytes(
+                                charset).length));
+            }
+        }
+    }
+
+    @Test
+    public void testByteLengthExceedThreshold() {
+        String value = randomString(new Random(1), 4096);
+        for (String charsetName : CHARSETS) {
+            Charset charset = Charset.forName(charsetName);
+            ByteLengthCalculator calculator = new ByteLengthCalculator(charset);
+            long expected = value.getBytes(charset).length;
+
+            assertThat(charsetName, calculator.byteLength(value, expected), is(
+                    expected));
+            assertTrue(charsetName, calculator.byteLength(value, expected
+                    - 1) > expected - 1);
+            assertTrue(charsetName, calculator.byteLength(value, 10) > 10);
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(6)) {
+            case 0:
+                sb.append((char) random.nextInt(0x80));
+                break;
+            case 1:
+                sb.append((char) (0x80 + random.nextInt(0x780)));
+                break;
+            case 2:
+                sb.append((char) (0x3000 + random.nextInt(0x6000)));
+                break;
+            case 3:
+                sb.append(Character.toChars(0x20000 + random.nextInt(0x1000)));
+                break;
+            case 4:
+                sb.append((char) (0xd800 + random.nextInt(0x800)));
+                break;
+            default:
+                sb.append((char) (0xff61 + random.nextInt(0x3f)));
+                break;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -15,14 +15,18 @@
  */
 package org.terasoluna.gfw.common.validator.constraintvalidators;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 
+import java.beans.IntrospectionException;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 
 import org.junit.Test;
 
@@ -72,6 +76,34 @@ public class ConstraintValidatorsUtilsTest {
         assertThat(o, nullValue());
     }
 
+    @Test
+    public void testGetReadMethodAndInvokeReadMethod() throws Exception {
+        // set up
+        FooBean foo = new FooBean();
+        foo.setBar("test");
+
+        // test
+        Method getter = ConstraintValidatorsUtils.getReadMethod(FooBean.class,
+                "bar");
+        Object o = ConstraintValidatorsUtils.invokeReadMethod(getter, foo);
+
+        // assert
+        assertThat(getter.getName(), is("getBar"));
+        assertThat(o, is((Object) "test"));
+    }
+
+    @Test
+    public void testGetReadMethodUnknownProperty() throws Exception {
+        try {
+            // test
+            ConstraintValidatorsUtils.getReadMethod(FooBean.class, "baz");
+            fail("IllegalArgumentException is not thrown.");
+        } catch (IllegalArgumentException e) {
+            // assert
+            assertThat(e.getCause(), instanceOf(IntrospectionException.class));
+        }
+    }
+
     @Test
     public void testIsEmptyValueNull() throws Exception {
         // test
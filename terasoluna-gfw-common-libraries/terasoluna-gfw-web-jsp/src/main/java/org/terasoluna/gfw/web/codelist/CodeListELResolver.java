@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.codelist;
+
+import java.beans.FeatureDescriptor;
+import java.util.Iterator;
+
+import javax.el.ELContext;
+import javax.el.ELResolver;
+import javax.servlet.jsp.JspContext;
+import javax.servlet.jsp.PageContext;
+
+/**
+ * {@link ELResolver} to refer to the codelists exposed lazily by {@link CodeListInterceptor} by codelist ID.
+ * <p>
+ * If {@link CodeListInterceptor#setLazyExposure(boolean)} is set to {@code true}, the codelists are not set to the
+ * attributes of request by codelist ID. This resolver resolves the top level identifier (e.g. {@code CL_ORDER_STATUS} of
+ * <code>${CL_ORDER_STATUS[order.status]}</code>) from {@link CodeListAttributes} of the request, so that JSPs refer to the
+ * codelists as before. The attribute of the same name in page, request, session or application scope takes precedence
+ * over the codelist. Register this resolver by {@link CodeListELResolverListener}.
+ * </p>
+ * @since 5.5.0
+ */
+public class CodeListELResolver extends ELResolver {
+
+    /**
+     * Returns the map of the codelist if the property is codelist ID exposed by {@link CodeListInterceptor}.
+     * @see javax.el.ELResolver#getValue(javax.el.ELContext, java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Object getValue(ELContext context, Object base, Object property) {
+        if (base != null || !(property instanceof String)) {
+            return null;
+        }
+        Object jspContext = context.getContext(JspContext.class);
+        if (!(jspContext instanceof PageContext)) {
+            return null;
+        }
+        PageContext pageContext = (PageContext) jspContext;
+        Object attributes = pageContext.getRequest().getAttribute(
+                CodeListAttributes.ATTRIBUTE_NAME);
+        if (!(attributes instanceof CodeListAttributes)) {
+            return null;
+        }
+        String codeListId = (String) property;
+        CodeListAttributes codeListAttributes = (CodeListAttributes) attributes;
+        if (!codeListAttributes.containsKey(codeListId) || pageContext
+                .findAttribute(codeListId) != null) {
+            return null;
+        }
+        context.setPropertyResolved(true);
+        return codeListAttributes.get(codeListId);
+    }
+
+    /**
+     * Returns {@code null} and lets the following resolvers resolve the type.
+     * @see javax.el.ELResolver#getType(javax.el.ELContext, java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Class<?> getType(ELContext context, Object base, Object property) {
+        return null;
+    }
+
+    /**
+     * Does nothing and lets the following resolvers set the value.
+     * @see javax.el.ELResolver#setValue(javax.el.ELContext, java.lang.Object, java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void setValue(ELContext context, Object base, Object property,
+            Object value) {
+        // the value is set to the scoped attribute by the following resolvers
+    }
+
+    /**
+     * Returns {@code false} and lets the following resolvers determine.
+     * @see javax.el.ELResolver#isReadOnly(javax.el.ELContext, java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public boolean isReadOnly(ELContext context, Object base, Object property) {
+        return false;
+    }
+
+    /**
+     * Returns {@code null}.
+     * @see javax.el.ELResolver#getFeatureDescriptors(javax.el.ELContext, java.lang.Object)
+     */
+    @Override
+    public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context,
+            Object base) {
+        return null;
+    }
+
+    /**
+     * Returns {@link String} if base is {@code null}.
+     * @see javax.el.ELResolver#getCommonPropertyType(javax.el.ELContext, java.lang.Object)
+     */
+    @Override
+    public Class<?> getCommonPropertyType(ELContext context, Object base) {
+        if (base == null) {
+            return String.class;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.codelist;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.jsp.JspFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link ServletContextListener} to register {@link CodeListELResolver} to the JSP container.
+ * <p>
+ * Define this listener in web.xml as following. The resolver must be registered before the first request, so that it is
+ * registered at startup of the web application.
+ * </p>
+ *
+ * <pre>
+ * &lt;listener&gt;
+ *     &lt;listener-class&gt;org.terasoluna.gfw.web.codelist.CodeListELResolverListener&lt;/listener-class&gt;
+ * &lt;/listener&gt;
+ * </pre>
+ * @since 5.5.0
+ */
+public class CodeListELResolverListener implements ServletContextListener {
+
+    /**
+     * Registers {@link CodeListELResolver} to the JSP application context.
+     * @see javax.servlet.ServletContextListener#contextInitialized(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        JspFactory jspFactory = JspFactory.getDefaultFactory();
+        Assert.state(jspFactory != null, "JspFactory is not initialized.");
+        jspFactory.getJspApplicationContext(sce.getServletContext())
+                .addELResolver(new CodeListELResolver());
+    }
+
+    /**
+     * Does nothing.
+     * @see javax.servlet.ServletContextListener#contextDestroyed(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        // nothing to do
+    }
+
+}
@@ -177,6 +177,12 @@ public class MessagesPanelTag extends RequestContextAwareTag {
      */
     protected static final String DEFAULT_INNER_ELEMENT = "li";
 
+    /**
+     * default number of seconds to cache the resolved message text.
+     * @since 5.5.0
+     */
+    protected static final int DEFAULT_MESSAGE_CACHE_SECONDS = 10;
+
     /**
      * messages attribute name.
      */
@@ -217,6 +223,11 @@ public class MessagesPanelTag extends RequestContextAwareTag {
      */
     private boolean disableHtmlEscape;
 
+    /**
+     * number of seconds to cache the resolved message text.
+     */
+    private int messageCacheSeconds = DEFAULT_MESSAGE_CACHE_SECONDS;
+
     /**
      * Creates TagWriter
      * @return Created TagWriter
@@ -354,7 +365,9 @@ public class MessagesPanelTag extends RequestContextAwareTag {
             if (StringUtils.hasText(innerElement)) {
                 tagWriter.startTag(innerElement); // <li>
             }
-            if (disableHtmlEscape) {
+            if (message instanceof ResultMessage) {
+                tagWriter.appendValue(getCachedText((ResultMessage) message));
+            } else if (disableHtmlEscape) {
                 tagWriter.appendValue(getText(message));
             } else {
                 tagWriter.appendValue(HtmlEscapeUtils.htmlEscape(getText(
@@ -410,6 +423,43 @@ public class MessagesPanelTag extends RequestContextAwareTag {
         return text;
     }
 
+    /**
+     * Returns the String after the code set in {@code ResultMessage} undergoes messageSource conversion in line with the
+     * locale, and HTML-escaped unless {@link #disableHtmlEscape} is {@code true}.
+     * <p>
+     * The result is cached per {@code MessageSource} for {@link #messageCacheSeconds}, so that the same message is not
+     * resolved and escaped on every render.
+     * </p>
+     * @param resultMessage ResultMessage
+     * @return message text to write
+     */
+    private String getCachedText(ResultMessage resultMessage) {
+        Locale locale = getRequestContext().getLocale();
+        MessageSource messageSource = getRequestContext().getMessageSource();
+        boolean htmlEscape = !disableHtmlEscape;
+        ResolvedMessageCache cache = null;
+        String text = null;
+        if (messageCacheSeconds != 0) {
+            cache = ResolvedMessageCache.of(messageSource);
+            text = cache.get(resultMessage, locale, htmlEscape, messageSource);
+        }
+        if (text == null) {
+            text = ResultMessageUtils.resolveMessage(resultMessage,
+                    messageSource, locale);
+            if (text == null) {
+                return htmlEscape ? HtmlEscapeUtils.htmlEscape(text) : null;
+            }
+            if (htmlEscape) {
+                text = HtmlEscapeUtils.htmlEscape(text);
+            }
+            if (cache != null) {
+                cache.put(resultMessage, locale, htmlEscape, text,
+                        messageCacheSeconds * 1000L);
+            }
+        }
+        return text;
+    }
+
     /**
      * converts the parameter to String and returns it.
      * @param message message object
@@ -539,4 +589,20 @@ public class MessagesPanelTag extends RequestContextAwareTag {
                 "disableHtmlEscape");
     }
 
+    /**
+     * Sets the number of seconds to cache the resolved message text.
+     * <p>
+     * The semantics is the same as {@code cacheSeconds} of {@code ReloadableResourceBundleMessageSource}, so set the same
+     * value as the message source to reflect the reloaded messages. <br>
+     * A negative value caches the text until the {@code ApplicationContext} is refreshed, and {@code 0} disables caching.
+     * <br>
+     * By default, messageCacheSeconds is set to <code>10</code>.
+     * </p>
+     * @param messageCacheSeconds number of seconds to cache the resolved message text
+     * @since 5.5.0
+     */
+    public void setMessageCacheSeconds(int messageCacheSeconds) {
+        this.messageCacheSeconds = messageCacheSeconds;
+    }
+
 }
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.message;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.MessageSource;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+import org.springframework.util.ObjectUtils;
+import org.terasoluna.gfw.common.message.ResultMessage;
+
+/**
+ * Cache of the message text of {@link ResultMessage} resolved by {@link MessageSource} and HTML-escaped.
+ * <p>
+ * A cache is held per {@link MessageSource} and keyed by code, args, text of the message, locale and whether the text is
+ * HTML-escaped. Only the messages whose args are values (e.g. {@link String}, {@link Number} or {@link Enum}) are cached.
+ * The number of entries is bounded by {@link #MAX_ENTRIES} and the least recently used entry is evicted. The cache is
+ * cleared when the {@link ApplicationContext} is refreshed, and each entry expires after the max age given on caching
+ * so that the changes of the messages reloaded by {@code ReloadableResourceBundleMessageSource} are reflected.
+ * </p>
+ * @since 5.5.0
+ */
+class ResolvedMessageCache {
+
+    /**
+     * Max number of entries per {@link MessageSource}.
+     */
+    static final int MAX_ENTRIES = 1024;
+
+    /**
+     * Caches per {@link MessageSource}. The message source is weakly referenced.
+     */
+    private static final ConcurrentMap<MessageSource, ResolvedMessageCache> CACHES = new ConcurrentReferenceHashMap<MessageSource, ResolvedMessageCache>(16, ReferenceType.WEAK);
+
+    /**
+     * Entries in access order. Guarded by itself.
+     */
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Startup date of the {@link ApplicationContext} when the entries were cached. {@code 0} if the message source is not
+     * {@link ApplicationContext}. Guarded by {@link #entries}.
+     */
+    private long startupDate;
+
+    /**
+     * Default constructor.
+     */
+    ResolvedMessageCache() {
+    }
+
+    /**
+     * Returns the cache of the given message source.
+     * @param messageSource message source
+     * @return cache of the message source
+     */
+    static ResolvedMessageCache of(MessageSource messageSource) {
+        ResolvedMessageCache cache = CACHES.get(messageSource);
+        if (cache == null) {
+            cache = new ResolvedMessageCache();
+            ResolvedMessageCache existing = CACHES.putIfAbsent(messageSource,
+                    cache);
+            if (existing != null) {
+                cache = existing;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the cached text.
+     * @param message message
+     * @param locale locale
+     * @param htmlEscape whether the text is HTML-escaped
+     * @param messageSource message source of this cache
+     * @return cached text. {@code null} if not cached or expired.
+     */
+    String get(ResultMessage message, Locale locale, boolean htmlEscape,
+            MessageSource messageSource) {
+        long currentStartupDate = getStartupDate(messageSource);
+        Key key = new Key(message.getCode(), message.getArgs(), message
+                .getText(), locale, htmlEscape);
+        synchronized (entries) {
+            if (startupDate != currentStartupDate) {
+                // the application context was refreshed
+                entries.clear();
+                startupDate = currentStartupDate;
+                return null;
+            }
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (currentTimeMillis() >= entry.expiresMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.text;
+        }
+    }
+
+    /**
+     * Caches the text.
+     * <p>
+     * The text is not cached if the args of the message are not values.
+     * </p>
+     * @param message message
+     * @param locale locale
+     * @param htmlEscape whether the text is HTML-escaped
+     * @param text resolved text
+     * @param maxAgeMillis max age of the entry in milliseconds. A negative value means that the entry does not expire.
+     */
+    void put(ResultMessage message, Locale locale, boolean htmlEscape,
+            String text, long maxAgeMillis) {
+        Object[] args = message.getArgs();
+        if (!isCacheable(args)) {
+            return;
+        }
+        // copy the args so that the key is not changed by modifying the args of the original message
+        Key key = new Key(message.getCode(), args.clone(), message
+                .getText(), locale, htmlEscape);
+        long expiresMillis = maxAgeMillis < 0 ? Long.MAX_VALUE
+                : currentTimeMillis() + maxAgeMillis;
+        synchronized (entries) {
+            entries.put(key, new Entry(text, expiresMillis));
+        }
+    }
+
+    /**
+     * Returns the number of the cached entries.
+     * @return number of the cached entries
+     */
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns current time in milliseconds.
+     * @return current time in milliseconds
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Returns whether the args are values, so that equal args are rendered again with the same text.
+     * @param args args of the message
+     * @return {@code true} if all args are {@code null}, {@link String}, {@link Number}, {@link Boolean},
+     *         {@link Character} or {@link Enum}
+     */
+    private static boolean isCacheable(Object[] args) {
+        for (Object arg : args) {
+            if (arg != null && !(arg instanceof String || arg instanceof Number
+                    || arg instanceof Boolean || arg instanceof Character
+                    || arg instanceof Enum)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the startup date of the message source.
+     * @param messageSource message source
+     * @return startup date if the message source is {@link ApplicationContext}, otherwise {@code 0}
+     */
+    private static long getStartupDate(MessageSource messageSource) {
+        if (messageSource instanceof ApplicationContext) {
+            return ((ApplicationContext) messageSource).getStartupDate();
+        }
+        return 0;
+    }
+
+    /**
+     * Key of the cached text.
+     * <p>
+     * The key to look up refers the args of the message without copying them.
+     * </p>
+     */
+    private static final class Key {
+
+        /**
+         * Code of the message.
+         */
+        private final String code;
+
+        /**
+         * Args of the message.
+         */
+        private final Object[] args;
+
+        /**
+         * Text of the message.
+         */
+        private final String text;
+
+        /**
+         * Locale.
+         */
+        private final Locale locale;
+
+        /**
+         * Whether the text is HTML-escaped.
+         */
+        private final boolean htmlEscape;
+
+        /**
+         * Hash code.
+         */
+        private final int hash;
+
+        /**
+         * Constructor.
+         * @param code code of the message
+         * @param args args of the message
+         * @param text text of the message
+         * @param locale locale
+         * @param htmlEscape whether the text is HTML-escaped
+         */
+        private Key(String code, Object[] args, String text, Locale locale,
+                boolean htmlEscape) {
+            this.code = code;
+            this.args = args;
+            this.text = text;
+            this.locale = locale;
+            this.htmlEscape = htmlEscape;
+            int result = ObjectUtils.nullSafeHashCode(code);
+            result = 31 * result + Arrays.hashCode(args);
+            result = 31 * result + ObjectUtils.nullSafeHashCode(text);
+            result = 31 * result + locale.hashCode();
+            result = 31 * result + (htmlEscape ? 1 : 0);
+            this.hash = result;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && htmlEscape == other.htmlEscape
+                    && ObjectUtils.nullSafeEquals(code, other.code) && Arrays
+                            .equals(args, other.args) && ObjectUtils
+                                    .nullSafeEquals(text, other.text) && locale
+                                            .equals(other.locale);
+        }
+    }
+
+    /**
+     * Cached text.
+     */
+    private static final class Entry {
+
+        /**
+         * Resolved text.
+         */
+        private final String text;
+
+        /**
+         * Time when this entry expires.
+         */
+        private final long expiresMillis;
+
+        /**
+         * Constructor.
+         * @param text resolved text
+         * @param expiresMillis time when this entry expires
+         */
+        private Entry(String text, long expiresMillis) {
+            this.text = text;
+            this.expiresMillis = expiresMillis;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.io.ObjectOutputStream;
 import javax.servlet.jsp.JspException;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.tags.RequestContextAwareTag;
 import org.springframework.web.servlet.tags.form.TagWriter;
@@ -30,6 +31,13 @@ import org.terasoluna.gfw.web.util.JspTagUtils;
 
 /**
  * JSP tag that provides pagination functionality<br>
+ * <p>
+ * If {@link Page} is specified, links of first, previous, page numbers, next and last are rendered. If {@link Slice} (that
+ * is not {@link Page}) is specified, links of first, previous and next are rendered using {@link KeysetPaginationInfo}.
+ * In this case, the total count of elements is not required, and the cursor tokens specified by {@code previousCursor} and
+ * {@code nextCursor} are available as {@code {cursor}} query variable. If {@code queryTmpl} is not specified,
+ * {@link KeysetPaginationInfo#DEFAULT_QUERY_TEMPLATE} is used instead of {@link PaginationInfo#DEFAULT_QUERY_TEMPLATE}.
+ * </p>
  */
 public class PaginationTag extends RequestContextAwareTag {
 
@@ -48,6 +56,12 @@ public class PaginationTag extends RequestContextAwareTag {
      */
     private String queryTmpl = PaginationInfo.DEFAULT_QUERY_TEMPLATE;
 
+    /**
+     * Flag to indicate whether query template is specified explicitly
+     * @since 5.5.0
+     */
+    private boolean queryTmplSpecified;
+
     /**
      * Query of search criteria
      * @since 1.0.1
@@ -66,6 +80,18 @@ public class PaginationTag extends RequestContextAwareTag {
      */
     private boolean enableLinkOfCurrentPage;
 
+    /**
+     * Cursor token of the previous slice (for keyset pagination)
+     * @since 5.5.0
+     */
+    private String previousCursor;
+
+    /**
+     * Cursor token of the next slice (for keyset pagination)
+     * @since 5.5.0
+     */
+    private String nextCursor;
+
     /**
      * Maximum display count
      */
@@ -162,6 +188,23 @@ public class PaginationTag extends RequestContextAwareTag {
             }
             writeNextAndLastLink(tagWriter, info);
             endOuterElement(tagWriter);
+        } else if (page instanceof Slice) {
+            Slice<?> s = (Slice<?>) page;
+            String keysetQueryTmpl = queryTmplSpecified ? queryTmpl
+                    : KeysetPaginationInfo.DEFAULT_QUERY_TEMPLATE;
+            KeysetPaginationInfo info = new KeysetPaginationInfo(s,
+                    previousCursor, nextCursor, pathTmpl, keysetQueryTmpl,
+                    criteriaQuery, disableHtmlEscapeOfCriteriaQuery);
+            if (!s.hasContent() && info.isFirstPage()) {
+                return EVAL_BODY_INCLUDE;
+            }
+
+            TagWriter tagWriter = createTagWriter();
+
+            startOuterElement(tagWriter);
+            writeFirstAndPreviousLink(tagWriter, info);
+            writeNextLink(tagWriter, info);
+            endOuterElement(tagWriter);
         }
         return EVAL_BODY_INCLUDE;
     }
@@ -348,6 +391,65 @@ public class PaginationTag extends RequestContextAwareTag {
         }
     }
 
+    /**
+     * Renders link for going to the first slice and previous slice for keyset pagination.<br>
+     * @param tagWriter {@code TagWriter} instance that will render the content of the tag to JSP page
+     * @param info {@code KeysetPaginationInfo} instance the holds all the information required by the
+     *            {@code PaginationTag}
+     * @throws JspException If fail a tag writing
+     * @since 5.5.0
+     */
+    protected void writeFirstAndPreviousLink(TagWriter tagWriter,
+            KeysetPaginationInfo info) throws JspException {
+        boolean firstPage = info.isFirstPage();
+        if (StringUtils.hasText(firstLinkText)) {
+            writeLink(tagWriter, firstPage, info.getFirstUrl(), firstLinkText);
+        }
+        if (StringUtils.hasText(previousLinkText)) {
+            writeLink(tagWriter, firstPage, info.getPreviousUrl(),
+                    previousLinkText);
+        }
+    }
+
+    /**
+     * Renders link for going to the next slice for keyset pagination.<br>
+     * <p>
+     * Only whether the next slice exists is used; the link of last page is not rendered.
+     * </p>
+     * @param tagWriter {@code TagWriter} instance that will render the content of the tag to JSP page
+     * @param info {@code KeysetPaginationInfo} instance the holds all the information required by the
+     *            {@code PaginationTag}
+     * @throws JspException If fail a tag writing
+     * @since 5.5.0
+     */
+    protected void writeNextLink(TagWriter tagWriter,
+            KeysetPaginationInfo info) throws JspException {
+        if (StringUtils.hasText(nextLinkText)) {
+            writeLink(tagWriter, info.isLastPage(), info.getNextUrl(),
+                    nextLinkText);
+        }
+    }
+
+    /**
+     * Renders an inner element that contains a link.<br>
+     * @param tagWriter {@code TagWriter} instance that will render the content of the tag to JSP page
+     * @param disabled whether the link is disabled
+     * @param href url of anchor (used if the link is enabled)
+     * @param value text of anchor
+     * @throws JspException If fail a tag writing
+     */
+    private void writeLink(TagWriter tagWriter, boolean disabled, String href,
+            String value) throws JspException {
+        tagWriter.startTag(innerElement); // <li>
+        if (disabled) {
+            tagWriter.writeAttribute(PaginationInfo.CLASS_ATTR, disabledClass);
+            writeAnchor(tagWriter, disabledHref, value); // a
+        } else {
+            writeAnchor(tagWriter, href, value); // a
+        }
+        tagWriter.endTag(true); // </li>
+    }
+
     /**
      * Release state.
      * <p>
@@ -360,7 +462,10 @@ public class PaginationTag extends RequestContextAwareTag {
         this.page = null;
         this.pathTmpl = null;
         this.queryTmpl = null;
+        this.queryTmplSpecified = false;
         this.criteriaQuery = null;
+        this.previousCursor = null;
+        this.nextCursor = null;
         this.disableHtmlEscapeOfCriteriaQuery = false;
         this.enableLinkOfCurrentPage = false;
         this.outerElement = null;
@@ -397,6 +502,7 @@ public class PaginationTag extends RequestContextAwareTag {
      */
     public void setQueryTmpl(String queryTmpl) {
         this.queryTmpl = queryTmpl;
+        this.queryTmplSpecified = true;
     }
 
     /**
@@ -408,6 +514,24 @@ public class PaginationTag extends RequestContextAwareTag {
         this.criteriaQuery = criteriaQuery;
     }
 
+    /**
+     * Set cursor token of the previous slice (for keyset pagination)<br>
+     * @param previousCursor cursor token of the previous slice
+     * @since 5.5.0
+     */
+    public void setPreviousCursor(String previousCursor) {
+        this.previousCursor = previousCursor;
+    }
+
+    /**
+     * Set cursor token of the next slice (for keyset pagination)<br>
+     * @param nextCursor cursor token of the next slice
+     * @since 5.5.0
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     /**
      * Sets the value for disableHtmlEscapeOfCriteriaQuery property.
      * <p>
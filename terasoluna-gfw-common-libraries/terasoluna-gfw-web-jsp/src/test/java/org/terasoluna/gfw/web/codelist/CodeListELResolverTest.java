@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.codelist;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.el.ELContext;
+import javax.el.ELResolver;
+import javax.el.FunctionMapper;
+import javax.el.VariableMapper;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.jsp.JspApplicationContext;
+import javax.servlet.jsp.JspContext;
+import javax.servlet.jsp.JspFactory;
+import javax.servlet.jsp.PageContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockPageContext;
+import org.springframework.mock.web.MockServletContext;
+import org.terasoluna.gfw.common.codelist.SimpleMapCodeList;
+
+public class CodeListELResolverTest {
+
+    private final Map<String, String> codeMap = Collections.singletonMap("key",
+            "value");
+
+    private CodeListELResolver testTarget;
+
+    private MockHttpServletRequest request;
+
+    private PageContext pageContext;
+
+    private ELContext elContext;
+
+    @Before
+    public void setUp() throws Exception {
+        StaticApplicationContext applicationContext = new StaticApplicationContext();
+        applicationContext.registerSingleton("CL_TEST", SimpleMapCodeList.class,
+                new MutablePropertyValues().add("map", codeMap));
+        CodeListInterceptor interceptor = new CodeListInterceptor();
+        interceptor.setApplicationContext(applicationContext);
+        interceptor.setLazyExposure(true);
+        interceptor.afterPropertiesSet();
+
+        MockServletContext servletContext = new MockServletContext();
+        this.request = new MockHttpServletRequest(servletContext);
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        this.pageContext = new MockPageContext(servletContext, request);
+        this.elContext = new ELContext() {
+            @Override
+            public ELResolver getELResolver() {
+                return testTarget;
+            }
+
+            @Override
+            public FunctionMapper getFunctionMapper() {
+                return null;
+            }
+
+            @Override
+            public VariableMapper getVariableMapper() {
+                return null;
+            }
+        };
+        elContext.putContext(JspContext.class, pageContext);
+        this.testTarget = new CodeListELResolver();
+    }
+
+    @After
+    public void tearDown() {
+        JspFactory.setDefaultFactory(null);
+    }
+
+    @Test
+    public void testGetValue_codelist_id() {
+        assertThat(testTarget.getValue(elContext, null, "CL_TEST"), is(
+                (Object) codeMap));
+        assertThat(elContext.isPropertyResolved(), is(true));
+    }
+
+    @Test
+    public void testGetValue_not_codelist_id() {
+        assertThat(testTarget.getValue(elContext, null, "foo"), is(
+                nullValue()));
+        assertThat(testTarget.getValue(elContext, codeMap, "key"), is(
+                nullValue()));
+        assertThat(elContext.isPropertyResolved(), is(false));
+    }
+
+    @Test
+    public void testGetValue_scoped_attribute_takes_precedence() {
+        request.setAttribute("CL_TEST", "attribute");
+
+        assertThat(testTarget.getValue(elContext, null, "CL_TEST"), is(
+                nullValue()));
+        assertThat(elContext.isPropertyResolved(), is(false));
+    }
+
+    @Test
+    public void testGetValue_not_lazy_exposure() {
+        request.removeAttribute(CodeListAttributes.ATTRIBUTE_NAME);
+
+        assertThat(testTarget.getValue(elContext, null, "CL_TEST"), is(
+                nullValue()));
+        assertThat(elContext.isPropertyResolved(), is(false));
+    }
+
+    @Test
+    public void testContextInitialized() {
+        JspFactory jspFactory = mock(JspFactory.class);
+        JspApplicationContext jspApplicationContext = mock(
+                JspApplicationContext.class);
+        MockServletContext servletContext = new MockServletContext();
+        when(jspFactory.getJspApplicationContext(servletContext)).thenReturn(
+                jspApplicationContext);
+        JspFactory.setDefaultFactory(jspFactory);
+
+        new CodeListELResolverListener().contextInitialized(
+                new ServletContextEvent(servletContext));
+
+        verify(jspApplicationContext).addELResolver(any(
+                CodeListELResolver.class));
+    }
+
+}
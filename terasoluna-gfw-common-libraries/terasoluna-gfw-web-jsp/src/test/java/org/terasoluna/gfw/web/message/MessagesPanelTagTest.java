@@ -21,6 +21,8 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.StringWriter;
@@ -690,6 +692,62 @@ public class MessagesPanelTagTest {
         return this.writer.toString();
     }
 
+    @Test
+    public void testWriteMessage_resolved_message_is_cached() throws Exception {
+        when(wac.getMessage(eq("tag.message"), eq(new Object[] { "<b>" }),
+                (Locale) anyObject())).thenReturn("message of <b>");
+        request.setAttribute(ResultMessages.DEFAULT_MESSAGES_ATTRIBUTE_NAME,
+                ResultMessages.error().add("tag.message", "<b>"));
+
+        // render twice
+        tag.doStartTag();
+        tag.doStartTag();
+        // render with other args and without html escape
+        request.setAttribute(ResultMessages.DEFAULT_MESSAGES_ATTRIBUTE_NAME,
+                ResultMessages.error().add("tag.message", "<i>"));
+        tag.doStartTag();
+        request.setAttribute(ResultMessages.DEFAULT_MESSAGES_ATTRIBUTE_NAME,
+                ResultMessages.error().add("tag.message", "<b>"));
+        tag.setDisableHtmlEscape("true");
+        tag.doStartTag();
+
+        String expected = "<div class=\"alert alert-error\"><ul><li>message of &lt;b&gt;</li></ul></div>";
+        assertThat(getOutput(), is(expected + expected
+                + "<div class=\"alert alert-error\"><ul><li></li></ul></div>"
+                + "<div class=\"alert alert-error\"><ul><li>message of <b></li></ul></div>"));
+        verify(wac, times(2)).getMessage(eq("tag.message"), eq(new Object[] {
+                "<b>" }), (Locale) anyObject());
+        verify(wac, times(1)).getMessage(eq("tag.message"), eq(new Object[] {
+                "<i>" }), (Locale) anyObject());
+    }
+
+    @Test
+    public void testWriteMessage_cache_is_cleared() throws Exception {
+        request.setAttribute(ResultMessages.DEFAULT_MESSAGES_ATTRIBUTE_NAME,
+                ResultMessages.error().add("hello.world"));
+
+        tag.doStartTag();
+        // refresh application context
+        when(wac.getStartupDate()).thenReturn(1L);
+        tag.doStartTag();
+
+        verify(wac, times(2)).getMessage(eq("hello.world"), eq(new Object[] {}),
+                (Locale) anyObject());
+    }
+
+    @Test
+    public void testWriteMessage_cache_is_disabled() throws Exception {
+        request.setAttribute(ResultMessages.DEFAULT_MESSAGES_ATTRIBUTE_NAME,
+                ResultMessages.error().add("hello.world"));
+        tag.setMessageCacheSeconds(0);
+
+        tag.doStartTag();
+        tag.doStartTag();
+
+        verify(wac, times(2)).getMessage(eq("hello.world"), eq(new Object[] {}),
+                (Locale) anyObject());
+    }
+
     @Test
     public void testAppendPanelTypeClassPrefixPanelTypeClassPrefixNull() throws Exception {
         // set up
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.message;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.MessageSource;
+import org.terasoluna.gfw.common.message.ResultMessage;
+
+public class ResolvedMessageCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private final MessageSource messageSource = mock(MessageSource.class);
+
+    private ResolvedMessageCache testTarget;
+
+    @Before
+    public void setUp() {
+        final AtomicLong clock = this.clock;
+        this.testTarget = new ResolvedMessageCache() {
+            @Override
+            long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+    }
+
+    @Test
+    public void testGet_key_contains_args_locale_and_htmlEscape() {
+        Object[] args = { "a" };
+        ResultMessage message = ResultMessage.fromCode("code", args);
+        testTarget.put(message, Locale.ENGLISH, true, "text", 10000);
+
+        assertThat(testTarget.get(ResultMessage.fromCode("code", "a"),
+                Locale.ENGLISH, true, messageSource), is("text"));
+        assertThat(testTarget.get(ResultMessage.fromCode("code", "b"),
+                Locale.ENGLISH, true, messageSource), is(nullValue()));
+        assertThat(testTarget.get(message, Locale.JAPANESE, true,
+                messageSource), is(nullValue()));
+        assertThat(testTarget.get(message, Locale.ENGLISH, false,
+                messageSource), is(nullValue()));
+
+        // modifying args of the original message does not affect the key
+        args[0] = "b";
+        assertThat(testTarget.get(ResultMessage.fromCode("code", "a"),
+                Locale.ENGLISH, true, messageSource), is("text"));
+    }
+
+    @Test
+    public void testGet_expired() {
+        ResultMessage message = ResultMessage.fromCode("code");
+        testTarget.put(message, Locale.ENGLISH, true, "text", 10000);
+
+        clock.addAndGet(10000 - 1);
+        assertThat(testTarget.get(message, Locale.ENGLISH, true, messageSource),
+                is("text"));
+        clock.addAndGet(1);
+        assertThat(testTarget.get(message, Locale.ENGLISH, true, messageSource),
+                is(nullValue()));
+        assertThat(testTarget.size(), is(0));
+    }
+
+    @Test
+    public void testGet_not_expired_with_negative_max_age() {
+        ResultMessage message = ResultMessage.fromCode("code");
+        testTarget.put(message, Locale.ENGLISH, true, "text", -1);
+
+        clock.addAndGet(Integer.MAX_VALUE);
+        assertThat(testTarget.get(message, Locale.ENGLISH, true, messageSource),
+                is("text"));
+    }
+
+    @Test
+    public void testPut_evict_least_recently_used() {
+        ResultMessage first = ResultMessage.fromCode("code0");
+        for (int i = 0; i < ResolvedMessageCache.MAX_ENTRIES; i++) {
+            testTarget.put(ResultMessage.fromCode("code" + i), Locale.ENGLISH,
+                    true, "text" + i, 10000);
+        }
+        // access the first entry
+        testTarget.get(first, Locale.ENGLISH, true, messageSource);
+
+        testTarget.put(ResultMessage.fromCode("new"), Locale.ENGLISH, true,
+                "new", 10000);
+
+        assertThat(testTarget.size(), is(ResolvedMessageCache.MAX_ENTRIES));
+        assertThat(testTarget.get(first, Locale.ENGLISH, true, messageSource),
+                is("text0"));
+        assertThat(testTarget.get(ResultMessage.fromCode("code1"),
+                Locale.ENGLISH, true, messageSource), is(nullValue()));
+    }
+
+    @Test
+    public void testPut_args_are_not_values() {
+        ResultMessage message = ResultMessage.fromCode("code", new Object());
+        testTarget.put(message, Locale.ENGLISH, true, "text", 10000);
+
+        assertThat(testTarget.get(message, Locale.ENGLISH, true, messageSource),
+                is(nullValue()));
+        assertThat(testTarget.size(), is(0));
+    }
+
+    @Test
+    public void testGet_application_context_is_refreshed() {
+        ApplicationContext context = mock(ApplicationContext.class);
+        ResultMessage message = ResultMessage.fromCode("code");
+        testTarget.get(message, Locale.ENGLISH, true, context);
+        testTarget.put(message, Locale.ENGLISH, true, "text", 10000);
+        assertThat(testTarget.get(message, Locale.ENGLISH, true, context), is(
+                "text"));
+
+        when(context.getStartupDate()).thenReturn(1L);
+
+        assertThat(testTarget.get(message, Locale.ENGLISH, true, context), is(
+                nullValue()));
+        assertThat(testTarget.size(), is(0));
+    }
+
+    @Test
+    public void testOf() {
+        ResolvedMessageCache cache = ResolvedMessageCache.of(messageSource);
+        assertThat(ResolvedMessageCache.of(messageSource) == cache, is(true));
+        assertThat(ResolvedMessageCache.of(mock(MessageSource.class)) == cache,
+                is(false));
+    }
+}
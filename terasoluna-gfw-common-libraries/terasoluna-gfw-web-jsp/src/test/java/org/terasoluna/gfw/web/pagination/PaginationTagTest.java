@@ -22,6 +22,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
 import javax.servlet.jsp.tagext.TagSupport;
@@ -31,6 +33,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.springframework.core.serializer.support.SerializationFailedException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -1037,6 +1042,98 @@ public class PaginationTagTest {
         assertThat(getOutput(), is(expected));
     }
 
+    /**
+     * keyset pagination with cursor (middle slice).
+     */
+    @Test
+    public void testDoStartTagInternal_slice_with_cursor() throws Exception {
+
+        Slice<String> slice = new SliceImpl<String>(Arrays.asList("c",
+                "d"), new PageRequest(0, 2), true);
+
+        tag.setPage(slice);
+        tag.setQueryTmpl("cursor={cursor}&size={size}");
+        tag.setPreviousCursor("c");
+        tag.setNextCursor("d");
+
+        int ret = tag.doStartTagInternal();
+
+        String expected = "<ul>"
+                + "<li><a href=\"?cursor=&size=2\">&lt;&lt;</a></li>"
+                + "<li><a href=\"?cursor=c&size=2\">&lt;</a></li>"
+                + "<li><a href=\"?cursor=d&size=2\">&gt;</a></li>" + "</ul>";
+
+        // assert
+        assertThat(ret, is(TagSupport.EVAL_BODY_INCLUDE));
+        assertThat(getOutput(), is(expected));
+    }
+
+    /**
+     * keyset pagination with default query template.
+     */
+    @Test
+    public void testDoStartTagInternal_slice_default_query_template() throws Exception {
+
+        Slice<String> slice = new SliceImpl<String>(Arrays.asList("c",
+                "d"), new PageRequest(1, 2), true);
+
+        tag.setPage(slice);
+        tag.setPreviousCursor("c");
+        tag.setNextCursor("d");
+
+        int ret = tag.doStartTagInternal();
+
+        String expected = "<ul>"
+                + "<li><a href=\"?cursor=&size=2\">&lt;&lt;</a></li>"
+                + "<li><a href=\"?cursor=c&size=2\">&lt;</a></li>"
+                + "<li><a href=\"?cursor=d&size=2\">&gt;</a></li>" + "</ul>";
+
+        // assert
+        assertThat(ret, is(TagSupport.EVAL_BODY_INCLUDE));
+        assertThat(getOutput(), is(expected));
+    }
+
+    /**
+     * keyset pagination without cursor (first and last slice).
+     */
+    @Test
+    public void testDoStartTagInternal_slice_first_and_last() throws Exception {
+
+        Slice<String> slice = new SliceImpl<String>(Arrays.asList(
+                "a"), new PageRequest(0, 2), false);
+
+        tag.setPage(slice);
+
+        int ret = tag.doStartTagInternal();
+
+        String expected = "<ul>"
+                + "<li class=\"disabled\"><a href=\"javascript:void(0)\">&lt;&lt;</a></li>"
+                + "<li class=\"disabled\"><a href=\"javascript:void(0)\">&lt;</a></li>"
+                + "<li class=\"disabled\"><a href=\"javascript:void(0)\">&gt;</a></li>"
+                + "</ul>";
+
+        // assert
+        assertThat(ret, is(TagSupport.EVAL_BODY_INCLUDE));
+        assertThat(getOutput(), is(expected));
+    }
+
+    /**
+     * keyset pagination with empty first slice.
+     */
+    @Test
+    public void testDoStartTagInternal_slice_empty() throws Exception {
+
+        Slice<String> slice = new SliceImpl<String>(new ArrayList<String>(), new PageRequest(0, 2), false);
+
+        tag.setPage(slice);
+
+        int ret = tag.doStartTagInternal();
+
+        // assert
+        assertThat(ret, is(TagSupport.EVAL_BODY_INCLUDE));
+        assertThat(getOutput(), is(""));
+    }
+
     protected String getOutput() {
         return this.writer.toString();
     }
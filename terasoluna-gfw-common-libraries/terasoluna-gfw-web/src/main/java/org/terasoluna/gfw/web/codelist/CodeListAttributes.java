@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.codelist;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.terasoluna.gfw.common.codelist.CodeList;
+
+/**
+ * Map of the codelists for a request, which resolves each codelist when it is accessed first.
+ * <p>
+ * {@link CodeListInterceptor} sets this object to the attribute {@link #ATTRIBUTE_NAME} of request if lazy exposure is
+ * enabled. The key is codelist ID and the value is the map of the codelist for the locale of the request, that is same as
+ * the value set to the attribute of request by {@link CodeListInterceptor} if lazy exposure is disabled. This map is
+ * unmodifiable and is not thread safe. It is intended to be used only in the request.
+ * </p>
+ * @since 5.5.0
+ */
+public final class CodeListAttributes extends
+                                      AbstractMap<String, Map<String, String>> {
+
+    /**
+     * Attribute name to store the instance in request scope.
+     */
+    public static final String ATTRIBUTE_NAME = CodeListAttributes.class
+            .getName();
+
+    /**
+     * interceptor to resolve the codelists.
+     */
+    private final CodeListInterceptor interceptor;
+
+    /**
+     * locale of request.
+     */
+    private final Locale locale;
+
+    /**
+     * IDs of the codelists.
+     */
+    private final Set<String> codeListIds;
+
+    /**
+     * maps of the codelists resolved in advance. key is codelist ID.
+     */
+    private final Map<String, Map<String, String>> resolvedCodeMaps;
+
+    /**
+     * codelists resolved when they are accessed. key is codelist ID.
+     */
+    private final Map<String, CodeList> dynamicCodeLists;
+
+    /**
+     * maps of the codelists resolved in this request. key is codelist ID.
+     */
+    private final Map<String, Map<String, String>> accessedCodeMaps = new HashMap<String, Map<String, String>>();
+
+    /**
+     * entry set.
+     */
+    private Set<Map.Entry<String, Map<String, String>>> entrySet;
+
+    /**
+     * Constructor.
+     * @param interceptor interceptor to resolve the codelists
+     * @param locale locale of request
+     * @param codeListIds IDs of the codelists
+     * @param resolvedCodeMaps maps of the codelists resolved in advance
+     * @param dynamicCodeLists codelists resolved when they are accessed
+     */
+    CodeListAttributes(CodeListInterceptor interceptor, Locale locale,
+            Set<String> codeListIds,
+            Map<String, Map<String, String>> resolvedCodeMaps,
+            Map<String, CodeList> dynamicCodeLists) {
+        this.interceptor = interceptor;
+        this.locale = locale;
+        this.codeListIds = codeListIds;
+        this.resolvedCodeMaps = resolvedCodeMaps;
+        this.dynamicCodeLists = dynamicCodeLists;
+    }
+
+    /**
+     * Returns the map of the codelist. The codelist is resolved if it is accessed first in this request.
+     * @param codeListId codelist ID
+     * @return the map of the codelist. {@code null} if the codelist is not exposed.
+     */
+    @Override
+    public Map<String, String> get(Object codeListId) {
+        Map<String, String> codeMap = resolvedCodeMaps.get(codeListId);
+        if (codeMap != null) {
+            return codeMap;
+        }
+        codeMap = accessedCodeMaps.get(codeListId);
+        if (codeMap == null) {
+            CodeList codeList = dynamicCodeLists.get(codeListId);
+            if (codeList == null) {
+                return null;
+            }
+            codeMap = interceptor.resolveCodeMap(codeList, locale);
+            accessedCodeMaps.put(codeList.getCodeListId(), codeMap);
+        }
+        return codeMap;
+    }
+
+    /**
+     * Returns whether the codelist is exposed. The codelist is not resolved.
+     * @param codeListId codelist ID
+     * @return {@code true} if the codelist is exposed.
+     */
+    @Override
+    public boolean containsKey(Object codeListId) {
+        return codeListIds.contains(codeListId);
+    }
+
+    /**
+     * Returns the IDs of the exposed codelists. The codelists are not resolved.
+     * @return IDs of the codelists
+     */
+    @Override
+    public Set<String> keySet() {
+        return codeListIds;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return codeListIds.size();
+    }
+
+    /**
+     * Returns the entry set. The codelists are resolved when the entries are iterated.
+     * @return entry set
+     */
+    @Override
+    public Set<Map.Entry<String, Map<String, String>>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, Map<String, String>>>() {
+                @Override
+                public Iterator<Map.Entry<String, Map<String, String>>> iterator() {
+                    final Iterator<String> it = codeListIds.iterator();
+                    return new Iterator<Map.Entry<String, Map<String, String>>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, Map<String, String>> next() {
+                            String codeListId = it.next();
+                            return new SimpleImmutableEntry<String, Map<String, String>>(codeListId, get(
+                                    codeListId));
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return codeListIds.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+}
@@ -15,11 +15,15 @@
  */
 package org.terasoluna.gfw.web.codelist;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,10 +37,12 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 import org.springframework.web.servlet.support.RequestContextUtils;
 import org.terasoluna.gfw.common.codelist.CodeList;
 import org.terasoluna.gfw.common.codelist.i18n.I18nCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.SimpleI18nCodeList;
 
 /**
  * Interceptor class for setting codelist in attribute of {@link HttpServletRequest}
@@ -46,6 +52,18 @@ import org.terasoluna.gfw.common.codelist.i18n.I18nCodeList;
  * <br>
  * to {@link #setCodeListIdPattern(Pattern)} method.
  * </p>
+ * <p>
+ * The localized maps of {@link SimpleI18nCodeList}s are resolved (including the fall back to {@link #setFallbackTo(Locale)})
+ * for each locale of them when {@link #afterPropertiesSet()} is called, so that a request looks up them by its locale at
+ * once. Call {@link #refreshLocalizedCodeMaps()} if the rows of {@link SimpleI18nCodeList} are changed after that. The
+ * other codelists are resolved for each request. If {@link #getLocalizedCodeMap(I18nCodeList, Locale)} is overridden, all
+ * codelists are resolved for each request.
+ * </p>
+ * <p>
+ * If {@link #setLazyExposure(boolean)} is set to {@code true}, only one attribute {@link CodeListAttributes#ATTRIBUTE_NAME}
+ * is set to {@link HttpServletRequest} and each codelist is resolved when it is accessed first in the request. Use it with
+ * {@code CodeListELResolver} of terasoluna-gfw-web-jsp to refer to the codelists by codelist ID in JSP as before.
+ * </p>
  */
 public class CodeListInterceptor extends HandlerInterceptorAdapter implements
                                  ApplicationContextAware, InitializingBean {
@@ -61,6 +79,28 @@ public class CodeListInterceptor extends HandlerInterceptorAdapter implements
      */
     private Collection<CodeList> codeLists;
 
+    /**
+     * IDs of {@link CodeList}s
+     */
+    private Set<String> codeListIds;
+
+    /**
+     * {@link CodeList}s which are resolved for each request. key is codelist ID.
+     */
+    private Map<String, CodeList> dynamicCodeLists;
+
+    /**
+     * resolved localized maps of {@link SimpleI18nCodeList}s per locale. key of the inner map is codelist ID.
+     */
+    private volatile Map<Locale, Map<String, Map<String, String>>> localizedCodeMaps = Collections
+            .emptyMap();
+
+    /**
+     * resolved localized maps of {@link SimpleI18nCodeList}s for the locale which is not found in any of them.
+     */
+    private volatile Map<String, Map<String, String>> unknownLocaleCodeMaps = Collections
+            .emptyMap();
+
     /**
      * application context
      */
@@ -79,6 +119,11 @@ public class CodeListInterceptor extends HandlerInterceptorAdapter implements
      */
     private Locale fallbackTo = Locale.getDefault();
 
+    /**
+     * whether to expose codelists lazily by {@link CodeListAttributes}.
+     */
+    private boolean lazyExposure = false;
+
     /**
      * Sets codelist to the attribute of {@link HttpServletRequest}
      * <p>
@@ -99,20 +144,43 @@ public class CodeListInterceptor extends HandlerInterceptorAdapter implements
         Locale locale = RequestContextUtils.getLocale(request);
         logger.debug("locale for I18nCodelist is '{}'.", locale);
 
-        for (CodeList codeList : codeLists) {
-            String attributeName = codeList.getCodeListId();
-            if (codeList instanceof I18nCodeList) {
-                I18nCodeList i18nCodeList = (I18nCodeList) codeList;
-                Map<String, String> codeListMap = getLocalizedCodeMap(
-                        i18nCodeList, locale);
-                request.setAttribute(attributeName, codeListMap);
-            } else {
-                request.setAttribute(attributeName, codeList.asMap());
-            }
+        Map<String, Map<String, String>> resolvedCodeMaps = localizedCodeMaps
+                .get(locale);
+        if (resolvedCodeMaps == null) {
+            resolvedCodeMaps = unknownLocaleCodeMaps;
+        }
+        if (lazyExposure) {
+            request.setAttribute(CodeListAttributes.ATTRIBUTE_NAME,
+                    new CodeListAttributes(this, locale, codeListIds,
+                            resolvedCodeMaps, dynamicCodeLists));
+            return true;
+        }
+
+        for (Map.Entry<String, Map<String, String>> e : resolvedCodeMaps
+                .entrySet()) {
+            request.setAttribute(e.getKey(), e.getValue());
+        }
+
+        for (CodeList codeList : dynamicCodeLists.values()) {
+            request.setAttribute(codeList.getCodeListId(), resolveCodeMap(
+                    codeList, locale));
         }
         return true;
     }
 
+    /**
+     * Returns the map of the codelist for the locale.
+     * @param codeList codelist
+     * @param locale locale of request
+     * @return map of the codelist
+     */
+    Map<String, String> resolveCodeMap(CodeList codeList, Locale locale) {
+        if (codeList instanceof I18nCodeList) {
+            return getLocalizedCodeMap((I18nCodeList) codeList, locale);
+        }
+        return codeList.asMap();
+    }
+
     /**
      * Returns the map of codelists which match to the specified locale.
      * <p>
@@ -175,9 +243,83 @@ public class CodeListInterceptor extends HandlerInterceptorAdapter implements
             logger.debug("registered codeList : {}", targetCodeLists.keySet());
         }
 
+        this.codeListIds = Collections.unmodifiableSet(targetCodeLists
+                .keySet());
         this.codeLists = Collections.unmodifiableCollection(targetCodeLists
                 .values());
+        refreshLocalizedCodeMaps();
+    }
+
+    /**
+     * Resolves the localized maps of {@link SimpleI18nCodeList}s for each locale of them.
+     * <p>
+     * Call this method if the rows of {@link SimpleI18nCodeList} are changed after {@link #afterPropertiesSet()}. The
+     * resolved maps are replaced at once, so that concurrent requests see either the old or the new maps.
+     * </p>
+     * @since 5.5.0
+     */
+    public void refreshLocalizedCodeMaps() {
+        if (codeLists == null) {
+            return;
+        }
+
+        boolean resolvable = ReflectionUtils.findMethod(getClass(),
+                "getLocalizedCodeMap", I18nCodeList.class, Locale.class)
+                .getDeclaringClass() == CodeListInterceptor.class;
+        List<SimpleI18nCodeList> simpleI18nCodeLists = new ArrayList<SimpleI18nCodeList>();
+        Map<String, CodeList> dynamicCodeLists = new HashMap<String, CodeList>();
+        Set<Locale> locales = new HashSet<Locale>();
+        for (CodeList codeList : codeLists) {
+            if (resolvable && codeList instanceof SimpleI18nCodeList) {
+                SimpleI18nCodeList simpleI18nCodeList = (SimpleI18nCodeList) codeList;
+                simpleI18nCodeLists.add(simpleI18nCodeList);
+                locales.addAll(simpleI18nCodeList.getLocales());
+            } else {
+                dynamicCodeLists.put(codeList.getCodeListId(), codeList);
+            }
+        }
 
+        Map<Locale, Map<String, Map<String, String>>> localizedCodeMaps = new HashMap<Locale, Map<String, Map<String, String>>>();
+        for (Locale locale : locales) {
+            localizedCodeMaps.put(locale, resolveLocalizedCodeMaps(
+                    simpleI18nCodeLists, locale));
+        }
+        // a locale which is not found in any codelist is resolved as same as the fallback locale.
+        Map<String, Map<String, String>> unknownLocaleCodeMaps;
+        if (fallbackTo == null) {
+            unknownLocaleCodeMaps = new HashMap<String, Map<String, String>>();
+            for (SimpleI18nCodeList simpleI18nCodeList : simpleI18nCodeLists) {
+                unknownLocaleCodeMaps.put(simpleI18nCodeList.getCodeListId(),
+                        Collections.<String, String> emptyMap());
+            }
+            unknownLocaleCodeMaps = Collections.unmodifiableMap(
+                    unknownLocaleCodeMaps);
+        } else if (localizedCodeMaps.containsKey(fallbackTo)) {
+            unknownLocaleCodeMaps = localizedCodeMaps.get(fallbackTo);
+        } else {
+            unknownLocaleCodeMaps = resolveLocalizedCodeMaps(
+                    simpleI18nCodeLists, fallbackTo);
+        }
+
+        this.dynamicCodeLists = Collections.unmodifiableMap(dynamicCodeLists);
+        this.unknownLocaleCodeMaps = unknownLocaleCodeMaps;
+        this.localizedCodeMaps = Collections.unmodifiableMap(localizedCodeMaps);
+    }
+
+    /**
+     * Resolves the localized maps of codelists for the locale.
+     * @param i18nCodeLists codelists to resolve
+     * @param locale locale
+     * @return unmodifiable map of the localized maps. key is codelist ID.
+     */
+    private Map<String, Map<String, String>> resolveLocalizedCodeMaps(
+            List<? extends I18nCodeList> i18nCodeLists, Locale locale) {
+        Map<String, Map<String, String>> resolvedCodeMaps = new HashMap<String, Map<String, String>>();
+        for (I18nCodeList i18nCodeList : i18nCodeLists) {
+            resolvedCodeMaps.put(i18nCodeList.getCodeListId(),
+                    getLocalizedCodeMap(i18nCodeList, locale));
+        }
+        return Collections.unmodifiableMap(resolvedCodeMaps);
     }
 
     /**
@@ -210,6 +352,21 @@ public class CodeListInterceptor extends HandlerInterceptorAdapter implements
      */
     public void setFallbackTo(Locale fallbackTo) {
         this.fallbackTo = fallbackTo;
+        refreshLocalizedCodeMaps();
+    }
+
+    /**
+     * Sets whether to expose codelists lazily.
+     * <p>
+     * If {@code true}, {@link CodeListAttributes} is set to the attribute {@link CodeListAttributes#ATTRIBUTE_NAME} of
+     * {@link HttpServletRequest} instead of the map of each codelist, and each codelist is resolved when it is accessed first.
+     * Default is {@code false}.
+     * </p>
+     * @param lazyExposure whether to expose codelists lazily
+     * @since 5.5.0
+     */
+    public void setLazyExposure(boolean lazyExposure) {
+        this.lazyExposure = lazyExposure;
     }
 
     /**
@@ -19,14 +19,25 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.view.AbstractView;
 
 /**
@@ -77,9 +88,56 @@ import org.springframework.web.servlet.view.AbstractView;
  *     }
  * }
  * </pre>
+ * <h3>Compression of response body</h3>
+ * <p>
+ * When {@code compressionEnabled} property is set to {@code true}, the response body is compressed on the fly using the
+ * content-coding negotiated with the {@code Accept-Encoding} request header. The coding with the higher q-value is chosen
+ * ({@code gzip} is preferred over {@code deflate} if they have the same q-value), and a coding with {@code q=0} is not
+ * chosen. Compression is skipped when:
+ * </p>
+ * <ul>
+ * <li>the client does not accept {@code gzip} nor {@code deflate}</li>
+ * <li>the content type matches {@code compressionExcludedContentTypes} (already compressed formats by default)</li>
+ * <li>{@code Content-Encoding} header has already been set by {@link #addResponseHeader}</li>
+ * <li>the content is smaller than {@code compressionMinSize} bytes</li>
+ * </ul>
+ * <p>
+ * {@link Deflater} instances are pooled in this view and reused across requests. At most
+ * {@code compressionDeflaterPoolSize} instances per content-coding are kept in the pool, and the others are released
+ * after use.
+ * </p>
+ * 
+ * <pre>
+ * &lt;bean id=&quot;sampleFileDownloadView&quot; class=&quot;org.terasoluna.gfw.web.sample.SampleFileDownloadView&quot;&gt;
+ *     &lt;property name=&quot;compressionEnabled&quot; value=&quot;true&quot; /&gt;
+ *     &lt;property name=&quot;compressionLevel&quot; value=&quot;6&quot; /&gt;
+ *     &lt;property name=&quot;compressionMinSize&quot; value=&quot;2048&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
  */
 public abstract class AbstractFileDownloadView extends AbstractView implements
-                                               InitializingBean {
+                                               InitializingBean,
+                                               DisposableBean {
+
+    /**
+     * content-coding name of gzip.
+     */
+    private static final String GZIP = "gzip";
+
+    /**
+     * content-coding name of deflate.
+     */
+    private static final String DEFLATE = "deflate";
+
+    /**
+     * default content types excluded from compression.
+     */
+    private static final Set<String> DEFAULT_COMPRESSION_EXCLUDED_CONTENT_TYPES = new LinkedHashSet<String>(Arrays
+            .asList("image/*", "audio/*", "video/*", "application/zip",
+                    "application/gzip", "application/x-gzip",
+                    "application/x-compress", "application/x-bzip2",
+                    "application/x-7z-compressed",
+                    "application/x-rar-compressed"));
 
     /**
      * logger
@@ -91,6 +149,41 @@ public abstract class AbstractFileDownloadView extends AbstractView implements
      */
     private int chunkSize = 256;
 
+    /**
+     * whether to compress the response body.
+     */
+    private boolean compressionEnabled = false;
+
+    /**
+     * compression level.
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * minimum content size (in bytes) to compress.
+     */
+    private int compressionMinSize = 1024;
+
+    /**
+     * content types excluded from compression (lower case).
+     */
+    private Set<String> compressionExcludedContentTypes = DEFAULT_COMPRESSION_EXCLUDED_CONTENT_TYPES;
+
+    /**
+     * maximum number of deflaters kept in the pool per content-coding.
+     */
+    private int compressionDeflaterPoolSize = 16;
+
+    /**
+     * pooled deflaters for gzip (nowrap).
+     */
+    private final DeflaterPool gzipDeflaters = new DeflaterPool();
+
+    /**
+     * pooled deflaters for deflate (zlib).
+     */
+    private final DeflaterPool deflateDeflaters = new DeflaterPool();
+
     /**
      * Renders the response.
      * @param model Model object
@@ -138,7 +231,14 @@ public abstract class AbstractFileDownloadView extends AbstractView implements
             addResponseHeader(model, request, response);
 
             try {
-                writeResponseStream(inputStream, outputStream);
+                String contentEncoding = resolveContentEncoding(request,
+                        response);
+                if (contentEncoding == null) {
+                    writeResponseStream(inputStream, outputStream);
+                } else {
+                    writeCompressedResponseStream(inputStream, outputStream,
+                            response, contentEncoding);
+                }
             } catch (IOException e) {
                 // In case download fails
                 logger.error(
@@ -195,6 +295,150 @@ public abstract class AbstractFileDownloadView extends AbstractView implements
         }
     }
 
+    /**
+     * Resolves the content-coding to apply to the response body.
+     * <p>
+     * Adds {@code Vary: Accept-Encoding} header when the content is eligible for compression.
+     * </p>
+     * @param request current HTTP request
+     * @param response current HTTP response (headers have already been added)
+     * @return {@code "gzip"} or {@code "deflate"}. {@code null} if the response body should not be compressed
+     */
+    private String resolveContentEncoding(HttpServletRequest request,
+            HttpServletResponse response) {
+        if (!compressionEnabled || response.containsHeader("Content-Encoding")
+                || isCompressionExcludedContentType(response
+                        .getContentType())) {
+            return null;
+        }
+        response.addHeader("Vary", "Accept-Encoding");
+
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return null;
+        }
+        double gzipQuality = -1;
+        double deflateQuality = -1;
+        double wildcardQuality = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] params = element.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ENGLISH);
+            double quality = parseQuality(params);
+            if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else if (DEFLATE.equals(coding)) {
+                deflateQuality = Math.max(deflateQuality, quality);
+            } else if ("*".equals(coding)) {
+                wildcardQuality = Math.max(wildcardQuality, quality);
+            }
+        }
+        // a coding not listed explicitly is accepted with the q-value of wildcard
+        if (gzipQuality < 0) {
+            gzipQuality = wildcardQuality;
+        }
+        if (deflateQuality < 0) {
+            deflateQuality = wildcardQuality;
+        }
+        if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+            return GZIP;
+        }
+        if (deflateQuality > 0) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    /**
+     * Parses the {@code q} parameter of an {@code Accept-Encoding} element.
+     * @param params element split by {@code ';'}
+     * @return q-value. {@code 1} if {@code q} parameter is not specified or invalid
+     */
+    private static double parseQuality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.length() > 2 && Character.toLowerCase(param.charAt(
+                    0)) == 'q' && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Checks whether the content type is excluded from compression.
+     * @param contentType content type of the response (may be {@code null})
+     * @return {@code true} if excluded
+     */
+    private boolean isCompressionExcludedContentType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int paramIndex = contentType.indexOf(';');
+        String mimeType = (paramIndex < 0 ? contentType
+                : contentType.substring(0, paramIndex)).trim().toLowerCase(
+                        Locale.ENGLISH);
+        if (compressionExcludedContentTypes.contains(mimeType)) {
+            return true;
+        }
+        int slashIndex = mimeType.indexOf('/');
+        return slashIndex > 0 && compressionExcludedContentTypes.contains(
+                mimeType.substring(0, slashIndex + 1) + "*");
+    }
+
+    /**
+     * Writes the download file to the stream of HTTP response with compression.
+     * <p>
+     * The content is read ahead up to {@code compressionMinSize} bytes. If the content ends before that, it is written
+     * without compression.
+     * </p>
+     * @param inputStream InputStream of file data to be downloaded
+     * @param outputStream OutputStream of the response
+     * @param response current HTTP response
+     * @param contentEncoding content-coding to apply
+     * @throws IOException Input/output exception
+     */
+    private void writeCompressedResponseStream(InputStream inputStream,
+            OutputStream outputStream, HttpServletResponse response,
+            String contentEncoding) throws IOException {
+        byte[] head = new byte[compressionMinSize];
+        int headLength = 0;
+        int length;
+        while (headLength < head.length && (length = inputStream.read(head,
+                headLength, head.length - headLength)) > 0) {
+            headLength += length;
+        }
+        if (headLength < compressionMinSize) {
+            outputStream.write(head, 0, headLength);
+            return;
+        }
+
+        if (response.containsHeader("Content-Length")) {
+            // length of the compressed content is unknown
+            response.setContentLength(-1);
+        }
+        response.setHeader("Content-Encoding", contentEncoding);
+
+        boolean gzip = GZIP.equals(contentEncoding);
+        DeflaterPool pool = gzip ? gzipDeflaters : deflateDeflaters;
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(compressionLevel, gzip);
+        }
+        try {
+            CompressingOutputStream compressingOutputStream = new CompressingOutputStream(outputStream, deflater, gzip, Math
+                    .max(chunkSize, 512));
+            compressingOutputStream.write(head, 0, headLength);
+            writeResponseStream(inputStream, compressingOutputStream);
+            compressingOutputStream.finish();
+        } finally {
+            pool.offer(deflater);
+        }
+    }
+
     /**
      * Adds response header
      * @param model Model object
@@ -212,10 +456,80 @@ public abstract class AbstractFileDownloadView extends AbstractView implements
         this.chunkSize = chunkSize;
     }
 
+    /**
+     * Set whether to compress the response body.
+     * <p>
+     * default is {@code false}.
+     * </p>
+     * @param compressionEnabled {@code true} to compress the response body when the client accepts it
+     * @since 5.5.0
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Set a compression level.
+     * <p>
+     * default is {@link Deflater#DEFAULT_COMPRESSION}.
+     * </p>
+     * @param compressionLevel compression level ({@code -1} to {@code 9})
+     * @since 5.5.0
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Set a minimum content size (in bytes) to compress.
+     * <p>
+     * default is {@code 1024}.
+     * </p>
+     * @param compressionMinSize minimum content size to compress
+     * @since 5.5.0
+     */
+    public void setCompressionMinSize(int compressionMinSize) {
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    /**
+     * Set a maximum number of {@link Deflater}s kept in the pool per content-coding.
+     * <p>
+     * default is {@code 16}. {@code 0} disables pooling.
+     * </p>
+     * @param compressionDeflaterPoolSize maximum number of pooled deflaters
+     * @since 5.5.0
+     */
+    public void setCompressionDeflaterPoolSize(
+            int compressionDeflaterPoolSize) {
+        this.compressionDeflaterPoolSize = compressionDeflaterPoolSize;
+    }
+
+    /**
+     * Set content types excluded from compression.
+     * <p>
+     * A value such as {@code "image/*"} excludes all subtypes. default is already compressed formats (image, audio,
+     * video and archive formats).
+     * </p>
+     * @param compressionExcludedContentTypes content types excluded from compression
+     * @since 5.5.0
+     */
+    public void setCompressionExcludedContentTypes(
+            Collection<String> compressionExcludedContentTypes) {
+        Set<String> contentTypes = new LinkedHashSet<String>();
+        if (compressionExcludedContentTypes != null) {
+            for (String contentType : compressionExcludedContentTypes) {
+                contentTypes.add(contentType.trim().toLowerCase(
+                        Locale.ENGLISH));
+            }
+        }
+        this.compressionExcludedContentTypes = contentTypes;
+    }
+
     /**
      * Initializes the exception filter.
      * <p>
-     * validate the chunkSize field.
+     * validate the chunkSize, compressionLevel, compressionMinSize and compressionDeflaterPoolSize fields.
      * </p>
      * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
      */
@@ -225,6 +539,82 @@ public abstract class AbstractFileDownloadView extends AbstractView implements
             throw new IllegalArgumentException("chunkSize must be over 1. specified chunkSize is \""
                     + chunkSize + "\".");
         }
+        if (compressionLevel < Deflater.DEFAULT_COMPRESSION
+                || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("compressionLevel must be between -1 and 9. specified compressionLevel is \""
+                    + compressionLevel + "\".");
+        }
+        if (compressionMinSize < 0) {
+            throw new IllegalArgumentException("compressionMinSize must be over 0. specified compressionMinSize is \""
+                    + compressionMinSize + "\".");
+        }
+        if (compressionDeflaterPoolSize < 0) {
+            throw new IllegalArgumentException("compressionDeflaterPoolSize must be over 0. specified compressionDeflaterPoolSize is \""
+                    + compressionDeflaterPoolSize + "\".");
+        }
+    }
+
+    /**
+     * Releases pooled deflaters.
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     * @since 5.5.0
+     */
+    @Override
+    public void destroy() {
+        gzipDeflaters.clear();
+        deflateDeflaters.clear();
+    }
+
+    /**
+     * Pool of {@link Deflater}s bounded by {@code compressionDeflaterPoolSize}.
+     */
+    private final class DeflaterPool {
+
+        /**
+         * pooled deflaters.
+         */
+        private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<Deflater>();
+
+        /**
+         * number of pooled deflaters.
+         */
+        private final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * Takes a deflater from the pool.
+         * @return pooled deflater. {@code null} if the pool is empty
+         */
+        private Deflater poll() {
+            Deflater deflater = deflaters.poll();
+            if (deflater != null) {
+                size.decrementAndGet();
+            }
+            return deflater;
+        }
+
+        /**
+         * Returns a deflater to the pool. The deflater is released if the pool is full.
+         * @param deflater deflater to return
+         */
+        private void offer(Deflater deflater) {
+            if (size.incrementAndGet() > compressionDeflaterPoolSize) {
+                size.decrementAndGet();
+                deflater.end();
+                return;
+            }
+            deflater.reset();
+            deflaters.offer(deflater);
+        }
+
+        /**
+         * Releases all deflaters in the pool.
+         */
+        private void clear() {
+            Deflater deflater;
+            while ((deflater = poll()) != null) {
+                deflater.end();
+            }
+        }
     }
 
 }
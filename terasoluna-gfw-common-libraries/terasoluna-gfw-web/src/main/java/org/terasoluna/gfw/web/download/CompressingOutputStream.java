@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.download;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * {@link DeflaterOutputStream} that writes either the {@code gzip} or the {@code deflate} content-coding using a
+ * {@link Deflater} supplied by the caller.
+ * <p>
+ * Unlike {@link java.util.zip.GZIPOutputStream}, this stream never creates nor ends a {@link Deflater}, so that the
+ * caller can reset and reuse it for subsequent responses. For {@code gzip}, the supplied {@link Deflater} must be created
+ * with {@code nowrap=true}; the gzip header and trailer are written by this stream. For {@code deflate}, the supplied
+ * {@link Deflater} must be created with {@code nowrap=false} (zlib format, as defined by RFC 7230).
+ * </p>
+ * <p>
+ * {@link #finish()} completes the compressed data without closing the underlying stream.
+ * </p>
+ * @since 5.5.0
+ */
+class CompressingOutputStream extends DeflaterOutputStream {
+
+    /**
+     * gzip header (magic number, CM=deflate, no flags, no mtime, no XFL, OS=unknown).
+     */
+    private static final byte[] GZIP_HEADER = { (byte) 0x1f, (byte) 0x8b,
+            Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    /**
+     * checksum of uncompressed data. {@code null} if not gzip.
+     */
+    private final CRC32 crc;
+
+    /**
+     * whether the trailer has been written.
+     */
+    private boolean finished;
+
+    /**
+     * Constructor.
+     * @param out underlying stream
+     * @param deflater reusable deflater (must be reset by the caller before passing)
+     * @param gzip {@code true} to write the gzip format, {@code false} to write the zlib format
+     * @param bufferSize size of the output buffer
+     * @throws IOException if failed to write the gzip header
+     */
+    CompressingOutputStream(OutputStream out, Deflater deflater, boolean gzip,
+            int bufferSize) throws IOException {
+        super(out, deflater, bufferSize);
+        if (gzip) {
+            this.crc = new CRC32();
+            out.write(GZIP_HEADER);
+        } else {
+            this.crc = null;
+        }
+    }
+
+    /**
+     * Writes compressed bytes and updates the checksum.
+     * @see java.util.zip.DeflaterOutputStream#write(byte[], int, int)
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+    }
+
+    /**
+     * Finishes writing compressed data (and the gzip trailer) without closing the underlying stream.
+     * @see java.util.zip.DeflaterOutputStream#finish()
+     */
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        super.finish();
+        if (crc != null) {
+            writeIntLE(crc.getValue());
+            writeIntLE(def.getBytesRead());
+        }
+        finished = true;
+    }
+
+    /**
+     * Writes 4 bytes in little-endian order.
+     * @param value value (only lower 32 bits are written)
+     * @throws IOException if failed to write
+     */
+    private void writeIntLE(long value) throws IOException {
+        out.write((int) (value & 0xff));
+        out.write((int) ((value >> 8) & 0xff));
+        out.write((int) ((value >> 16) & 0xff));
+        out.write((int) ((value >> 24) & 0xff));
+    }
+}
@@ -15,8 +15,16 @@
  */
 package org.terasoluna.gfw.web.exception;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -27,7 +35,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.terasoluna.gfw.common.exception.ExceptionLevel;
 import org.terasoluna.gfw.common.exception.ExceptionLogger;
+import org.terasoluna.gfw.common.exception.ExceptionResolution;
 import org.terasoluna.gfw.common.exception.ResultMessagesNotificationException;
 
 /**
@@ -54,6 +64,29 @@ import org.terasoluna.gfw.common.exception.ResultMessagesNotificationException;
  *   &lt;property name=&quot;exceptionLogger&quot; ref=&quot;exceptionLogger&quot; /&gt;
  * &lt;/bean&gt;
  * </pre>
+ *
+ * <h2>Example of the Settings for change the log level</h2><br>
+ * The log level can be mapped per exception class and per HTTP response code (e.g. {@code "404"}, {@code "4xx"} or
+ * {@code "400-409"}). The mapping of the exception class (the nearest super class is used) takes precedence over the
+ * mapping of the HTTP response code (the narrowest range is used). These mappings and the exception classes for which
+ * log output is not to be done are compiled when set, and the results are cached per exception class.
+ *
+ * <pre>
+ * &lt;bean id=&quot;handlerExceptionResolverLoggingInterceptor&quot;
+ *   class=&quot;org.terasoluna.gfw.web.exception.HandlerExceptionResolverLoggingInterceptor&quot;&gt;
+ *   &lt;property name=&quot;statusCodeExceptionLevels&quot;&gt;
+ *     &lt;map&gt;
+ *       &lt;entry key=&quot;404&quot; value=&quot;INFO&quot; /&gt;
+ *       &lt;entry key=&quot;503&quot; value=&quot;WARN&quot; /&gt;
+ *     &lt;/map&gt;
+ *   &lt;/property&gt;
+ *   &lt;property name=&quot;exceptionClassExceptionLevels&quot;&gt;
+ *     &lt;map&gt;
+ *       &lt;entry key=&quot;org.springframework.dao.PessimisticLockingFailureException&quot; value=&quot;WARN&quot; /&gt;
+ *     &lt;/map&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
  */
 public class HandlerExceptionResolverLoggingInterceptor implements
                                                         MethodInterceptor,
@@ -65,6 +98,16 @@ public class HandlerExceptionResolverLoggingInterceptor implements
     private static final Logger logger = LoggerFactory.getLogger(
             HandlerExceptionResolverLoggingInterceptor.class);
 
+    /**
+     * Max HTTP response code that can be mapped to exception level.
+     */
+    private static final int MAX_STATUS_CODE = 999;
+
+    /**
+     * Maximum number of exception classes whose route is cached.
+     */
+    private static final int MAX_CACHED_CLASSES = 1024;
+
     /**
      * Logger object for exception output.
      */
@@ -75,12 +118,31 @@ public class HandlerExceptionResolverLoggingInterceptor implements
      */
     private Set<Class<? extends Exception>> ignoreExceptions;
 
+    /**
+     * Exception levels per exception class.
+     */
+    private Map<Class<? extends Exception>, ExceptionLevel> exceptionClassExceptionLevels = Collections
+            .emptyMap();
+
+    /**
+     * Exception levels indexed by HTTP response code. {@code null} element means the default log level.
+     */
+    private ExceptionLevel[] statusCodeExceptionLevels = new ExceptionLevel[MAX_STATUS_CODE
+            + 1];
+
+    /**
+     * Routes of exceptions cached per exception class.
+     */
+    private volatile ExceptionRoutes exceptionRoutes;
+
     /**
      * Constructor
      */
     public HandlerExceptionResolverLoggingInterceptor() {
         this.ignoreExceptions = new HashSet<Class<? extends Exception>>();
         ignoreExceptions.add(ResultMessagesNotificationException.class);
+        this.exceptionRoutes = new ExceptionRoutes(ignoreExceptions,
+                exceptionClassExceptionLevels);
     }
 
     /**
@@ -101,6 +163,92 @@ public class HandlerExceptionResolverLoggingInterceptor implements
     public void setIgnoreExceptions(
             Set<Class<? extends Exception>> ignoreExceptions) {
         this.ignoreExceptions = ignoreExceptions;
+        this.exceptionRoutes = new ExceptionRoutes(this.ignoreExceptions,
+                this.exceptionClassExceptionLevels);
+    }
+
+    /**
+     * Sets exception levels per exception class.
+     * <p>
+     * The level of the nearest super class of the exception is used. Takes precedence over
+     * {@link #setStatusCodeExceptionLevels(Map)}.
+     * </p>
+     * <p>
+     * The exceptions mapped by this property are logged directly by the {@link ExceptionLogger}, so the protected hooks
+     * (e.g. {@link #logClientError(Exception, HttpServletRequest, HttpServletResponse, Object)}) are not called for them.
+     * </p>
+     * @param exceptionClassExceptionLevels exception levels per exception class
+     * @since 5.5.0
+     */
+    public void setExceptionClassExceptionLevels(
+            Map<Class<? extends Exception>, ExceptionLevel> exceptionClassExceptionLevels) {
+        this.exceptionClassExceptionLevels = exceptionClassExceptionLevels == null
+                ? Collections
+                        .<Class<? extends Exception>, ExceptionLevel> emptyMap()
+                : new LinkedHashMap<Class<? extends Exception>, ExceptionLevel>(
+                        exceptionClassExceptionLevels);
+        this.exceptionRoutes = new ExceptionRoutes(this.ignoreExceptions,
+                this.exceptionClassExceptionLevels);
+    }
+
+    /**
+     * Sets exception levels per HTTP response code.
+     * <p>
+     * The key is a HTTP response code (e.g. {@code "404"}), a class of HTTP response code (e.g. {@code "4xx"}) or a range of
+     * HTTP response code (e.g. {@code "400-409"}). If the ranges overlap, the level of the narrowest range is used. Ranges of
+     * the same width must not overlap. HTTP response codes that are not mapped are logged with the default log level.
+     * </p>
+     * <p>
+     * The exceptions whose HTTP response code is mapped by this property are logged directly by the {@link ExceptionLogger},
+     * so the protected hooks (e.g. {@link #logClientError(Exception, HttpServletRequest, HttpServletResponse, Object)}) are
+     * not called for them.
+     * </p>
+     * @param statusCodeExceptionLevels exception levels per HTTP response code
+     * @throws IllegalArgumentException if the key is not valid HTTP response code, class or range, or ranges of the same
+     *             width overlap
+     * @since 5.5.0
+     */
+    public void setStatusCodeExceptionLevels(
+            Map<String, ExceptionLevel> statusCodeExceptionLevels) {
+        ExceptionLevel[] levels = new ExceptionLevel[MAX_STATUS_CODE + 1];
+        if (statusCodeExceptionLevels != null) {
+            List<StatusCodeRange> ranges = new ArrayList<StatusCodeRange>();
+            for (Map.Entry<String, ExceptionLevel> entry : statusCodeExceptionLevels
+                    .entrySet()) {
+                ranges.add(new StatusCodeRange(entry.getKey(), entry
+                        .getValue()));
+            }
+            // narrower ranges overwrite wider ranges
+            Collections.sort(ranges, new Comparator<StatusCodeRange>() {
+                @Override
+                public int compare(StatusCodeRange o1, StatusCodeRange o2) {
+                    return (o2.to - o2.from) - (o1.to - o1.from);
+                }
+            });
+            for (int i = 0; i < ranges.size(); i++) {
+                StatusCodeRange range = ranges.get(i);
+                for (int j = i + 1; j < ranges.size(); j++) {
+                    StatusCodeRange other = ranges.get(j);
+                    if (other.to - other.from != range.to - range.from) {
+                        break;
+                    }
+                    if (range.from <= other.to && other.from <= range.to) {
+                        throw new IllegalArgumentException(
+                                "ranges of the same width must not overlap."
+                                        + " current status codes are \""
+                                        + range.key + "\" and \""
+                                        + other.key + "\".");
+                    }
+                }
+            }
+            for (StatusCodeRange range : ranges) {
+                for (int statusCode = range.from; statusCode <= range.to;
+                        statusCode++) {
+                    levels[statusCode] = range.level;
+                }
+            }
+        }
+        this.statusCodeExceptionLevels = levels;
     }
 
     /**
@@ -142,13 +290,12 @@ public class HandlerExceptionResolverLoggingInterceptor implements
             return returnObj;
         }
 
-        Exception exception = (Exception) invocation.getArguments()[3];
+        Object[] arguments = invocation.getArguments();
+        Exception exception = (Exception) arguments[3];
         if (isTargetException(exception)) {
-            HttpServletRequest request = (HttpServletRequest) invocation
-                    .getArguments()[0];
-            HttpServletResponse response = (HttpServletResponse) invocation
-                    .getArguments()[1];
-            Object handler = invocation.getArguments()[2];
+            HttpServletRequest request = (HttpServletRequest) arguments[0];
+            HttpServletResponse response = (HttpServletResponse) arguments[1];
+            Object handler = arguments[2];
             log(exception, request, response, handler);
         }
 
@@ -180,15 +327,7 @@ public class HandlerExceptionResolverLoggingInterceptor implements
      * @return returns <code>true</code> if in the list.
      */
     protected boolean isTargetException(Exception ex) {
-        if (ignoreExceptions == null) {
-            return true;
-        }
-        for (Class<? extends Exception> ignoreClass : ignoreExceptions) {
-            if (ignoreClass.isInstance(ex)) {
-                return false;
-            }
-        }
-        return true;
+        return !exceptionRoutes.route(ex.getClass()).ignored;
     }
 
     /**
@@ -201,6 +340,15 @@ public class HandlerExceptionResolverLoggingInterceptor implements
     protected void log(Exception ex, HttpServletRequest request,
             HttpServletResponse response, Object handler) {
         int statusCode = response.getStatus();
+        ExceptionLevel level = exceptionRoutes.route(ex.getClass()).level;
+        if (level == null && HttpServletResponse.SC_CONTINUE <= statusCode
+                && statusCode <= MAX_STATUS_CODE) {
+            level = statusCodeExceptionLevels[statusCode];
+        }
+        if (level != null) {
+            log(level, ex, request);
+            return;
+        }
         if (HttpServletResponse.SC_INTERNAL_SERVER_ERROR <= statusCode) {
             // responseCode is 500 ~
             logServerError(ex, request, response, handler);
@@ -241,7 +389,7 @@ public class HandlerExceptionResolverLoggingInterceptor implements
      */
     protected void logInformational(Exception ex, HttpServletRequest request,
             HttpServletResponse response, Object handler) {
-        exceptionLogger.info(ex);
+        log(ExceptionLevel.INFO, ex, request);
     }
 
     /**
@@ -256,7 +404,7 @@ public class HandlerExceptionResolverLoggingInterceptor implements
      */
     protected void logSuccess(Exception ex, HttpServletRequest request,
             HttpServletResponse response, Object handler) {
-        exceptionLogger.info(ex);
+        log(ExceptionLevel.INFO, ex, request);
     }
 
     /**
@@ -271,7 +419,7 @@ public class HandlerExceptionResolverLoggingInterceptor implements
      */
     protected void logRedirection(Exception ex, HttpServletRequest request,
             HttpServletResponse response, Object handler) {
-        exceptionLogger.info(ex);
+        log(ExceptionLevel.INFO, ex, request);
     }
 
     /**
@@ -286,7 +434,7 @@ public class HandlerExceptionResolverLoggingInterceptor implements
      */
     protected void logClientError(Exception ex, HttpServletRequest request,
             HttpServletResponse response, Object handler) {
-        exceptionLogger.warn(ex);
+        log(ExceptionLevel.WARN, ex, request);
     }
 
     /**
@@ -301,7 +449,29 @@ public class HandlerExceptionResolverLoggingInterceptor implements
      */
     protected void logServerError(Exception ex, HttpServletRequest request,
             HttpServletResponse response, Object handler) {
-        exceptionLogger.error(ex);
+        log(ExceptionLevel.ERROR, ex, request);
+    }
+
+    /**
+     * Finds the result of resolving the exception code of the exception which is stored in request scope by
+     * {@link SystemExceptionResolver}.
+     * @param ex Exception
+     * @param request HTTP Servlet request
+     * @return result of resolving the exception code. {@code null} if it is not stored for the exception.
+     * @since 5.5.0
+     */
+    protected ExceptionResolution findExceptionResolution(Exception ex,
+            HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        Object resolution = request.getAttribute(
+                ExceptionResolution.ATTRIBUTE_NAME);
+        if (resolution instanceof ExceptionResolution
+                && ((ExceptionResolution) resolution).getException() == ex) {
+            return (ExceptionResolution) resolution;
+        }
+        return null;
     }
 
     /**
@@ -312,4 +482,217 @@ public class HandlerExceptionResolverLoggingInterceptor implements
         return exceptionLogger;
     }
 
+    /**
+     * Outputs the log with the exception level.
+     * <p>
+     * The result of resolving the exception code stored by {@link SystemExceptionResolver} is reused if exists. Otherwise,
+     * the exception code is resolved by the exception logger.
+     * </p>
+     * @param level exception level
+     * @param ex Exception
+     * @param request HTTP Servlet request
+     */
+    private void log(ExceptionLevel level, Exception ex,
+            HttpServletRequest request) {
+        ExceptionResolution resolution = findExceptionResolution(ex, request);
+        switch (level) {
+        case INFO:
+            if (resolution != null) {
+                exceptionLogger.info(resolution);
+            } else {
+                exceptionLogger.info(ex);
+            }
+            break;
+        case WARN:
+            if (resolution != null) {
+                exceptionLogger.warn(resolution);
+            } else {
+                exceptionLogger.warn(ex);
+            }
+            break;
+        default:
+            if (resolution != null) {
+                exceptionLogger.error(resolution);
+            } else {
+                exceptionLogger.error(ex);
+            }
+            break;
+        }
+    }
+
+    /**
+     * Exception classes for which log output is not to be done and exception levels per exception class, compiled into
+     * the routes cached per exception class.
+     * <p>
+     * The routes are cached up to {@link #MAX_CACHED_CLASSES} classes in a {@link ConcurrentHashMap} held by this
+     * interceptor, so that no class loader is pinned by the cache.
+     * </p>
+     */
+    private static final class ExceptionRoutes {
+
+        /**
+         * Exception classes for which log output is not to be done.
+         */
+        private final Set<Class<? extends Exception>> ignoreClasses;
+
+        /**
+         * Exception levels per exception class.
+         */
+        private final Map<Class<? extends Exception>, ExceptionLevel> levels;
+
+        /**
+         * Routes cached per exception class.
+         */
+        private final ConcurrentMap<Class<?>, ExceptionRoute> routes =
+                new ConcurrentHashMap<Class<?>, ExceptionRoute>();
+
+        /**
+         * Constructor.
+         * @param ignoreClasses exception classes for which log output is not to be done
+         * @param levels exception levels per exception class
+         */
+        private ExceptionRoutes(Set<Class<? extends Exception>> ignoreClasses,
+                Map<Class<? extends Exception>, ExceptionLevel> levels) {
+            this.ignoreClasses = ignoreClasses == null ? Collections
+                    .<Class<? extends Exception>> emptySet()
+                    : new HashSet<Class<? extends Exception>>(ignoreClasses);
+            this.levels = levels;
+        }
+
+        /**
+         * Returns the route of the exception class.
+         * @param type exception class
+         * @return route of the exception class
+         */
+        private ExceptionRoute route(Class<?> type) {
+            ExceptionRoute route = routes.get(type);
+            if (route == null) {
+                route = compute(type);
+                if (routes.size() < MAX_CACHED_CLASSES) {
+                    routes.putIfAbsent(type, route);
+                }
+            }
+            return route;
+        }
+
+        /**
+         * Computes the route of the exception class.
+         * @param type exception class
+         * @return route of the exception class
+         */
+        private ExceptionRoute compute(Class<?> type) {
+            boolean ignored = false;
+            for (Class<? extends Exception> ignoreClass : ignoreClasses) {
+                if (ignoreClass.isAssignableFrom(type)) {
+                    ignored = true;
+                    break;
+                }
+            }
+            ExceptionLevel level = null;
+            for (Class<?> c = type; c != null && level == null; c = c
+                    .getSuperclass()) {
+                level = levels.get(c);
+            }
+            return new ExceptionRoute(ignored, level);
+        }
+    }
+
+    /**
+     * Route of an exception class.
+     */
+    private static final class ExceptionRoute {
+
+        /**
+         * Whether log output is not to be done.
+         */
+        private final boolean ignored;
+
+        /**
+         * Mapped exception level. {@code null} if not mapped.
+         */
+        private final ExceptionLevel level;
+
+        /**
+         * Constructor.
+         * @param ignored whether log output is not to be done
+         * @param level mapped exception level
+         */
+        private ExceptionRoute(boolean ignored, ExceptionLevel level) {
+            this.ignored = ignored;
+            this.level = level;
+        }
+    }
+
+    /**
+     * Range of HTTP response code mapped to exception level.
+     */
+    private static final class StatusCodeRange {
+
+        /**
+         * Key of the range.
+         */
+        private final String key;
+
+        /**
+         * First HTTP response code of the range.
+         */
+        private final int from;
+
+        /**
+         * Last HTTP response code of the range.
+         */
+        private final int to;
+
+        /**
+         * Exception level.
+         */
+        private final ExceptionLevel level;
+
+        /**
+         * Constructor.
+         * @param key HTTP response code, class or range (e.g. {@code "404"}, {@code "4xx"} or {@code "400-409"})
+         * @param level exception level
+         * @throws IllegalArgumentException if the key is not valid
+         */
+        private StatusCodeRange(String key, ExceptionLevel level) {
+            this.key = key;
+            String trimmed = key == null ? "" : key.trim();
+            try {
+                int separator = trimmed.indexOf('-');
+                if (trimmed.length() == 3 && trimmed.toLowerCase().endsWith(
+                        "xx")) {
+                    this.from = Integer.parseInt(trimmed.substring(0, 1)) * 100;
+                    this.to = from + 99;
+                } else if (separator > 0) {
+                    this.from = Integer.parseInt(trimmed.substring(0, separator)
+                            .trim());
+                    this.to = Integer.parseInt(trimmed.substring(separator + 1)
+                            .trim());
+                } else {
+                    this.from = Integer.parseInt(trimmed);
+                    this.to = from;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "status code must be a code, a class or a range of"
+                                + " HTTP response code (e.g. \"404\","
+                                + " \"4xx\" or \"400-409\")."
+                                + " current status code is \""
+                                + key + "\".", e);
+            }
+            if (from < HttpServletResponse.SC_CONTINUE || to > MAX_STATUS_CODE
+                    || from > to) {
+                throw new IllegalArgumentException(
+                        "status code must be between 100 and 999."
+                                + " current status code is \"" + key + "\".");
+            }
+            if (level == null) {
+                throw new IllegalArgumentException(
+                        "exception level must not be null."
+                                + " current status code is \"" + key + "\".");
+            }
+            this.level = level;
+        }
+    }
+
 }
@@ -24,6 +24,7 @@ import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.handler.SimpleMappingExceptionResolver;
 import org.springframework.web.servlet.support.RequestContextUtils;
 import org.terasoluna.gfw.common.exception.ExceptionCodeResolver;
+import org.terasoluna.gfw.common.exception.ExceptionResolution;
 import org.terasoluna.gfw.common.exception.ResultMessagesNotificationException;
 import org.terasoluna.gfw.common.exception.SimpleMappingExceptionCodeResolver;
 import org.terasoluna.gfw.common.message.ResultMessages;
@@ -158,6 +159,11 @@ public class SystemExceptionResolver extends SimpleMappingExceptionResolver {
      * Sets exception code in {@code HttpServletRequest} and {@code HttpServletResponse} header. If exceptionCodeAttribute is
      * {@code null} or blank or space is set, then exception code is not set.
      * </p>
+     * <p>
+     * The result of resolving the exception code is always stored in request scope as {@link ExceptionResolution}, so that
+     * the components that handle the same exception (e.g. {@link HandlerExceptionResolverLoggingInterceptor}) can reuse it.
+     * Exception level and log message are not shared and are resolved by each component.
+     * </p>
      * @param ex Exception
      * @param request {@link HttpServletRequest}
      * @param response {@link HttpServletResponse}
@@ -166,10 +172,11 @@ public class SystemExceptionResolver extends SimpleMappingExceptionResolver {
             HttpServletResponse response) {
 
         String exceptionCode = null;
-        if (exceptionCodeResolver != null && (StringUtils.hasText(
-                exceptionCodeAttribute) || StringUtils.hasText(
-                        exceptionCodeHeader))) {
+        if (exceptionCodeResolver != null) {
             exceptionCode = exceptionCodeResolver.resolveExceptionCode(ex);
+            // share the resolved exception code with the components that handle the same exception (e.g. ExceptionLogger)
+            request.setAttribute(ExceptionResolution.ATTRIBUTE_NAME,
+                    new ExceptionResolution(ex, exceptionCode, exceptionCodeResolver));
         }
 
         if (exceptionCode == null) {
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.logging.mdc;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Servlet Filter that puts the values of several {@link MDCValueProvider}s into {@link MDC} in one filter invocation.
+ * <p>
+ * Instead of registering several {@link AbstractMDCPutFilter}s in the filter chain (each one checking its own "already
+ * filtered" request attribute), register the providers of key and value in this filter by
+ * {@link #setMdcValueProviders(List)}. The existing {@link AbstractMDCPutFilter}s can also be registered by
+ * {@link #setMdcPutFilters(List)}. In that case, key and value are fetched using {@link AbstractMDCPutFilter#getMDCKey}
+ * and {@link AbstractMDCPutFilter#getMDCValue}, and cut by the {@code maxMDCValueLength} of each filter. The
+ * {@code removeValue} flag of the filters are ignored; the flag of this filter is applied to all values.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean id=&quot;mdcPutFilter&quot; class=&quot;org.terasoluna.gfw.web.logging.mdc.CompositeMDCPutFilter&quot;&gt;
+ *     &lt;property name=&quot;mdcValueProviders&quot;&gt;
+ *         &lt;list&gt;
+ *             &lt;bean class=&quot;com.example.TenantIdMDCValueProvider&quot; /&gt;
+ *         &lt;/list&gt;
+ *     &lt;/property&gt;
+ *     &lt;property name=&quot;mdcPutFilters&quot;&gt;
+ *         &lt;list&gt;
+ *             &lt;bean class=&quot;org.terasoluna.gfw.web.logging.mdc.XTrackMDCPutFilter&quot;&gt;
+ *                 &lt;property name=&quot;traceparentEnabled&quot; value=&quot;true&quot; /&gt;
+ *             &lt;/bean&gt;
+ *             &lt;bean class=&quot;org.terasoluna.gfw.security.web.logging.UserIdMDCPutFilter&quot; /&gt;
+ *         &lt;/list&gt;
+ *     &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * <p>
+ * The values of {@code mdcPutFilters} are put after the values of {@code mdcValueProviders}.
+ * </p>
+ * @since 5.5.0
+ */
+public class CompositeMDCPutFilter extends OncePerRequestFilter {
+
+    /**
+     * providers of key and value to put MDC.
+     */
+    private MDCValueProvider[] mdcValueProviders = new MDCValueProvider[0];
+
+    /**
+     * providers adapting {@link AbstractMDCPutFilter}s.
+     */
+    private MDCValueProvider[] mdcPutFilterProviders = new MDCValueProvider[0];
+
+    /**
+     * all providers applied in order.
+     */
+    private MDCValueProvider[] providers = new MDCValueProvider[0];
+
+    /**
+     * Flag that controls whether the values put by this filter should also be remove from {@link MDC}.
+     */
+    private boolean removeValue = false;
+
+    /**
+     * Sets the providers of key and value to put MDC.
+     * @param mdcValueProviders providers (applied in order)
+     */
+    public void setMdcValueProviders(List<MDCValueProvider> mdcValueProviders) {
+        this.mdcValueProviders = mdcValueProviders.toArray(
+                new MDCValueProvider[mdcValueProviders.size()]);
+        this.providers = concat(this.mdcValueProviders,
+                this.mdcPutFilterProviders);
+    }
+
+    /**
+     * Sets the {@link AbstractMDCPutFilter}s that provide key and value to put MDC.
+     * @param mdcPutFilters filters (applied in order)
+     */
+    public void setMdcPutFilters(List<AbstractMDCPutFilter> mdcPutFilters) {
+        MDCValueProvider[] filterProviders = new MDCValueProvider[mdcPutFilters
+                .size()];
+        for (int i = 0; i < filterProviders.length; i++) {
+            filterProviders[i] = new MDCPutFilterValueProvider(mdcPutFilters
+                    .get(i));
+        }
+        this.mdcPutFilterProviders = filterProviders;
+        this.providers = concat(this.mdcValueProviders,
+                this.mdcPutFilterProviders);
+    }
+
+    /**
+     * Sets the flag that controls whether the values put by this filter should also be remove from {@link MDC}.
+     * <p>
+     * If {@code false} (default) is specified, always use this filter along with {@link MDCClearFilter}.
+     * </p>
+     * @param removeValue Flag that controls whether the values put by this filter should also be remove from {@link MDC}.
+     */
+    public void setRemoveValue(boolean removeValue) {
+        this.removeValue = removeValue;
+    }
+
+    /**
+     * Stores the values of all providers in {@link MDC} and calls the next filter in chain.
+     * @param request {@link HttpServletRequest}
+     * @param response {@link HttpServletResponse}
+     * @param filterChain {@link FilterChain}
+     * @throws ServletException If {@link ServletException} occurs in further in the execution chain
+     * @throws IOException If {@link IOException} occurs in further in the execution chain
+     * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(javax.servlet.http.HttpServletRequest,
+     *      javax.servlet.http.HttpServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        MDCValueProvider[] providers = this.providers;
+        String[] keys = removeValue ? new String[providers.length] : null;
+        try {
+            for (int i = 0; i < providers.length; i++) {
+                MDCValueProvider provider = providers[i];
+                String key = provider.getMDCKey(request, response);
+                MDC.put(key, provider.getMDCValue(request, response));
+                if (keys != null) {
+                    keys[i] = key;
+                }
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            if (keys != null) {
+                for (String key : keys) {
+                    if (key != null) {
+                        MDC.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Concatenates the arrays of providers.
+     * @param first providers applied first
+     * @param second providers applied second
+     * @return concatenated providers
+     */
+    private static MDCValueProvider[] concat(MDCValueProvider[] first,
+            MDCValueProvider[] second) {
+        MDCValueProvider[] concatenated = new MDCValueProvider[first.length
+                + second.length];
+        System.arraycopy(first, 0, concatenated, 0, first.length);
+        System.arraycopy(second, 0, concatenated, first.length, second.length);
+        return concatenated;
+    }
+
+    /**
+     * {@link MDCValueProvider} that fetches key and value from {@link AbstractMDCPutFilter}.
+     */
+    private static final class MDCPutFilterValueProvider implements
+                                                         MDCValueProvider {
+
+        /**
+         * filter to fetch key and value.
+         */
+        private final AbstractMDCPutFilter filter;
+
+        /**
+         * Constructor.
+         * @param filter filter to fetch key and value
+         */
+        private MDCPutFilterValueProvider(AbstractMDCPutFilter filter) {
+            this.filter = filter;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getMDCKey(HttpServletRequest request,
+                HttpServletResponse response) {
+            return filter.getMDCKey(request, response);
+        }
+
+        /**
+         * Returns the value cut by {@code maxMDCValueLength} of the filter.
+         */
+        @Override
+        public String getMDCValue(HttpServletRequest request,
+                HttpServletResponse response) {
+            return filter.cutValue(filter.getMDCValue(request, response));
+        }
+    }
+
+}
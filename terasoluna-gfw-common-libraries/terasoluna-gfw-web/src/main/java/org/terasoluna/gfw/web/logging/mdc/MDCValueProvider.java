@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.logging.mdc;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.MDC;
+
+/**
+ * Provider of key and value to put {@link MDC} by {@link CompositeMDCPutFilter}.
+ * <p>
+ * Unlike {@link AbstractMDCPutFilter}, the implementation is not a Servlet Filter and does not need the lifecycle of
+ * filter. The value is put to {@link MDC} as is, so cut the value in the implementation if necessary.
+ * </p>
+ * @since 5.5.0
+ */
+public interface MDCValueProvider {
+
+    /**
+     * Fetches the key for setting the value in {@link MDC}
+     * @param request {@link HttpServletRequest}
+     * @param response {@link HttpServletResponse}
+     * @return Key to store the value in {@link MDC}
+     */
+    String getMDCKey(HttpServletRequest request, HttpServletResponse response);
+
+    /**
+     * Returns the value to be stored in in {@link MDC}
+     * @param request {@link HttpServletRequest}
+     * @param response {@link HttpServletResponse}
+     * @return Value to be stored in {@link MDC}
+     */
+    String getMDCValue(HttpServletRequest request,
+            HttpServletResponse response);
+
+}
@@ -15,8 +15,7 @@
  */
 package org.terasoluna.gfw.web.logging.mdc;
 
-import java.util.UUID;
-import java.util.regex.Pattern;
+import java.util.concurrent.ThreadLocalRandom;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -26,7 +25,9 @@ import javax.servlet.http.HttpServletResponse;
  * <p>
  * default attribute name is "X-Track". You can change this name by configure. The value of X-Track is retrieved from HTTP
  * Request Header (same attribute name).<br>
- * If the attibute is not set in HTTP Request Header, this filter creates random value as X-Track and use it.
+ * If the attibute is not set in HTTP Request Header, this filter creates random value as X-Track and use it.<br>
+ * If {@code traceparentEnabled} is {@code true}, the trace-id of W3C Trace Context {@code traceparent} HTTP Request Header
+ * is used as X-Track when the attribute is not set in HTTP Request Header.
  * 
  * <pre>
  * <code>
@@ -42,15 +43,25 @@ import javax.servlet.http.HttpServletResponse;
 public class XTrackMDCPutFilter extends AbstractMDCPutFilter {
 
     /**
-     * pattern for replace uuid
+     * hex digits used to format track ID
      */
-    private static final Pattern UUID_REPLACE_PATTERN = Pattern.compile("-");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * name of HTTP Request Header defined by W3C Trace Context
+     */
+    private static final String TRACEPARENT_HEADER = "traceparent";
 
     /**
      * attribute name to set MDC and HTTP Response Header
      */
     private String attributeName = "X-Track";
 
+    /**
+     * whether to use the trace-id of traceparent HTTP Request Header
+     */
+    private boolean traceparentEnabled = false;
+
     /**
      * set attribute name to set MDC and HTTP Response Header<br>
      * @param attributeName attribute name
@@ -59,6 +70,18 @@ public class XTrackMDCPutFilter extends AbstractMDCPutFilter {
         this.attributeName = attributeName;
     }
 
+    /**
+     * set whether to use the trace-id of W3C Trace Context {@code traceparent} HTTP Request Header as X-Track<br>
+     * <p>
+     * default is {@code false}.
+     * </p>
+     * @param traceparentEnabled {@code true} to use the trace-id of {@code traceparent} header
+     * @since 5.5.0
+     */
+    public void setTraceparentEnabled(boolean traceparentEnabled) {
+        this.traceparentEnabled = traceparentEnabled;
+    }
+
     /**
      * <p>
      * get attribute name to set MDC and HTTP Response Header. (default: X-Track)
@@ -77,12 +100,33 @@ public class XTrackMDCPutFilter extends AbstractMDCPutFilter {
      * <p>
      * returns 32-length random HEX string.
      * </p>
+     * <p>
+     * 128 random bits are taken from {@link ThreadLocalRandom} and formatted directly into a char array. Unlike
+     * {@link java.util.UUID#randomUUID()}, this does not contend on a shared {@link java.security.SecureRandom}, and it
+     * does not need to remove hyphens afterwards.
+     * </p>
      * @return X-Track
      */
     protected String createXTrack() {
-        String uuid = UUID.randomUUID().toString();
-        String xTrack = UUID_REPLACE_PATTERN.matcher(uuid).replaceAll("");
-        return xTrack;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] xTrack = new char[32];
+        formatHex(random.nextLong(), xTrack, 0);
+        formatHex(random.nextLong(), xTrack, 16);
+        return new String(xTrack);
+    }
+
+    /**
+     * Formats the given value as 16 lower-case hex digits into the buffer.
+     * @param value value to format
+     * @param buffer destination buffer
+     * @param offset start position in the buffer
+     */
+    private static void formatHex(long value, char[] buffer, int offset) {
+        long v = value;
+        for (int i = offset + 15; i >= offset; i--) {
+            buffer[i] = HEX_DIGITS[(int) (v & 0xf)];
+            v >>>= 4;
+        }
     }
 
     /**
@@ -97,6 +141,9 @@ public class XTrackMDCPutFilter extends AbstractMDCPutFilter {
     protected String getMDCValue(HttpServletRequest request,
             HttpServletResponse response) {
         String xTrack = request.getHeader(attributeName);
+        if (xTrack == null && traceparentEnabled) {
+            xTrack = extractTraceId(request.getHeader(TRACEPARENT_HEADER));
+        }
         if (xTrack == null) {
             xTrack = createXTrack();
         }
@@ -106,4 +153,68 @@ public class XTrackMDCPutFilter extends AbstractMDCPutFilter {
         return cutXTrack;
     }
 
+    /**
+     * Extracts the trace-id from the value of {@code traceparent} HTTP Request Header.
+     * <p>
+     * The value format is {@code version "-" trace-id "-" parent-id "-" trace-flags}. {@code null} is returned if the value
+     * is not valid (e.g. trace-id is not 32 lower-case hex digits or all zeros, or the version is {@code ff}). A value of
+     * version {@code 00} must not have any additional field, while a value of a later version may have fields after
+     * trace-flags.
+     * </p>
+     * @param traceparent value of {@code traceparent} header
+     * @return trace-id. {@code null} if the value is not valid
+     */
+    private static String extractTraceId(String traceparent) {
+        if (traceparent == null) {
+            return null;
+        }
+        String value = traceparent.trim();
+        if (value.length() < 55 || value.charAt(2) != '-' || value.charAt(
+                35) != '-' || value.charAt(52) != '-') {
+            return null;
+        }
+        if (value.startsWith("ff") || !isLowerHex(value, 0, 2) || !isLowerHex(
+                value, 36, 52) || !isLowerHex(value, 53, 55)) {
+            return null;
+        }
+        if (value.length() > 55 && (value.startsWith("00") || value.charAt(
+                55) != '-')) {
+            return null;
+        }
+        boolean allZero = true;
+        for (int i = 3; i < 35; i++) {
+            char c = value.charAt(i);
+            if (!isLowerHex(c)) {
+                return null;
+            }
+            allZero &= (c == '0');
+        }
+        return allZero ? null : value.substring(3, 35);
+    }
+
+    /**
+     * Checks whether all chars in the range are lower-case hex digits.
+     * @param value value to check
+     * @param begin begin index (inclusive)
+     * @param end end index (exclusive)
+     * @return {@code true} if all chars are lower-case hex digits
+     */
+    private static boolean isLowerHex(String value, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (!isLowerHex(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the char is a lower-case hex digit.
+     * @param c char to check
+     * @return {@code true} if the char is a lower-case hex digit
+     */
+    private static boolean isLowerHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+    }
+
 }
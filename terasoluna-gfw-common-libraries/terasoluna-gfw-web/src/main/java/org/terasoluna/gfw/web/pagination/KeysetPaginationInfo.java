@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.pagination;
+
+import java.util.Map;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.terasoluna.gfw.web.util.HtmlEscapeUtils;
+
+/**
+ * Holds all the information required by the {@code PaginationTag} to display keyset (cursor based) pagination
+ * functionality. <br>
+ * <p>
+ * Unlike {@link PaginationInfo}, this class does not require the total count of elements. It is created from a
+ * {@link Slice} (that knows only whether a next slice exists) and the cursor tokens that identify the previous and next
+ * slice (e.g. the key of the first and last element of current slice). The following query variables are available in
+ * path and query templates.
+ * </p>
+ * <ul>
+ * <li>{@code {cursor}} : cursor token of the destination slice (empty for the first slice)</li>
+ * <li>{@code {page}} / {@code {size}} / {@code {sortOrderProperty}} / {@code {sortOrderDirection}} : same as
+ * {@link PaginationInfo}</li>
+ * </ul>
+ * @since 5.5.0
+ */
+public class KeysetPaginationInfo {
+
+    /**
+     * Default query template of keyset pagination
+     */
+    public static final String DEFAULT_QUERY_TEMPLATE = "cursor={cursor}&size={size}";
+
+    /**
+     * Key name of cursor
+     */
+    public static final String CURSOR_ATTR = "cursor";
+
+    /**
+     * Slice is a sublist of a list of objects
+     */
+    private final Slice<?> slice;
+
+    /**
+     * Cursor token of the previous slice
+     */
+    private final String previousCursor;
+
+    /**
+     * Cursor token of the next slice
+     */
+    private final String nextCursor;
+
+    /**
+     * Query of search criteria
+     */
+    private final String criteriaQuery;
+
+    /**
+     * Pagination URI
+     */
+    private final UriComponents pageUri;
+
+    /**
+     * Constructor. Initializes the properties with the arguments passed<br>
+     * @param slice a Slice instance
+     * @param previousCursor cursor token of the previous slice. {@code null} if there is no cursor for the previous slice
+     * @param nextCursor cursor token of the next slice. {@code null} if there is no cursor for the next slice
+     * @param pathTmpl path template of pagination
+     * @param queryTmpl query template of pagination
+     * @param criteriaQuery Query of search criteria
+     * @param disableHtmlEscapeOfCriteriaQuery Flag to indicate whether html escaping of criteriaQuery is to be disabled or
+     *            not.IF set to true, html escaping of criteriaQuery is disabled.
+     */
+    public KeysetPaginationInfo(Slice<?> slice, String previousCursor,
+            String nextCursor, String pathTmpl, String queryTmpl,
+            String criteriaQuery, boolean disableHtmlEscapeOfCriteriaQuery) {
+        this.slice = slice;
+        this.previousCursor = previousCursor;
+        this.nextCursor = nextCursor;
+        if (disableHtmlEscapeOfCriteriaQuery) {
+            this.criteriaQuery = PaginationInfo
+                    .removeHeadDelimiterOfQueryString(criteriaQuery);
+        } else {
+            this.criteriaQuery = HtmlEscapeUtils.htmlEscape(PaginationInfo
+                    .removeHeadDelimiterOfQueryString(criteriaQuery));
+        }
+        this.pageUri = UriComponentsBuilder.fromPath(pathTmpl).query(queryTmpl)
+                .build();
+    }
+
+    /**
+     * Fetches the query of search criteria <br>
+     * @return String query of search criteria
+     */
+    public String getCriteriaQuery() {
+        return criteriaQuery;
+    }
+
+    /**
+     * Returns cursor token of the previous slice
+     * @return cursor token of the previous slice
+     */
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    /**
+     * Returns cursor token of the next slice
+     * @return cursor token of the next slice
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Returns pagination URL after setting specified page index and cursor token to it
+     * @param pageIndex index of page number (page index is start with 0).
+     * @param cursor cursor token. {@code null} is treated as empty
+     * @return String Pagination URL
+     */
+    public String getPageUrl(int pageIndex, String cursor) {
+        Map<String, Object> attr = PaginationInfo.createAttributeMap(pageIndex,
+                slice.getSize(), slice.getSort());
+        attr.put(CURSOR_ATTR, cursor == null ? "" : cursor);
+        return PaginationInfo.expandUrl(pageUri, attr, criteriaQuery);
+    }
+
+    /**
+     * Returns first PaginationURL
+     * @return String first PaginationURL
+     */
+    public String getFirstUrl() {
+        return getPageUrl(0, null);
+    }
+
+    /**
+     * Returns PaginationURL of previous slice
+     * @return String PaginationURL of previous slice
+     */
+    public String getPreviousUrl() {
+        return getPageUrl(Math.max(0, slice.getNumber() - 1), previousCursor);
+    }
+
+    /**
+     * Returns PaginationURL of next slice
+     * @return String PaginationURL of next slice
+     */
+    public String getNextUrl() {
+        return getPageUrl(slice.getNumber() + 1, nextCursor);
+    }
+
+    /**
+     * Determines whether the current slice is the first slice or not<br>
+     * @return True, if there is no previous slice. False otherwise.
+     */
+    public boolean isFirstPage() {
+        return !slice.hasPrevious() && previousCursor == null;
+    }
+
+    /**
+     * Determines whether the current slice is the last slice or not<br>
+     * <p>
+     * Only {@link Slice#hasNext()} is used; the total count of elements is not required.
+     * </p>
+     * @return True, if there is no next slice. False otherwise.
+     */
+    public boolean isLastPage() {
+        return !slice.hasNext();
+    }
+
+}
@@ -15,8 +15,10 @@
  */
 package org.terasoluna.gfw.web.pagination;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.domain.Page;
@@ -173,6 +175,16 @@ public class PaginationInfo {
      */
     public static final String DEFAULT_DISABLED_CLASS = "disabled";
 
+    /**
+     * Page index used to detect the position of the page number in the expanded URL
+     */
+    private static final int PAGE_INDEX_MARKER = Integer.MAX_VALUE;
+
+    /**
+     * Page index used to verify the literal segments of the expanded URL
+     */
+    private static final int PAGE_INDEX_VERIFIER = Integer.MAX_VALUE - 1;
+
     /**
      * Page is a sublist of a list of objects
      */
@@ -209,6 +221,16 @@ public class PaginationInfo {
      */
     private final UriComponents pageUri;
 
+    /**
+     * Literal segments of the expanded pagination URL (with criteria query) split at the page number
+     * <p>
+     * Initialized at the first call of {@link #getPageUrl(int)}. Empty if the URL cannot be split (in this case, the URL is
+     * expanded on each call).
+     * </p>
+     * @since 5.5.0
+     */
+    private String[] pageUrlSegments;
+
     /**
      * Constructor. Initializes the properties with the arguments passed<br>
      * @param page a Page instance
@@ -251,6 +273,86 @@ public class PaginationInfo {
                 .build();
     }
 
+    /**
+     * Expands the pagination URL once and splits it into the literal segments around the page number.
+     * <p>
+     * The split result is verified by expanding the URL with another page index. If the page number cannot be located
+     * unambiguously, empty array is returned.
+     * </p>
+     * @return literal segments. empty array if the URL cannot be split
+     * @since 5.5.0
+     */
+    private String[] splitPageUrl() {
+        String markedUrl = expandPageUrl(PAGE_INDEX_MARKER);
+        String marker = String.valueOf(PAGE_INDEX_MARKER);
+        List<String> segments = new ArrayList<String>();
+        int begin = 0;
+        int markerIndex;
+        while ((markerIndex = markedUrl.indexOf(marker, begin)) >= 0) {
+            segments.add(markedUrl.substring(begin, markerIndex));
+            begin = markerIndex + marker.length();
+        }
+        segments.add(markedUrl.substring(begin));
+
+        String[] segmentArray = segments.toArray(new String[segments.size()]);
+        if (!joinPageUrl(segmentArray, PAGE_INDEX_VERIFIER).equals(
+                expandPageUrl(PAGE_INDEX_VERIFIER))) {
+            return new String[0];
+        }
+        return segmentArray;
+    }
+
+    /**
+     * Builds pagination URL from the literal segments.
+     * @param segments literal segments split at the page number
+     * @param pageIndex index of page number (page index is start with 0).
+     * @return String Pagination URL
+     * @since 5.5.0
+     */
+    private static String joinPageUrl(String[] segments, int pageIndex) {
+        StringBuilder pageUrlBuilder = new StringBuilder(segments.length * 16
+                + 32);
+        pageUrlBuilder.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            pageUrlBuilder.append(pageIndex).append(segments[i]);
+        }
+        return pageUrlBuilder.toString();
+    }
+
+    /**
+     * Expands the pagination URL with the specified page index.
+     * @param pageIndex index of page number (page index is start with 0).
+     * @return String Pagination URL
+     * @since 5.5.0
+     */
+    private String expandPageUrl(int pageIndex) {
+        return expandUrl(pageUri, createAttributeMap(pageIndex, page.getSize(),
+                page.getSort()), criteriaQuery);
+    }
+
+    /**
+     * Expands and encodes the pagination URI with the attributes, and appends the query of search criteria.
+     * @param pageUri pagination URI
+     * @param attr attributes to expand
+     * @param criteriaQuery query of search criteria
+     * @return String Pagination URL
+     * @since 5.5.0
+     */
+    static String expandUrl(UriComponents pageUri, Map<String, Object> attr,
+            String criteriaQuery) {
+        StringBuilder pageUriBuilder = new StringBuilder(pageUri.expand(attr)
+                .encode().toUriString());
+        if (StringUtils.hasLength(criteriaQuery)) {
+            if (pageUri.getQueryParams().isEmpty()) {
+                pageUriBuilder.append("?");
+            } else {
+                pageUriBuilder.append("&");
+            }
+            pageUriBuilder.append(criteriaQuery);
+        }
+        return pageUriBuilder.toString();
+    }
+
     /**
      * Remove the delimiter of query string that exists at the head.
      * <p>
@@ -260,7 +362,7 @@ public class PaginationInfo {
      * @return query string that removed delimiter at the head.
      * @since 1.0.1
      */
-    private String removeHeadDelimiterOfQueryString(String queryString) {
+    static String removeHeadDelimiterOfQueryString(String queryString) {
         if (!StringUtils.hasLength(queryString)) {
             return queryString;
         }
@@ -352,23 +454,23 @@ public class PaginationInfo {
 
     /**
      * Returns paginationURL after setting specified page number and display count to it
+     * <p>
+     * The URL templates are expanded and encoded only once per instance. The page number is substituted into the cached
+     * literal segments.
+     * </p>
      * @param pageIndex index of page number (page index is start with 0).
      * @return String Pagination URL with URL page number and display count set to it
      */
     public String getPageUrl(int pageIndex) {
-        Map<String, Object> attr = createAttributeMap(pageIndex, page.getSize(),
-                page.getSort());
-        StringBuilder pageUriBuilder = new StringBuilder(pageUri.expand(attr)
-                .encode().toUriString());
-        if (StringUtils.hasLength(criteriaQuery)) {
-            if (pageUri.getQueryParams().isEmpty()) {
-                pageUriBuilder.append("?");
-            } else {
-                pageUriBuilder.append("&");
-            }
-            pageUriBuilder.append(criteriaQuery);
+        String[] segments = pageUrlSegments;
+        if (segments == null) {
+            segments = splitPageUrl();
+            pageUrlSegments = segments;
         }
-        return pageUriBuilder.toString();
+        if (segments.length == 0) {
+            return expandPageUrl(pageIndex);
+        }
+        return joinPageUrl(segments, pageIndex);
     }
 
     /**
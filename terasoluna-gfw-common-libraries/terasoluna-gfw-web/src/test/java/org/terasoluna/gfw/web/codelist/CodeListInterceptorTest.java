@@ -16,11 +16,15 @@
 package org.terasoluna.gfw.web.codelist;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -37,6 +41,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatcher;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.MutablePropertyValues;
 import org.springframework.context.support.ApplicationObjectSupport;
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -45,6 +50,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.terasoluna.gfw.common.codelist.CodeList;
 import org.terasoluna.gfw.common.codelist.SimpleMapCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.I18nCodeList;
 import org.terasoluna.gfw.common.codelist.i18n.SimpleI18nCodeList;
 import org.terasoluna.gfw.web.logback.LogLevelChangeUtil;
 
@@ -560,6 +566,186 @@ public class CodeListInterceptorTest extends ApplicationObjectSupport {
 
     }
 
+    /**
+     * [preHandle] Case of locale which is not defined in any SimpleI18nCodeList.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>set localized code list map by fall back locale.</li>
+     * </ol>
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPreHandle_fall_back_locale() throws Exception {
+
+        // do setup.
+        Map<Locale, Map<String, String>> rows = Maps.newLinkedHashMap();
+        Map<String, String> enMap = Collections.singletonMap("01", "XXX");
+        Map<String, String> jaMap = Collections.singletonMap("01", "YYY");
+        rows.put(Locale.ENGLISH, enMap);
+        rows.put(Locale.JAPANESE, jaMap);
+        StaticApplicationContext mockApplicationContext = new StaticApplicationContext();
+        mockApplicationContext.registerSingleton("i18nCodeList",
+                SimpleI18nCodeList.class, new MutablePropertyValues().add(
+                        "rows", rows));
+
+        testTarget.setApplicationContext(mockApplicationContext);
+        testTarget.setFallbackTo(Locale.ENGLISH);
+        testTarget.afterPropertiesSet();
+
+        // do test.
+        MockHttpServletRequest jaRequest = new MockHttpServletRequest();
+        jaRequest.addPreferredLocale(Locale.JAPANESE);
+        testTarget.preHandle(jaRequest, mockResponse, null);
+        MockHttpServletRequest frRequest = new MockHttpServletRequest();
+        frRequest.addPreferredLocale(Locale.FRENCH);
+        testTarget.preHandle(frRequest, mockResponse, null);
+
+        // do assert.
+        assertThat(jaRequest.getAttribute("i18nCodeList"), is((Object) jaMap));
+        assertThat(frRequest.getAttribute("i18nCodeList"), is((Object) enMap));
+
+    }
+
+    /**
+     * [refreshLocalizedCodeMaps] Case of rows of SimpleI18nCodeList are changed after afterPropertiesSet.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>set changed localized code list map after refreshLocalizedCodeMaps.</li>
+     * </ol>
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testRefreshLocalizedCodeMaps() throws Exception {
+
+        // do setup.
+        Map<Locale, Map<String, String>> rows = Maps.newLinkedHashMap();
+        rows.put(Locale.ENGLISH, Collections.singletonMap("01", "XXX"));
+        StaticApplicationContext mockApplicationContext = new StaticApplicationContext();
+        mockApplicationContext.registerSingleton("i18nCodeList",
+                SimpleI18nCodeList.class, new MutablePropertyValues().add(
+                        "rows", rows));
+        SimpleI18nCodeList codeList = mockApplicationContext.getBean(
+                SimpleI18nCodeList.class);
+
+        testTarget.setApplicationContext(mockApplicationContext);
+        testTarget.afterPropertiesSet();
+
+        Map<String, String> changedMap = Collections.singletonMap("01", "ZZZ");
+        rows.put(Locale.ENGLISH, changedMap);
+        codeList.setRows(rows);
+
+        // do test.
+        testTarget.refreshLocalizedCodeMaps();
+        testTarget.preHandle(mockRequest, mockResponse, null);
+
+        // do assert.
+        assertThat(mockRequest.getAttribute("i18nCodeList"), is(
+                (Object) changedMap));
+
+    }
+
+    /**
+     * [preHandle] Case of getLocalizedCodeMap is overridden.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>set localized code list map returned by overridden method for each request.</li>
+     * </ol>
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPreHandle_override_getLocalizedCodeMap() throws Exception {
+
+        // do setup.
+        final Map<String, String> overriddenMap = Collections.singletonMap("01",
+                "overridden");
+        CodeListInterceptor testTarget = new CodeListInterceptor() {
+            @Override
+            protected Map<String, String> getLocalizedCodeMap(
+                    I18nCodeList i18nCodeList, Locale requestLocale) {
+                return overriddenMap;
+            }
+        };
+        testTarget.setApplicationContext(getApplicationContext());
+        testTarget.setCodeListIdPattern(Pattern.compile("C_.+"));
+        testTarget.afterPropertiesSet();
+
+        // do test.
+        testTarget.preHandle(mockRequest, mockResponse, null);
+
+        // do assert.
+        assertThat(mockRequest.getAttribute("C_simpleI18nCodeList"), is(
+                (Object) overriddenMap));
+
+    }
+
+    /**
+     * [preHandle] Case of lazy exposure.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>set only CodeListAttributes to attribute of HttpServletRequest.</li>
+     * <li>resolve CodeList when it is accessed.</li>
+     * </ol>
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPreHandle_lazy_exposure() throws Exception {
+
+        // do setup.
+        mockRequest.addPreferredLocale(Locale.ENGLISH);
+        StaticApplicationContext mockApplicationContext = new StaticApplicationContext(getApplicationContext());
+        CodeList mockCodeList = mock(CodeList.class);
+        when(mockCodeList.getCodeListId()).thenReturn("C_mockCodeList");
+        when(mockCodeList.asMap()).thenReturn(Collections.singletonMap("key3",
+                "value3"));
+        mockApplicationContext.getBeanFactory().registerSingleton(
+                "C_mockCodeList", mockCodeList);
+
+        testTarget.setApplicationContext(mockApplicationContext);
+        testTarget.setCodeListIdPattern(Pattern.compile("C_.+"));
+        testTarget.setLazyExposure(true);
+        testTarget.afterPropertiesSet();
+
+        // do test.
+        boolean actualReturnValue = testTarget.preHandle(mockRequest,
+                mockResponse, null);
+
+        // do assert.
+        Enumeration<String> actualAttributeNames = mockRequest
+                .getAttributeNames();
+        assertThat(actualAttributeNames.nextElement(), is(
+                CodeListAttributes.ATTRIBUTE_NAME));
+        assertThat(actualAttributeNames.hasMoreElements(), is(false));
+        assertThat(actualReturnValue, is(true));
+
+        CodeListAttributes attributes = (CodeListAttributes) mockRequest
+                .getAttribute(CodeListAttributes.ATTRIBUTE_NAME);
+        assertThat(attributes.keySet(), containsInAnyOrder(
+                "C_simpleMapCodeList", "C_simpleI18nCodeList",
+                "C_mockCodeList"));
+        assertThat(attributes.containsKey("C_mockCodeList"), is(true));
+        verify(mockCodeList, never()).asMap();
+
+        assertThat(attributes.get("C_mockCodeList"), is(Collections
+                .singletonMap("key3", "value3")));
+        assertThat(attributes.get("C_mockCodeList"), is(Collections
+                .singletonMap("key3", "value3")));
+        verify(mockCodeList, times(1)).asMap();
+        assertThat(attributes.get("C_simpleI18nCodeList"), is(Collections
+                .singletonMap("key2", "value2")));
+        assertThat(attributes.get("C_simpleMapCodeList"), is(Collections
+                .singletonMap("key1", "value1")));
+        assertThat(attributes.get("unknown"), is(nullValue()));
+
+    }
+
     /**
      * verify logging.
      * @param expectedLogMessage expected log message.
@@ -16,15 +16,22 @@
 package org.terasoluna.gfw.web.download;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -38,9 +45,9 @@ public class FileDownloadViewTest {
 
     private FileDownloadView fileDownloadView;
 
-    private HttpServletRequest request;
+    private MockHttpServletRequest request;
 
-    private HttpServletResponse response;
+    private MockHttpServletResponse response;
 
     Map<String, Object> model;
 
@@ -75,9 +82,12 @@ public class FileDownloadViewTest {
         protected void addResponseHeader(Map<String, Object> model,
                 HttpServletRequest request, HttpServletResponse response) {
             response.setHeader("MethodCalled", "true");
+            response.setContentType(contentType);
         }
     }
 
+    private String contentType = "text/csv;charset=UTF-8";
+
     @Before
     public void setup() throws FileNotFoundException {
 
@@ -145,7 +155,7 @@ public class FileDownloadViewTest {
     @Test(expected = IOException.class)
     public void testOutputStreamException() throws IOException {
         // Set Mock Behavior
-        response = mock(HttpServletResponse.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
         when(response.getOutputStream()).thenThrow(new IOException());
         fileDownloadView.renderMergedOutputModel(model, request, response);
     }
@@ -186,4 +196,226 @@ public class FileDownloadViewTest {
             fail("must not occur IllegalArgumentException.");
         }
     }
+
+    @Test
+    public void testCompressionGzip() throws IOException {
+        byte[] content = createContent(4096);
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        fileDownloadView.setCompressionEnabled(true);
+        request.addHeader("Accept-Encoding", "deflate;q=0.5, gzip;q=0.8");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is("gzip"));
+        assertThat(response.getHeader("Vary"), is("Accept-Encoding"));
+        assertArrayEquals(content, readFully(
+                new GZIPInputStream(new ByteArrayInputStream(response
+                        .getContentAsByteArray()))));
+    }
+
+    @Test
+    public void testCompressionDeflate() throws IOException {
+        byte[] content = createContent(4096);
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        fileDownloadView.setCompressionEnabled(true);
+        fileDownloadView.setCompressionLevel(9);
+        request.addHeader("Accept-Encoding", "gzip;q=0, deflate");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is("deflate"));
+        assertArrayEquals(content, readFully(
+                new InflaterInputStream(new ByteArrayInputStream(response
+                        .getContentAsByteArray()))));
+    }
+
+    @Test
+    public void testCompressionDeflateHigherQuality() throws IOException {
+        byte[] content = createContent(4096);
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        fileDownloadView.setCompressionEnabled(true);
+        request.addHeader("Accept-Encoding", "gzip;q=0.5, deflate;q=0.8");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is("deflate"));
+    }
+
+    @Test
+    public void testCompressionWildcardRejected() throws IOException {
+        byte[] content = createContent(4096);
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        fileDownloadView.setCompressionEnabled(true);
+        request.addHeader("Accept-Encoding", "deflate;q=0, *;q=0");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testCompressionWithoutPooling() throws IOException {
+        fileDownloadView.setCompressionEnabled(true);
+        fileDownloadView.setCompressionDeflaterPoolSize(0);
+        for (int i = 0; i < 2; i++) {
+            byte[] content = createContent(2048);
+            fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+            request = new MockHttpServletRequest();
+            request.addHeader("Accept-Encoding", "gzip");
+            response = new MockHttpServletResponse();
+
+            fileDownloadView.renderMergedOutputModel(model, request, response);
+
+            assertArrayEquals(content, readFully(
+                    new GZIPInputStream(new ByteArrayInputStream(response
+                            .getContentAsByteArray()))));
+        }
+    }
+
+    @Test
+    public void testCompressionReusesDeflater() throws IOException {
+        fileDownloadView.setCompressionEnabled(true);
+        for (int i = 0; i < 3; i++) {
+            byte[] content = createContent(2048 + i);
+            fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+            request = new MockHttpServletRequest();
+            request.addHeader("Accept-Encoding", "*");
+            response = new MockHttpServletResponse();
+
+            fileDownloadView.renderMergedOutputModel(model, request, response);
+
+            assertThat(response.getHeader("Content-Encoding"), is("gzip"));
+            assertArrayEquals(content, readFully(
+                    new GZIPInputStream(new ByteArrayInputStream(response
+                            .getContentAsByteArray()))));
+        }
+        fileDownloadView.destroy();
+    }
+
+    @Test
+    public void testCompressionNotAccepted() throws IOException {
+        byte[] content = createContent(4096);
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        fileDownloadView.setCompressionEnabled(true);
+        request.addHeader("Accept-Encoding", "br, identity");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(response.getHeader("Vary"), is("Accept-Encoding"));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testCompressionSmallContent() throws IOException {
+        byte[] content = createContent(1023);
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        fileDownloadView.setCompressionEnabled(true);
+        request.addHeader("Accept-Encoding", "gzip");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testCompressionExcludedContentType() throws IOException {
+        byte[] content = createContent(4096);
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        fileDownloadView.setCompressionEnabled(true);
+        fileDownloadView.setCompressionExcludedContentTypes(Arrays.asList(
+                "text/*"));
+        request.addHeader("Accept-Encoding", "gzip");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(response.getHeader("Vary"), is(nullValue()));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testCompressionDefaultExcludedContentType() throws IOException {
+        byte[] content = createContent(4096);
+        contentType = "application/zip";
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        fileDownloadView.setCompressionEnabled(true);
+        request.addHeader("Accept-Encoding", "gzip");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testCompressionDisabled() throws IOException {
+        byte[] content = createContent(4096);
+        fileDownloadView.setInputStream(new ByteArrayInputStream(content));
+        request.addHeader("Accept-Encoding", "gzip");
+
+        fileDownloadView.renderMergedOutputModel(model, request, response);
+
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(response.getHeader("Vary"), is(nullValue()));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testAfterPropertiesSet_compressionLevel_is10() {
+        fileDownloadView.setCompressionLevel(10);
+        try {
+            fileDownloadView.afterPropertiesSet();
+            fail("must occur IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(
+                    "compressionLevel must be between -1 and 9. specified compressionLevel is \"10\"."));
+        }
+    }
+
+    @Test
+    public void testAfterPropertiesSet_compressionMinSize_isNegative1() {
+        fileDownloadView.setCompressionMinSize(-1);
+        try {
+            fileDownloadView.afterPropertiesSet();
+            fail("must occur IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(
+                    "compressionMinSize must be over 0. specified compressionMinSize is \"-1\"."));
+        }
+    }
+
+    @Test
+    public void testAfterPropertiesSet_compressionDeflaterPoolSize_isNegative1() {
+        fileDownloadView.setCompressionDeflaterPoolSize(-1);
+        try {
+            fileDownloadView.afterPropertiesSet();
+            fail("must occur IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(
+                    "compressionDeflaterPoolSize must be over 0. specified compressionDeflaterPoolSize is \"-1\"."));
+        }
+    }
+
+    private static byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        byte[] row = "1,foo,bar,2017-01-01\r\n".getBytes();
+        for (int i = 0; i < size; i++) {
+            content[i] = row[i % row.length];
+        }
+        return content;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int length;
+        while ((length = in.read(buffer)) > 0) {
+            out.write(buffer, 0, length);
+        }
+        in.close();
+        return out.toByteArray();
+    }
 }
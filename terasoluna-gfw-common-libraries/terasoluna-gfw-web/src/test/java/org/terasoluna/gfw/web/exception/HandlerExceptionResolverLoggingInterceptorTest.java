@@ -15,6 +15,9 @@
  */
 package org.terasoluna.gfw.web.exception;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
@@ -25,9 +28,14 @@ import static org.mockito.Mockito.when;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.aopalliance.intercept.MethodInvocation;
@@ -41,7 +49,9 @@ import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionRes
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
 import org.terasoluna.gfw.common.exception.BusinessException;
+import org.terasoluna.gfw.common.exception.ExceptionLevel;
 import org.terasoluna.gfw.common.exception.ExceptionLogger;
+import org.terasoluna.gfw.common.exception.ExceptionResolution;
 import org.terasoluna.gfw.common.exception.ResourceNotFoundException;
 
 import ch.qos.logback.classic.Level;
@@ -258,6 +268,34 @@ public class HandlerExceptionResolverLoggingInterceptorTest {
 
     }
 
+    @Test
+    public void testInvoke_SystemExceptionResolver_reuse_exception_resolution() throws Throwable {
+
+        // do setup for test case.
+        NullPointerException occurException = new NullPointerException("null pointer exception.");
+        HttpServletRequest mockRequest = mock(HttpServletRequest.class);
+        HttpServletResponse mockResponse = mock(HttpServletResponse.class);
+        ExceptionResolution resolution = new ExceptionResolution(occurException, "w.code01", null);
+
+        SystemExceptionResolver resolver = new SystemExceptionResolver();
+
+        when(mockMethodInvocation.proceed()).thenReturn("viewname");
+        when(mockMethodInvocation.getThis()).thenReturn(resolver);
+        when(mockRequest.getAttribute(ExceptionResolution.ATTRIBUTE_NAME))
+                .thenReturn(resolution);
+        when(mockResponse.getStatus()).thenReturn(400);
+        when(mockMethodInvocation.getArguments()).thenReturn(new Object[] {
+                mockRequest, mockResponse, null, occurException });
+
+        // do test.
+        testTarget.invoke(mockMethodInvocation);
+
+        // do assert.
+        verify(mockExceptionLogger, times(1)).warn(resolution);
+        verify(mockExceptionLogger, times(0)).warn((Exception) any());
+
+    }
+
     @Test
     public void testInvoke_SystemExceptionResolver_BusinessException() throws Throwable {
 
@@ -363,6 +401,140 @@ public class HandlerExceptionResolverLoggingInterceptorTest {
 
     }
 
+    @Test
+    public void testInvoke_ignoreExceptions_is_changed() throws Throwable {
+
+        // do setup for test case.
+        ResourceNotFoundException occurException = new ResourceNotFoundException("error.");
+        HttpServletResponse mockResponse = mock(HttpServletResponse.class);
+
+        when(mockMethodInvocation.proceed()).thenReturn("viewname");
+        when(mockMethodInvocation.getThis()).thenReturn(
+                new SystemExceptionResolver());
+        when(mockResponse.getStatus()).thenReturn(404);
+        when(mockMethodInvocation.getArguments()).thenReturn(new Object[] {
+                null, mockResponse, null, occurException });
+
+        // do test.
+        // ignored by default and cached.
+        testTarget.invoke(mockMethodInvocation);
+        Set<Class<? extends Exception>> ignoreExceptions = Collections
+                .emptySet();
+        testTarget.setIgnoreExceptions(ignoreExceptions);
+        testTarget.invoke(mockMethodInvocation);
+
+        // do assert.
+        verify(mockExceptionLogger, times(1)).warn((Exception) any());
+
+    }
+
+    @Test
+    public void testInvoke_statusCodeExceptionLevels() throws Throwable {
+
+        // do setup for test case.
+        NullPointerException occurException = new NullPointerException("null pointer exception.");
+        HttpServletResponse mockResponse = mock(HttpServletResponse.class);
+
+        when(mockMethodInvocation.proceed()).thenReturn("viewname");
+        when(mockMethodInvocation.getThis()).thenReturn(
+                new SystemExceptionResolver());
+        when(mockMethodInvocation.getArguments()).thenReturn(new Object[] {
+                null, mockResponse, null, occurException });
+        when(mockResponse.getStatus()).thenReturn(404, 400, 409, 500);
+
+        Map<String, ExceptionLevel> levels = new HashMap<String, ExceptionLevel>();
+        levels.put("4xx", ExceptionLevel.ERROR);
+        levels.put("400-409", ExceptionLevel.WARN);
+        levels.put("404", ExceptionLevel.INFO);
+        testTarget.setStatusCodeExceptionLevels(levels);
+
+        // do test.
+        for (int i = 0; i < 4; i++) {
+            testTarget.invoke(mockMethodInvocation);
+        }
+
+        // do assert.
+        // 404 is mapped to INFO by the narrowest range.
+        verify(mockExceptionLogger, times(1)).info(occurException);
+        // 400 and 409 are mapped to WARN.
+        verify(mockExceptionLogger, times(2)).warn(occurException);
+        // 500 is not mapped and logged by default.
+        verify(mockExceptionLogger, times(1)).error(occurException);
+
+    }
+
+    @Test
+    public void testInvoke_exceptionClassExceptionLevels() throws Throwable {
+
+        // do setup for test case.
+        DuplicateKeyException occurException = new DuplicateKeyException("error.");
+        HttpServletRequest mockRequest = mock(HttpServletRequest.class);
+        HttpServletResponse mockResponse = mock(HttpServletResponse.class);
+        ExceptionResolution resolution = new ExceptionResolution(occurException, "w.code01", null);
+
+        when(mockMethodInvocation.proceed()).thenReturn("viewname");
+        when(mockMethodInvocation.getThis()).thenReturn(
+                new SystemExceptionResolver());
+        when(mockRequest.getAttribute(ExceptionResolution.ATTRIBUTE_NAME))
+                .thenReturn(resolution);
+        when(mockResponse.getStatus()).thenReturn(500);
+        when(mockMethodInvocation.getArguments()).thenReturn(new Object[] {
+                mockRequest, mockResponse, null, occurException });
+
+        Map<Class<? extends Exception>, ExceptionLevel> classLevels = new HashMap<Class<? extends Exception>, ExceptionLevel>();
+        classLevels.put(DataAccessException.class, ExceptionLevel.WARN);
+        classLevels.put(RuntimeException.class, ExceptionLevel.INFO);
+        testTarget.setExceptionClassExceptionLevels(classLevels);
+        testTarget.setStatusCodeExceptionLevels(Collections.singletonMap("5xx",
+                ExceptionLevel.ERROR));
+
+        // do test.
+        testTarget.invoke(mockMethodInvocation);
+
+        // do assert.
+        // the nearest super class takes precedence over the status code.
+        verify(mockExceptionLogger, times(1)).warn(resolution);
+        verify(mockExceptionLogger, times(0)).info(resolution);
+        verify(mockExceptionLogger, times(0)).error(resolution);
+
+    }
+
+    @Test
+    public void testSetStatusCodeExceptionLevels_invalid() {
+        for (String key : new String[] { "abc", "99", "1000", "500-400",
+                "xxx" }) {
+            try {
+                testTarget.setStatusCodeExceptionLevels(Collections
+                        .singletonMap(key, ExceptionLevel.INFO));
+                fail("if status code is invalid, must be occur IllegalArgumentException. status code is "
+                        + key);
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage().endsWith("current status code is \""
+                        + key + "\"."), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void testSetStatusCodeExceptionLevels_overlap_same_width() {
+        Map<String, ExceptionLevel> levels = new LinkedHashMap<String, ExceptionLevel>();
+        levels.put("4xx", ExceptionLevel.ERROR);
+        levels.put("400-409", ExceptionLevel.WARN);
+        levels.put("405-414", ExceptionLevel.INFO);
+        try {
+            testTarget.setStatusCodeExceptionLevels(levels);
+            fail("if ranges of the same width overlap, must be occur IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(
+                    "ranges of the same width must not overlap. current status codes are \"400-409\" and \"405-414\"."));
+        }
+
+        // adjacent ranges of the same width are allowed
+        levels.remove("405-414");
+        levels.put("410-419", ExceptionLevel.INFO);
+        testTarget.setStatusCodeExceptionLevels(levels);
+    }
+
     @Test
     public void testInvoke_responseCode_199() throws Throwable {
 
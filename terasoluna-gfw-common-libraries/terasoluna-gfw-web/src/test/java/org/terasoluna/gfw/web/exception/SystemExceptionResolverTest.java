@@ -34,6 +34,7 @@ import org.springframework.web.servlet.handler.SimpleMappingExceptionResolver;
 import org.springframework.web.servlet.support.RequestContextUtils;
 import org.springframework.web.util.WebUtils;
 import org.terasoluna.gfw.common.exception.BusinessException;
+import org.terasoluna.gfw.common.exception.ExceptionResolution;
 import org.terasoluna.gfw.common.exception.SimpleMappingExceptionCodeResolver;
 import org.terasoluna.gfw.common.exception.SystemException;
 import org.terasoluna.gfw.common.message.ResultMessages;
@@ -93,12 +94,31 @@ public class SystemExceptionResolverTest {
         Enumeration<String> attributeNames = mockRequest.getAttributeNames();
         assertThat(attributeNames.nextElement().equals(
                 DispatcherServlet.OUTPUT_FLASH_MAP_ATTRIBUTE), is(true));
+        assertThat(attributeNames.nextElement(), is(
+                ExceptionResolution.ATTRIBUTE_NAME));
         assertThat(attributeNames.hasMoreElements(), is(false));
         assertThat(mockResponse.getHeaderNames().isEmpty(), is(true));
         assertThat(flashMap.isEmpty(), is(true));
 
     }
 
+    @Test
+    public void testSetExceptionCode_store_exception_resolution() {
+
+        SimpleMappingExceptionCodeResolver exceptionCodeResolver = new SimpleMappingExceptionCodeResolver();
+        testTarget.setExceptionCodeResolver(exceptionCodeResolver);
+        SystemException occurException = new SystemException("code001", "message");
+
+        testTarget.setExceptionCode(occurException, mockRequest, mockResponse);
+
+        ExceptionResolution resolution = (ExceptionResolution) mockRequest
+                .getAttribute(ExceptionResolution.ATTRIBUTE_NAME);
+        assertThat(resolution.getExceptionCode(), is("code001"));
+        assertThat(resolution.isResolvedBy(occurException,
+                exceptionCodeResolver), is(true));
+
+    }
+
     @Test
     public void testSetExceptionCode_exception_code_is_notnull() {
 
@@ -128,8 +148,10 @@ public class SystemExceptionResolverTest {
 
         testTarget.setExceptionCode(occurException, mockRequest, mockResponse);
 
-        assertThat(mockRequest.getAttributeNames().hasMoreElements(), is(
-                false));
+        Enumeration<String> attributeNames = mockRequest.getAttributeNames();
+        assertThat(attributeNames.nextElement(), is(
+                ExceptionResolution.ATTRIBUTE_NAME));
+        assertThat(attributeNames.hasMoreElements(), is(false));
         assertThat(mockResponse.getHeaderNames().isEmpty(), is(true));
 
     }
@@ -144,8 +166,10 @@ public class SystemExceptionResolverTest {
 
         testTarget.setExceptionCode(occurException, mockRequest, mockResponse);
 
-        assertThat(mockRequest.getAttributeNames().hasMoreElements(), is(
-                false));
+        Enumeration<String> attributeNames = mockRequest.getAttributeNames();
+        assertThat(attributeNames.nextElement(), is(
+                ExceptionResolution.ATTRIBUTE_NAME));
+        assertThat(attributeNames.hasMoreElements(), is(false));
         assertThat(mockResponse.getHeaderNames().isEmpty(), is(true));
 
     }
@@ -159,8 +183,10 @@ public class SystemExceptionResolverTest {
 
         testTarget.setExceptionCode(occurException, mockRequest, mockResponse);
 
-        assertThat(mockRequest.getAttributeNames().hasMoreElements(), is(
-                false));
+        Enumeration<String> attributeNames = mockRequest.getAttributeNames();
+        assertThat(attributeNames.nextElement(), is(
+                ExceptionResolution.ATTRIBUTE_NAME));
+        assertThat(attributeNames.hasMoreElements(), is(false));
         assertThat(mockResponse.getHeader("X-Exception-Code"), is("code001"));
 
     }
@@ -174,8 +200,10 @@ public class SystemExceptionResolverTest {
 
         testTarget.setExceptionCode(occurException, mockRequest, mockResponse);
 
-        assertThat(mockRequest.getAttributeNames().hasMoreElements(), is(
-                false));
+        Enumeration<String> attributeNames = mockRequest.getAttributeNames();
+        assertThat(attributeNames.nextElement(), is(
+                ExceptionResolution.ATTRIBUTE_NAME));
+        assertThat(attributeNames.hasMoreElements(), is(false));
         assertThat(mockResponse.getHeader("X-Exception-Code"), is("code001"));
 
     }
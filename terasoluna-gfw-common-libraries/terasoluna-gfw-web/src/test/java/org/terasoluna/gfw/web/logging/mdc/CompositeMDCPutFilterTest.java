@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.logging.mdc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test class for CompositeMDCPutFilter.
+ */
+public class CompositeMDCPutFilterTest {
+
+    private CompositeMDCPutFilter testTarget;
+
+    private MockHttpServletRequest mockRequest;
+
+    private MockHttpServletResponse mockResponse;
+
+    private MockFilterChainForCompositeMDCPutFilterTest mockFilterChain;
+
+    @Before
+    public void setup() {
+        XTrackMDCPutFilter xTrackMDCPutFilter = new XTrackMDCPutFilter();
+        xTrackMDCPutFilter.setTraceparentEnabled(true);
+        AbstractMDCPutFilter fooMDCPutFilter = new AbstractMDCPutFilter() {
+            @Override
+            protected String getMDCKey(HttpServletRequest request,
+                    HttpServletResponse response) {
+                return "foo";
+            }
+
+            @Override
+            protected String getMDCValue(HttpServletRequest request,
+                    HttpServletResponse response) {
+                return "1234567890";
+            }
+        };
+        fooMDCPutFilter.setMaxMDCValueLength(5);
+
+        this.testTarget = new CompositeMDCPutFilter();
+        this.testTarget.setMdcPutFilters(Arrays.asList(xTrackMDCPutFilter,
+                fooMDCPutFilter));
+
+        this.mockRequest = new MockHttpServletRequest();
+        this.mockResponse = new MockHttpServletResponse();
+        this.mockFilterChain = new MockFilterChainForCompositeMDCPutFilterTest();
+
+        MDC.clear();
+    }
+
+    @Test
+    public void testDoFilterInternal_leave_value() throws ServletException, IOException {
+        mockRequest.addHeader("traceparent",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+
+        testTarget.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
+
+        assertThat(mockFilterChain.actualMdcContextMap.size(), is(2));
+        assertThat((String) mockFilterChain.actualMdcContextMap.get("X-Track"),
+                is("4bf92f3577b34da6a3ce929d0e0e4736"));
+        assertThat((String) mockFilterChain.actualMdcContextMap.get("foo"), is(
+                "12345"));
+        assertThat(mockResponse.getHeader("X-Track"), is(
+                "4bf92f3577b34da6a3ce929d0e0e4736"));
+        assertEquals(2, MDC.getCopyOfContextMap().size());
+    }
+
+    @Test
+    public void testDoFilterInternal_remove_value_and_occur_ServletException() throws ServletException, IOException {
+        testTarget.setRemoveValue(true);
+        MDC.put("dummyKey", "dummyValue");
+        mockFilterChain.occurException = new ServletException("test");
+
+        try {
+            testTarget.doFilterInternal(mockRequest, mockResponse,
+                    mockFilterChain);
+            fail("don't occur ServletException.");
+        } catch (ServletException e) {
+            assertThat(e, is(mockFilterChain.occurException));
+        }
+
+        assertThat(mockFilterChain.actualMdcContextMap.size(), is(3));
+        assertEquals(1, MDC.getCopyOfContextMap().size());
+        assertEquals("dummyValue", MDC.get("dummyKey"));
+    }
+
+    @Test
+    public void testDoFilterInternal_no_filters() throws ServletException, IOException {
+        testTarget = new CompositeMDCPutFilter();
+        testTarget.setRemoveValue(true);
+
+        testTarget.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
+
+        assertThat(mockFilterChain.actualMdcContextMap == null
+                || mockFilterChain.actualMdcContextMap.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testDoFilterInternal_value_providers() throws ServletException, IOException {
+        testTarget.setMdcValueProviders(Arrays.<MDCValueProvider> asList(
+                new MDCValueProvider() {
+                    @Override
+                    public String getMDCKey(HttpServletRequest request,
+                            HttpServletResponse response) {
+                        return "bar";
+                    }
+
+                    @Override
+                    public String getMDCValue(HttpServletRequest request,
+                            HttpServletResponse response) {
+                        return "1234567890";
+                    }
+                }));
+        testTarget.setRemoveValue(true);
+
+        testTarget.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
+
+        assertThat(mockFilterChain.actualMdcContextMap.size(), is(3));
+        assertThat((String) mockFilterChain.actualMdcContextMap.get("bar"), is(
+                "1234567890"));
+        assertThat((String) mockFilterChain.actualMdcContextMap.get("foo"), is(
+                "12345"));
+        assertThat(MDC.getCopyOfContextMap().isEmpty(), is(true));
+    }
+
+    /**
+     * Mock class of FilterChain.
+     */
+    private class MockFilterChainForCompositeMDCPutFilterTest implements
+                                                              FilterChain {
+
+        @SuppressWarnings("rawtypes")
+        private Map actualMdcContextMap;
+
+        private ServletException occurException;
+
+        @Override
+        public void doFilter(ServletRequest request,
+                ServletResponse response) throws ServletException, IOException {
+            this.actualMdcContextMap = MDC.getCopyOfContextMap();
+            if (occurException != null) {
+                throw occurException;
+            }
+        }
+    }
+
+}
@@ -17,6 +17,9 @@ package org.terasoluna.gfw.web.logging.mdc;
 
 import static org.junit.Assert.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import javax.servlet.ServletException;
 
 import org.junit.Before;
@@ -124,4 +127,91 @@ public class XTrackMDCPutFilterTest {
         assertThat((String) request.getAttribute("X-Track"), is(
                 "12345678901234567890123456789012"));
     }
+
+    @Test
+    public void testCreateXTrack() {
+        Set<String> xTracks = new HashSet<String>();
+        for (int i = 0; i < 1000; i++) {
+            String xTrack = xTrackMDCPutFilter.createXTrack();
+            assertThat(xTrack.matches("^[a-f0-9]{32}$"), is(true));
+            xTracks.add(xTrack);
+        }
+        assertThat(xTracks.size(), is(1000));
+    }
+
+    @Test
+    public void testGetMDCValue_traceparent() throws ServletException {
+        xTrackMDCPutFilter.setTraceparentEnabled(true);
+        xTrackMDCPutFilter.init(mockFilterConfig);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        request.addHeader("traceparent",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        String xTrack = xTrackMDCPutFilter.getMDCValue(request, response);
+        assertThat(xTrack, is("4bf92f3577b34da6a3ce929d0e0e4736"));
+        assertThat(response.getHeader("X-Track"), is(xTrack));
+        assertThat((String) request.getAttribute("X-Track"), is(xTrack));
+    }
+
+    @Test
+    public void testGetMDCValue_traceparent_later_version() throws ServletException {
+        xTrackMDCPutFilter.setTraceparentEnabled(true);
+        xTrackMDCPutFilter.init(mockFilterConfig);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        request.addHeader("traceparent",
+                "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-00");
+        String xTrack = xTrackMDCPutFilter.getMDCValue(request, response);
+        assertThat(xTrack, is("4bf92f3577b34da6a3ce929d0e0e4736"));
+    }
+
+    @Test
+    public void testGetMDCValue_traceparent_xtrack_precedence() throws ServletException {
+        xTrackMDCPutFilter.setTraceparentEnabled(true);
+        xTrackMDCPutFilter.init(mockFilterConfig);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        request.addHeader("X-Track", "12345678901234567890123456789012");
+        request.addHeader("traceparent",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        String xTrack = xTrackMDCPutFilter.getMDCValue(request, response);
+        assertThat(xTrack, is("12345678901234567890123456789012"));
+    }
+
+    @Test
+    public void testGetMDCValue_traceparent_invalid() throws ServletException {
+        xTrackMDCPutFilter.setTraceparentEnabled(true);
+        xTrackMDCPutFilter.init(mockFilterConfig);
+        String[] invalidValues = {
+                "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+                "ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+                "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-00",
+                "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-010",
+                "00_4bf92f3577b34da6a3ce929d0e0e4736_00f067aa0ba902b7_01" };
+        for (String invalidValue : invalidValues) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            request.addHeader("traceparent", invalidValue);
+            String xTrack = xTrackMDCPutFilter.getMDCValue(request, response);
+            assertThat(xTrack.matches("^[a-f0-9]{32}$"), is(true));
+            assertThat(invalidValue.contains(xTrack), is(false));
+        }
+    }
+
+    @Test
+    public void testGetMDCValue_traceparent_disabled() throws ServletException {
+        xTrackMDCPutFilter.init(mockFilterConfig);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        request.addHeader("traceparent",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        String xTrack = xTrackMDCPutFilter.getMDCValue(request, response);
+        assertThat(xTrack, is(not("4bf92f3577b34da6a3ce929d0e0e4736")));
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2013-2017 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.pagination;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+public class KeysetPaginationInfoTest {
+
+    @Test
+    public void testFirstSliceHasNext() {
+        Slice<String> slice = new SliceImpl<String>(Arrays.asList("a",
+                "b"), new PageRequest(0, 2), true);
+        KeysetPaginationInfo info = new KeysetPaginationInfo(slice, null, "b", "/list", KeysetPaginationInfo.DEFAULT_QUERY_TEMPLATE, null, false);
+
+        assertThat(info.isFirstPage(), is(true));
+        assertThat(info.isLastPage(), is(false));
+        assertThat(info.getFirstUrl(), is("/list?cursor=&size=2"));
+        assertThat(info.getNextUrl(), is("/list?cursor=b&size=2"));
+    }
+
+    @Test
+    public void testMiddleSliceWithCursors() {
+        Slice<String> slice = new SliceImpl<String>(Arrays.asList("c",
+                "d"), new PageRequest(0, 2), true);
+        KeysetPaginationInfo info = new KeysetPaginationInfo(slice, "c", "d e&f", "/list", KeysetPaginationInfo.DEFAULT_QUERY_TEMPLATE, "?name=<x>", false);
+
+        assertThat(info.isFirstPage(), is(false));
+        assertThat(info.isLastPage(), is(false));
+        assertThat(info.getPreviousCursor(), is("c"));
+        assertThat(info.getNextCursor(), is("d e&f"));
+        assertThat(info.getCriteriaQuery(), is("name=&lt;x&gt;"));
+        assertThat(info.getPreviousUrl(), is(
+                "/list?cursor=c&size=2&name=&lt;x&gt;"));
+        assertThat(info.getNextUrl(), is(
+                "/list?cursor=d%20e%26f&size=2&name=&lt;x&gt;"));
+    }
+
+    @Test
+    public void testLastSliceWithoutCursor() {
+        Slice<String> slice = new SliceImpl<String>(Arrays.asList(
+                "e"), new PageRequest(2, 2), false);
+        KeysetPaginationInfo info = new KeysetPaginationInfo(slice, null, null, "/list/{page}", null, "name=x", true);
+
+        assertThat(info.isFirstPage(), is(false));
+        assertThat(info.isLastPage(), is(true));
+        assertThat(info.getPreviousUrl(), is("/list/1?name=x"));
+        assertThat(info.getNextUrl(), is("/list/3?name=x"));
+    }
+
+}
@@ -491,4 +491,44 @@ public class PaginationInfoTest {
         assertThat(info.getPageUrl(3), is(expectedURL));
     }
 
+    @Test
+    public void testGetPageUrl_pageNumberInPathAndQuery() {
+        PaginationInfo info = new PaginationInfo(page, "/list/{page}", "page={page}&size={size}", "name=a b", true, 10);
+
+        // assert
+        // That the page number is substituted into every slot
+        assertThat(info.getPageUrl(0), is("/list/0?page=0&size=5&name=a b"));
+        assertThat(info.getPageUrl(12), is("/list/12?page=12&size=5&name=a b"));
+        assertThat(info.getPageUrl(-1), is("/list/-1?page=-1&size=5&name=a b"));
+    }
+
+    @Test
+    public void testGetPageUrl_sortAndEncoding() {
+        List<String> mockedList = new ArrayList<String>();
+        mockedList.add("a");
+        page = new PageImpl<String>(mockedList, new PageRequest(1, 10, new Sort(Direction.DESC, "last name")), 100L);
+        PaginationInfo info = new PaginationInfo(page, "/search result", "page={page}&size={size}&sort={sortOrderProperty},{sortOrderDirection}", 10);
+
+        // assert
+        // That the result is the same as expanding the templates on each call
+        for (int i = 0; i < 10; i++) {
+            Map<String, Object> attr = PaginationInfo.createAttributeMap(i, 10,
+                    page.getSort());
+            assertThat(info.getPageUrl(i), is(info.getPageUri().expand(attr)
+                    .encode().toUriString()));
+        }
+        assertThat(info.getPageUrl(3), is(
+                "/search%20result?page=3&size=10&sort=last%20name,DESC"));
+    }
+
+    @Test
+    public void testGetPageUrl_criteriaQueryContainsMarker() {
+        PaginationInfo info = new PaginationInfo(page, pathTmpl, queryTmpl, "a=2147483647", true, 10);
+
+        // assert
+        // That the criteria query is not substituted
+        assertThat(info.getPageUrl(1), is(
+                "terasoluna?value=test&page=1&size=5&a=2147483647"));
+    }
+
 }